@@ -0,0 +1,105 @@
+package com.chat.bot.jmh;
+
+import com.chat.bot.entity.ChatTransaction;
+import com.chat.bot.entity.ConversationNode;
+import com.chat.bot.entity.GraphVersion;
+import com.chat.bot.repository.ChatTransactionRepository;
+import com.chat.bot.repository.GraphVersionRepository;
+import com.chat.bot.service.TranscriptService;
+import com.chat.bot.transcript.TranscriptWriter;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * In-memory stand-ins for the collaborators of the chat engine, so the benchmarks measure the engine alone.
+ * <p>
+ * The repositories answer only the calls the chat path makes and throw on any other, so a benchmark silently
+ * reaching the database shows up as a failure instead of a faster-than-real number. They are plain JDK proxies
+ * rather than mocks, as a mocking framework records every call and would add its own cost to the measurement.
+ */
+final class BenchmarkStubs {
+
+    private BenchmarkStubs() {
+    }
+
+    /**
+     * Creates a repository serving a single published version made of the given nodes, without message bodies.
+     *
+     * @param nodes the nodes of version 1.
+     * @return the repository.
+     */
+    static GraphVersionRepository publishedVersion(List<ConversationNode> nodes) {
+        GraphVersion version = new GraphVersion(1L, null, nodes.size());
+        List<ConversationNode> copy = List.copyOf(nodes);
+        return stub(GraphVersionRepository.class, (name, args) -> switch (name) {
+            case "findTopByOrderByIdDesc" -> Optional.of(version);
+            case "loadNodes" -> version.getId().equals(args[0]) ? copy : List.of();
+            case "findBody" -> Optional.empty();
+            default -> throw new UnsupportedOperationException(name);
+        });
+    }
+
+    /**
+     * Creates a transcript reader the chat path must not use, as session histories are never read back.
+     *
+     * @return the reader, whose repository throws on every call.
+     */
+    static TranscriptService unusedTranscriptService() {
+        return new TranscriptService(stub(ChatTransactionRepository.class, (name, args) -> {
+            throw new UnsupportedOperationException(name);
+        }), 1);
+    }
+
+    /**
+     * Implements an interface by answering its calls by method name; the methods of {@link Object} are answered
+     * for the proxy itself.
+     *
+     * @param type    the interface.
+     * @param answers the answers by method name and arguments.
+     * @param <T>     the type of the interface.
+     * @return the stub.
+     */
+    private static <T> T stub(Class<T> type, Answers answers) {
+        Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "toString" -> type.getSimpleName() + " stub";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> answers.answer(method.getName(), args);
+                });
+        return type.cast(stub);
+    }
+
+    /**
+     * Answers of a stub.
+     */
+    @FunctionalInterface
+    private interface Answers {
+
+        /**
+         * Answers a call.
+         *
+         * @param name the name of the method called.
+         * @param args the arguments, or null for none.
+         * @return the result.
+         */
+        Object answer(String name, Object[] args);
+    }
+
+    /**
+     * Transcript writer dropping every transaction.
+     */
+    static final class DiscardingTranscriptWriter extends TranscriptWriter {
+
+        DiscardingTranscriptWriter() {
+            super(null, 1, 1, Duration.ZERO, Duration.ZERO, 1, Duration.ZERO, false);
+        }
+
+        @Override
+        public void write(ChatTransaction transaction) {
+        }
+    }
+}
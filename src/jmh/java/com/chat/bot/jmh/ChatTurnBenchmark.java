@@ -0,0 +1,112 @@
+package com.chat.bot.jmh;
+
+import com.chat.bot.entity.ConversationNode;
+import com.chat.bot.entity.ConversationNode.NodeType;
+import com.chat.bot.graph.MessageBodyCache;
+import com.chat.bot.graph.PublishedGraphCache;
+import com.chat.bot.jmh.BenchmarkStubs.DiscardingTranscriptWriter;
+import com.chat.bot.logging.TurnEventLogger;
+import com.chat.bot.metrics.ChatMetrics;
+import com.chat.bot.repository.GraphVersionRepository;
+import com.chat.bot.service.ChatbotService;
+import com.chat.bot.session.ConversationSession;
+import com.chat.bot.session.InMemoryConversationSessionStore;
+import com.chat.bot.session.SessionIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a chat turn through {@link ChatbotService#handleUserResponse(String, String)} on the valid,
+ * invalid and end-of-chat paths.
+ * <p>
+ * The graph is loaded once from an in-memory stand-in of the repository; transcripts go to a writer that
+ * discards them, so only the conversation engine is measured. Session histories are bounded, so memory stays
+ * flat over millions of turns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatTurnBenchmark {
+
+    /** Service under test. */
+    private ChatbotService chatbotService;
+
+    /** Session staying on the first node through a self-loop. */
+    private ConversationSession validSession;
+
+    /** Session answering with unknown responses. */
+    private ConversationSession invalidSession;
+
+    /** Session reaching a node without responses on every turn. */
+    private ConversationSession endSession;
+
+    /**
+     * Builds the graph: the first node loops onto itself on "again" and leads to a dead end on "bye"; the end
+     * node offered after the dead end also leads there on "bye", so every "bye" walks the end-of-chat path.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        ConversationNode first = node(1L, "Welcome", NodeType.FIRST_NODE, Map.of("again", 1L, "bye", 3L));
+        ConversationNode invalid = node(2L, "Invalid", NodeType.INVALID_NODE, Map.of());
+        ConversationNode deadEnd = node(3L, "Thanks", NodeType.NORMAL_NODE, Map.of());
+        ConversationNode end = node(4L, "Restart?", NodeType.END_NODE, Map.of("yes", 1L, "bye", 3L));
+
+        GraphVersionRepository versions = BenchmarkStubs.publishedVersion(List.of(first, invalid, deadEnd, end));
+
+        chatbotService = new ChatbotService(new DiscardingTranscriptWriter(),
+                new InMemoryConversationSessionStore(16, Duration.ofHours(1)),
+                new PublishedGraphCache(versions, 4), new MessageBodyCache(versions, 16), new SessionIdGenerator(0),
+                new ChatMetrics(new SimpleMeterRegistry()), new TurnEventLogger(0),
+                BenchmarkStubs.unusedTranscriptService(), ConversationSession.DEFAULT_HISTORY_CAPACITY);
+        validSession = chatbotService.initializeChat();
+        invalidSession = chatbotService.initializeChat();
+        endSession = chatbotService.initializeChat();
+    }
+
+    /**
+     * Turn matching a response of the current node.
+     */
+    @Benchmark
+    public ConversationSession validPath() {
+        return turn(validSession, "again");
+    }
+
+    /**
+     * Turn with a response no node understands.
+     */
+    @Benchmark
+    public ConversationSession invalidPath() {
+        return turn(invalidSession, "something else");
+    }
+
+    /**
+     * Turn reaching a node without responses, followed by the switch to the end node.
+     */
+    @Benchmark
+    public ConversationSession endOfChatPath() {
+        return turn(endSession, "bye");
+    }
+
+    private ConversationSession turn(ConversationSession session, String response) {
+        return chatbotService.handleUserResponse(session.getToken(), response);
+    }
+
+    private static ConversationNode node(Long id, String message, NodeType nodeType, Map<String, Long> responses) {
+        ConversationNode node = new ConversationNode();
+        node.setId(id);
+        node.setMessage(message);
+        node.setNodeType(nodeType);
+        node.setDeletable(true);
+        node.setResponses(new HashMap<>(responses));
+        return node;
+    }
+}
@@ -0,0 +1,130 @@
+package com.chat.bot.jmh;
+
+import com.chat.bot.ChatBotApplication;
+import com.chat.bot.service.AdminService;
+import com.chat.bot.support.H2TestProperties;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link AdminService#deleteNode(Long)} on graphs of 10² to 10⁵ nodes, against an in-memory H2
+ * database behind the real JPA repositories.
+ * <p>
+ * The graph is a chain in which every node also links back to the first node. Before each invocation a fresh
+ * node is inserted and {@link #REFERRERS} random nodes get a response pointing to it, so each deletion has
+ * edges to redirect to the invalid node.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeleteNodeBenchmark {
+
+    /** First ID of the generated nodes, far above the IDs handed out by the node sequence. */
+    private static final long FIRST_ID = 1_000_000L;
+
+    /** Number of nodes pointing to each deleted node. */
+    private static final int REFERRERS = 10;
+
+    /** Number of generated nodes. */
+    @Param({"100", "1000", "10000", "100000"})
+    public int nodes;
+
+    /** Running application. */
+    private ConfigurableApplicationContext context;
+
+    /** Service under test. */
+    private AdminService adminService;
+
+    /** Access to the database for preparing invocations. */
+    private JdbcTemplate jdbcTemplate;
+
+    /** Source of referrer IDs. */
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    /** ID of the next node to delete. */
+    private long nextTargetId = FIRST_ID * 100;
+
+    /** ID of the node deleted by the current invocation. */
+    private long targetId;
+
+    /**
+     * Boots the application on H2 and generates the graph.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> properties = H2TestProperties.forDatabase("delete-node-" + nodes);
+        context = new SpringApplicationBuilder(ChatBotApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties)
+                .run();
+        adminService = context.getBean(AdminService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        List<Object[]> nodeRows = new ArrayList<>(nodes);
+        List<Object[]> responseRows = new ArrayList<>(nodes * 2);
+        for (int i = 0; i < nodes; i++) {
+            long id = FIRST_ID + i;
+            nodeRows.add(new Object[]{id, "Message " + i, "Node " + i});
+            responseRows.add(new Object[]{id, "back", 1L});
+            if (i + 1 < nodes) {
+                responseRows.add(new Object[]{id, "next", id + 1});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO conversation_node (id, message, message_name, deletable, node_type) "
+                + "VALUES (?, ?, ?, TRUE, 'NORMAL_NODE')", nodeRows);
+        jdbcTemplate.batchUpdate("INSERT INTO conversation_node_responses (conversation_node_id, response_key, next_node_id) "
+                + "VALUES (?, ?, ?)", responseRows);
+    }
+
+    /**
+     * Inserts the node to delete and the responses pointing to it.
+     */
+    @Setup(Level.Invocation)
+    public void prepareTarget() {
+        targetId = nextTargetId++;
+        jdbcTemplate.update("INSERT INTO conversation_node (id, message, message_name, deletable, node_type) "
+                + "VALUES (?, 'Target', 'Target', TRUE, 'NORMAL_NODE')", targetId);
+        List<Object[]> responseRows = new ArrayList<>(REFERRERS);
+        for (int i = 0; i < REFERRERS; i++) {
+            responseRows.add(new Object[]{FIRST_ID + random.nextInt(nodes), "to " + targetId, targetId});
+        }
+        jdbcTemplate.batchUpdate("MERGE INTO conversation_node_responses (conversation_node_id, response_key, next_node_id) "
+                + "KEY (conversation_node_id, response_key) VALUES (?, ?, ?)", responseRows);
+    }
+
+    /**
+     * Deletes the prepared node.
+     */
+    @Benchmark
+    public void deleteNode() {
+        adminService.deleteNode(targetId);
+    }
+
+    /**
+     * Removes the redirected responses, so the graph keeps its size across invocations.
+     */
+    @TearDown(Level.Invocation)
+    public void removeRedirectedResponses() {
+        jdbcTemplate.update("DELETE FROM conversation_node_responses WHERE response_key = ?", "to " + targetId);
+    }
+
+    /**
+     * Shuts the application down.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
@@ -0,0 +1,91 @@
+package com.chat.bot.jmh;
+
+import com.chat.bot.entity.ConversationNode;
+import com.chat.bot.entity.ConversationNode.NodeType;
+import com.chat.bot.graph.ConversationGraph;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the refresh of the compiled draft after saving one node, on graphs of 10² to 10⁵ nodes, against
+ * compiling the whole graph again.
+ * <p>
+ * {@link ConversationGraph#withNodes} compiles only the saved node, but still copies the index by ID and the list
+ * of the saved node's type, so its cost grows linearly with the graph; this measures how much of a save it is.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphRefreshBenchmark {
+
+    /** Number of nodes in the graph. */
+    @Param({"100", "1000", "10000", "100000"})
+    public int nodes;
+
+    /** Nodes the graph is compiled from. */
+    private List<ConversationNode> source;
+
+    /** Compiled graph. */
+    private ConversationGraph graph;
+
+    /** Node saved by each invocation, replacing a normal node in the middle of the graph. */
+    private List<ConversationNode> saved;
+
+    /**
+     * Generates and compiles the graph: a chain in which every node also links back to the first node.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = new ArrayList<>(nodes);
+        for (int i = 0; i < nodes; i++) {
+            long id = i + 1L;
+            Map<String, Long> responses = new HashMap<>();
+            responses.put("back", 1L);
+            if (i + 1 < nodes) {
+                responses.put("next", id + 1);
+            }
+            source.add(node(id, i == 0 ? NodeType.FIRST_NODE : NodeType.NORMAL_NODE, responses));
+        }
+        graph = ConversationGraph.compile(source);
+        long savedId = nodes / 2 + 1L;
+        saved = List.of(node(savedId, NodeType.NORMAL_NODE, Map.of("back", 1L, "again", savedId)));
+    }
+
+    /**
+     * Refreshes the saved node in the compiled graph.
+     *
+     * @return the refreshed graph.
+     */
+    @Benchmark
+    public ConversationGraph refreshNode() {
+        return graph.withNodes(saved, List.of());
+    }
+
+    /**
+     * Compiles the whole graph again, as a reload does.
+     *
+     * @return the compiled graph.
+     */
+    @Benchmark
+    public ConversationGraph compileGraph() {
+        return ConversationGraph.compile(source);
+    }
+
+    private static ConversationNode node(long id, NodeType nodeType, Map<String, Long> responses) {
+        ConversationNode node = new ConversationNode();
+        node.setId(id);
+        node.setMessage("Message " + id);
+        node.setMessageName("Node " + id);
+        node.setNodeType(nodeType);
+        node.setResponses(new HashMap<>(responses));
+        return node;
+    }
+}
@@ -0,0 +1,112 @@
+package com.chat.bot.jmh;
+
+import com.chat.bot.entity.ConversationNode;
+import com.chat.bot.graph.GraphNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks matching a user response against the response keys of a node with many options, through the
+ * node's {@link com.chat.bot.graph.ResponseIndex} and, as a baseline, through the case-insensitive scan of the
+ * response map it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseMatchingBenchmark {
+
+    /** Number of response keys on the node. */
+    @Param({"4", "64", "1024"})
+    public int options;
+
+    /** Node under test. */
+    private GraphNode node;
+
+    /** Response map scanned by the baseline. */
+    private Map<String, Long> responses;
+
+    /** User responses matching a key, in mixed case and with surrounding whitespace. */
+    private String[] hits;
+
+    /** User responses matching no key. */
+    private String[] misses;
+
+    /** Position in the response arrays. */
+    private int position;
+
+    /**
+     * Builds the node and the user responses.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        responses = new HashMap<>();
+        for (int i = 0; i < options; i++) {
+            responses.put("option number " + i, (long) i);
+        }
+        ConversationNode entity = new ConversationNode();
+        entity.setId(1L);
+        entity.setResponses(responses);
+        node = GraphNode.of(entity);
+
+        hits = new String[256];
+        misses = new String[256];
+        for (int i = 0; i < hits.length; i++) {
+            hits[i] = "  Option Number " + (i * 7919 % options) + " ";
+            misses[i] = "unknown answer " + i;
+        }
+    }
+
+    /**
+     * Matching a known response through the index.
+     */
+    @Benchmark
+    public long indexHit() {
+        return node.findNextNodeId(next(hits));
+    }
+
+    /**
+     * Matching an unknown response through the index.
+     */
+    @Benchmark
+    public long indexMiss() {
+        return node.findNextNodeId(next(misses));
+    }
+
+    /**
+     * Matching a known response by scanning the response map.
+     */
+    @Benchmark
+    public Long scanHit() {
+        return scan(next(hits));
+    }
+
+    /**
+     * Matching an unknown response by scanning the response map.
+     */
+    @Benchmark
+    public Long scanMiss() {
+        return scan(next(misses));
+    }
+
+    private String next(String[] values) {
+        position = (position + 1) & (values.length - 1);
+        return values[position];
+    }
+
+    private Long scan(String response) {
+        String normalized = response.trim().toLowerCase(Locale.ROOT);
+        for (Map.Entry<String, Long> entry : responses.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(normalized)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+}
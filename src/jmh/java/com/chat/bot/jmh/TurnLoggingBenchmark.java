@@ -0,0 +1,168 @@
+package com.chat.bot.jmh;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.chat.bot.entity.ConversationNode;
+import com.chat.bot.entity.ConversationNode.NodeType;
+import com.chat.bot.graph.MessageBodyCache;
+import com.chat.bot.graph.PublishedGraphCache;
+import com.chat.bot.jmh.BenchmarkStubs.DiscardingTranscriptWriter;
+import com.chat.bot.logging.TurnEventLogger;
+import com.chat.bot.metrics.ChatMetrics;
+import com.chat.bot.repository.GraphVersionRepository;
+import com.chat.bot.service.ChatbotService;
+import com.chat.bot.session.ConversationSession;
+import com.chat.bot.session.InMemoryConversationSessionStore;
+import com.chat.bot.session.SessionIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of chat turns under the logging setups of the application, from several threads so
+ * contention on the appender shows.
+ * <ul>
+ *     <li>{@code verbose}: every hot-path message enabled and written synchronously by the calling thread, and every
+ *     turn logged as an event, like the per-turn INFO logging used to do.</li>
+ *     <li>{@code production}: the {@code prod} profile, with the chat engine at INFO, an asynchronous appender and
+ *     1% of the turns logged as events.</li>
+ *     <li>{@code off}: no logging at all, as a ceiling.</li>
+ * </ul>
+ * Logs go to {@code target/jmh-turn-logging.log} so they do not mix with the JMH output. SQL echo is not covered,
+ * as the repository is an in-memory stand-in.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class TurnLoggingBenchmark {
+
+    /** Logging setup under test. */
+    @Param({"verbose", "production", "off"})
+    public String logging;
+
+    /** Service under test. */
+    ChatbotService chatbotService;
+
+    /** Appender the chat engine logs to. */
+    private Appender<ILoggingEvent> appender;
+
+    /**
+     * Configures logging and builds the graph: the first node loops onto itself on "again".
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(ch.qos.logback.classic.Level.OFF);
+
+        double sampleRate = 0;
+        if (!"off".equals(logging)) {
+            appender = createAppender(context, "production".equals(logging));
+            Logger chatLogger = context.getLogger("com.chat.bot");
+            chatLogger.setLevel("verbose".equals(logging)
+                    ? ch.qos.logback.classic.Level.TRACE : ch.qos.logback.classic.Level.INFO);
+            chatLogger.addAppender(appender);
+            sampleRate = "verbose".equals(logging) ? 1 : 0.01;
+        }
+
+        ConversationNode first = node(1L, "Welcome", NodeType.FIRST_NODE, Map.of("again", 1L));
+        ConversationNode invalid = node(2L, "Invalid", NodeType.INVALID_NODE, Map.of());
+        GraphVersionRepository versions = BenchmarkStubs.publishedVersion(List.of(first, invalid));
+
+        chatbotService = new ChatbotService(new DiscardingTranscriptWriter(),
+                new InMemoryConversationSessionStore(64, Duration.ofHours(1)),
+                new PublishedGraphCache(versions, 4), new MessageBodyCache(versions, 16), new SessionIdGenerator(0),
+                new ChatMetrics(new SimpleMeterRegistry()), new TurnEventLogger(sampleRate),
+                BenchmarkStubs.unusedTranscriptService(), ConversationSession.DEFAULT_HISTORY_CAPACITY);
+    }
+
+    /**
+     * Stops the appender, flushing what is still queued.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (appender != null) {
+            appender.stop();
+        }
+    }
+
+    /**
+     * Session of one benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class ThreadSession {
+
+        /** Session staying on the first node through a self-loop. */
+        ConversationSession session;
+
+        /**
+         * Starts the thread's session.
+         *
+         * @param benchmark the benchmark state.
+         */
+        @Setup(Level.Trial)
+        public void setUp(TurnLoggingBenchmark benchmark) {
+            session = benchmark.chatbotService.initializeChat();
+        }
+    }
+
+    /**
+     * Turn matching a response of the current node.
+     */
+    @Benchmark
+    public ConversationSession turn(ThreadSession state) {
+        return chatbotService.handleUserResponse(state.session.getToken(), "again");
+    }
+
+    private static Appender<ILoggingEvent> createAppender(LoggerContext context, boolean async) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d %-5level [%thread] %logger{36} - %msg %kvp%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile("target/jmh-turn-logging.log");
+        file.setAppend(false);
+        file.setEncoder(encoder);
+        file.start();
+        if (!async) {
+            return file;
+        }
+
+        AsyncAppender asyncAppender = new AsyncAppender();
+        asyncAppender.setContext(context);
+        asyncAppender.setQueueSize(8192);
+        asyncAppender.setDiscardingThreshold(1638);
+        asyncAppender.setNeverBlock(true);
+        asyncAppender.addAppender(file);
+        asyncAppender.start();
+        return asyncAppender;
+    }
+
+    private static ConversationNode node(Long id, String message, NodeType nodeType, Map<String, Long> responses) {
+        ConversationNode node = new ConversationNode();
+        node.setId(id);
+        node.setMessage(message);
+        node.setNodeType(nodeType);
+        node.setDeletable(true);
+        node.setResponses(new HashMap<>(responses));
+        return node;
+    }
+}
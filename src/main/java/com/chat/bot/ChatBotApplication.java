@@ -2,11 +2,13 @@ package com.chat.bot;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class
  */
 @SpringBootApplication
+@EnableScheduling
 public class ChatBotApplication {
 
 	/**
@@ -0,0 +1,167 @@
+package com.chat.bot.controller;
+
+import com.chat.bot.dto.GraphImportResult;
+import com.chat.bot.dto.NodeOption;
+import com.chat.bot.dto.ResponseEditRequest;
+import com.chat.bot.entity.GraphVersion;
+import com.chat.bot.service.AdminService;
+import com.chat.bot.service.GraphTransferService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller for the admin operations on the conversation graph: bulk transfer of the whole graph, node
+ * lookup, edits of single responses and publication of the draft.
+ */
+@RestController
+@RequestMapping("/admin/api")
+public class AdminApiController {
+
+    /**
+     * Logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(AdminApiController.class);
+
+    /**
+     * Upper bound of the number of nodes returned by a search
+     */
+    private static final int MAX_SEARCH_LIMIT = 100;
+
+    /**
+     * Graph Transfer Service
+     */
+    @Autowired
+    private GraphTransferService graphTransferService;
+
+    /**
+     * Admin Service
+     */
+    @Autowired
+    private AdminService adminService;
+
+    /**
+     * Default number of nodes returned by a search
+     */
+    @Value("${chatbot.admin.search-limit:20}")
+    private int searchLimit = 20;
+
+    /**
+     * Streams the whole conversation graph as JSON.
+     *
+     * @return the streamed graph document
+     */
+    @GetMapping("/graph")
+    public ResponseEntity<StreamingResponseBody> exportGraph() {
+        logger.info("Exporting the conversation graph over the API...");
+        StreamingResponseBody body = outputStream -> graphTransferService.exportGraph(outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"conversation-graph.json\"")
+                .body(body);
+    }
+
+    /**
+     * Imports a conversation graph from the request body, which is read as it arrives.
+     *
+     * @param replace whether the existing graph is deleted first
+     * @param body    the graph document
+     * @return the number of imported nodes and responses
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/graph", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public GraphImportResult importGraph(@RequestParam(value = "replace", defaultValue = "false") boolean replace,
+                                         InputStream body) throws IOException {
+        logger.info("Importing a conversation graph over the API...");
+        return graphTransferService.importGraph(body, replace);
+    }
+
+    /**
+     * Publishes the draft graph as a new version, which new chats start on.
+     *
+     * @return a created response carrying the published version
+     */
+    @PostMapping("/graph/publish")
+    public ResponseEntity<GraphVersion> publishDraft() {
+        logger.info("Publishing the draft graph over the API...");
+        return ResponseEntity.status(HttpStatus.CREATED).body(adminService.publishDraft());
+    }
+
+    /**
+     * Searches the nodes whose message name or message starts with a query, for the next node pickers.
+     *
+     * @param query the start of the message name or message
+     * @param limit the maximum number of nodes, capped at 100
+     * @return the ID and display name of the matching nodes
+     */
+    @GetMapping("/nodes/search")
+    public List<NodeOption> searchNodes(@RequestParam("q") String query,
+                                        @RequestParam(value = "limit", required = false) Integer limit) {
+        int size = limit == null ? searchLimit : Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        return adminService.searchNodes(query, size);
+    }
+
+    /**
+     * Adds a response to a node.
+     *
+     * @param id      the ID of the node
+     * @param request the response key and the ID of the next node
+     * @return a created response
+     */
+    @PostMapping("/nodes/{id}/responses")
+    public ResponseEntity<Void> addResponse(@PathVariable("id") Long id, @RequestBody ResponseEditRequest request) {
+        adminService.addResponse(id, request.getKey(), request.getNextNodeId());
+        return ResponseEntity.status(HttpStatus.CREATED).build();
+    }
+
+    /**
+     * Points a response of a node to another node.
+     *
+     * @param id      the ID of the node
+     * @param key     the response key
+     * @param request the ID of the new next node
+     * @return an empty response
+     */
+    @PutMapping("/nodes/{id}/responses/{key}")
+    public ResponseEntity<Void> retargetResponse(@PathVariable("id") Long id, @PathVariable("key") String key,
+                                                 @RequestBody ResponseEditRequest request) {
+        adminService.retargetResponse(id, key, request.getNextNodeId());
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Removes a response from a node.
+     *
+     * @param id  the ID of the node
+     * @param key the response key
+     * @return an empty response
+     */
+    @DeleteMapping("/nodes/{id}/responses/{key}")
+    public ResponseEntity<Void> removeResponse(@PathVariable("id") Long id, @PathVariable("key") String key) {
+        adminService.removeResponse(id, key);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Handles invalid requests.
+     *
+     * @param e the exception
+     * @return a bad request response carrying the error message
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
@@ -1,10 +1,12 @@
 package com.chat.bot.controller;
 
+import com.chat.bot.dto.NodeSummary;
 import com.chat.bot.entity.ConversationNode;
 import com.chat.bot.service.AdminService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
@@ -30,15 +32,28 @@ public class AdminController {
     private AdminService adminService;
 
     /**
-     * Lists all conversation nodes.
+     * Number of nodes listed per page
+     */
+    @Value("${chatbot.admin.page-size:50}")
+    private int pageSize = 50;
+
+    /**
+     * Lists a page of conversation nodes. Pages are keyed by the ID of the last node of the previous page, so a
+     * page costs the same however deep it is.
      *
-     * @param model the model to hold the list of nodes
+     * @param after the ID of the last node of the previous page, or 0 for the first page
+     * @param model the model to hold the list of nodes and the key of the next page
      * @return the name of the admin view
      */
     @GetMapping
-    public String listNodes(Model model) {
-        logger.info("Listing all conversation nodes");
-        model.addAttribute("nodes", adminService.getAllNodes());
+    public String listNodes(@RequestParam(value = "after", defaultValue = "0") long after, Model model) {
+        logger.info("Listing conversation nodes after ID: {}", after);
+        List<NodeSummary> nodes = adminService.getNodeSummaries(after, pageSize + 1);
+        if (nodes.size() > pageSize) {
+            nodes = nodes.subList(0, pageSize);
+            model.addAttribute("next", nodes.get(pageSize - 1).getId());
+        }
+        model.addAttribute("nodes", nodes);
         return "admin";
     }
 
@@ -52,7 +67,7 @@ public class AdminController {
     @GetMapping("/edit/{id}")
     public String editNode(@PathVariable("id") Long id, Model model) {
         logger.info("Editing node with ID: {}", id);
-        model.addAttribute("node", adminService.getNodeById(id));
+        model.addAttribute("node", adminService.getNodeWithBody(id));
         return "editNode";
     }
 
@@ -141,7 +156,7 @@ public class AdminController {
      * Displays the form to edit responses for a conversation node.
      *
      * @param id the ID of the node to edit responses for
-     * @param model the model to hold the node and all nodes details
+     * @param model the model to hold the node and the names of its next nodes
      * @return the name of the edit responses view
      */
     @GetMapping("/responses/{id}")
@@ -149,7 +164,7 @@ public class AdminController {
         logger.info("Editing responses for node with ID: {}", id);
         ConversationNode node = adminService.getNodeById(id);
         model.addAttribute("node", node);
-        model.addAttribute("allNodes", adminService.getAllNodes());
+        model.addAttribute("nextNodeNames", adminService.getNextNodeNames(node));
         return "editResponses";
     }
 
@@ -184,15 +199,13 @@ public class AdminController {
      * Displays the form to add responses for a conversation node.
      *
      * @param id the ID of the node to add responses for
-     * @param model the model to hold the node and all nodes details
+     * @param model the model to hold the node and the names of its next nodes
      * @return the name of the add responses view
      */
     @GetMapping("/responses/add/{id}")
     public String addResponses(@PathVariable("id") Long id, Model model) {
         logger.info("Adding responses for node with ID: {}", id);
-        ConversationNode node = adminService.getNodeById(id);
-        model.addAttribute("node", node);
-        model.addAttribute("allNodes", adminService.getAllNodes());
+        model.addAttribute("node", adminService.getNodeById(id));
         return "addResponses";
     }
 
@@ -223,6 +236,27 @@ public class AdminController {
         return "redirect:/admin";
     }
 
+    /**
+     * Publishes the draft graph as a new version, which new chats start on.
+     *
+     * @param model the model to hold error messages if any
+     * @return the redirect URL to the admin view
+     */
+    @PostMapping("/publish")
+    public String publishDraft(Model model) {
+        try {
+            adminService.publishDraft();
+        } catch (IllegalArgumentException e) {
+            logger.error("Error publishing the draft: {}", e.getMessage());
+            model.addAttribute("error", e.getMessage());
+            return "redirect:/error";
+        } catch (Exception e) {
+            logger.error("Error publishing the draft", e);
+            return "redirect:/error";
+        }
+        return "redirect:/admin";
+    }
+
     /**
      * Deletes all conversation nodes.
      *
@@ -0,0 +1,97 @@
+package com.chat.bot.controller;
+
+import com.chat.bot.dto.ChatRequest;
+import com.chat.bot.dto.ChatTurn;
+import com.chat.bot.service.ChatbotService;
+import com.chat.bot.session.ChatSessionNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller for chatting over JSON.
+ * <p>
+ * Each turn returns only the messages the chatbot sent in reply and the options available next, so the size of
+ * a response does not grow with the length of the conversation. The whole conversation can be read back on its
+ * own endpoint.
+ */
+@RestController
+@RequestMapping("/api/chat")
+public class ChatApiController {
+
+    /**
+     * Logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ChatApiController.class);
+
+    /**
+     * Chatbot Service
+     */
+    @Autowired
+    private ChatbotService chatbotService;
+
+    /**
+     * Starts a new chat session.
+     *
+     * @return the first turn, carrying the session token
+     */
+    @PostMapping
+    public ChatTurn startChat() {
+        logger.debug("Starting chat over the API...");
+        return chatbotService.startChat();
+    }
+
+    /**
+     * Handles the user's response in a chat session.
+     *
+     * @param token   the token of the chat session
+     * @param request the user's response
+     * @return the turn
+     */
+    @PostMapping("/{token}")
+    public ChatTurn respond(@PathVariable("token") String token, @RequestBody ChatRequest request) {
+        if (request.getResponse() == null || request.getResponse().isBlank()) {
+            throw new IllegalArgumentException("Response must not be empty.");
+        }
+        return chatbotService.respond(token, request.getResponse());
+    }
+
+    /**
+     * Returns the conversation of an active chat session so far.
+     *
+     * @param token the token of the chat session
+     * @return the messages in order, user messages prefixed with "You: "
+     */
+    @GetMapping("/{token}/history")
+    public List<String> history(@PathVariable("token") String token) {
+        return chatbotService.getConversationHistory(token);
+    }
+
+    /**
+     * Handles turns on a session that is unknown or has expired.
+     *
+     * @param e the exception
+     * @return a not found response carrying the error message
+     */
+    @ExceptionHandler(ChatSessionNotFoundException.class)
+    public ResponseEntity<Map<String, String>> handleMissingSession(ChatSessionNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+    }
+
+    /**
+     * Handles invalid requests.
+     *
+     * @param e the exception
+     * @return a bad request response carrying the error message
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
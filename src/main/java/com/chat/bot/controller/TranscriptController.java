@@ -0,0 +1,158 @@
+package com.chat.bot.controller;
+
+import com.chat.bot.entity.ChatTransaction;
+import com.chat.bot.service.TranscriptService;
+import com.chat.bot.transcript.TranscriptCursor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * REST controller for reading chat transcripts back.
+ * <p>
+ * Responses are streamed as they are read from the database:
+ * {@code {"transactions": [...], "next": "<cursor>"}}, where {@code next} is passed as {@code after} to read
+ * the following page, and is null once the transcript has been read to the end.
+ */
+@RestController
+@RequestMapping("/api/transcripts")
+public class TranscriptController {
+
+    /**
+     * Logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TranscriptController.class);
+
+    /**
+     * Transcript Service
+     */
+    @Autowired
+    private TranscriptService transcriptService;
+
+    /**
+     * JSON mapper
+     */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Number of transactions returned when no limit is given
+     */
+    @Value("${chatbot.transcript.default-limit:1000}")
+    private int defaultLimit = 1000;
+
+    /**
+     * Largest number of transactions returned by one request
+     */
+    @Value("${chatbot.transcript.max-limit:100000}")
+    private int maxLimit = 100000;
+
+    /**
+     * Streams the transcript of a chat session.
+     *
+     * @param sessionId the session ID
+     * @param after     the cursor to read after, or null to read from the start
+     * @param limit     the maximum number of transactions to return
+     * @return the streamed transcript
+     */
+    @GetMapping("/sessions/{sessionId}")
+    public ResponseEntity<StreamingResponseBody> sessionTranscript(@PathVariable("sessionId") long sessionId,
+                                                                   @RequestParam(value = "after", required = false) String after,
+                                                                   @RequestParam(value = "limit", required = false) Integer limit) {
+        logger.info("Reading transcript of session {}", sessionId);
+        TranscriptCursor cursor = after != null ? TranscriptCursor.parse(after) : null;
+        int pageLimit = resolveLimit(limit);
+        return stream(sink -> transcriptService.readSession(sessionId, cursor, pageLimit, sink));
+    }
+
+    /**
+     * Streams the transactions of all sessions within a time window.
+     *
+     * @param from  the start of the window, inclusive
+     * @param to    the end of the window, exclusive
+     * @param after the cursor to read after, or null to read from the start of the window
+     * @param limit the maximum number of transactions to return
+     * @return the streamed transactions
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> windowTranscript(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        logger.info("Reading transcripts from {} to {}", from, to);
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("The start of the window must be before its end.");
+        }
+        TranscriptCursor cursor = after != null ? TranscriptCursor.parse(after) : null;
+        int pageLimit = resolveLimit(limit);
+        return stream(sink -> transcriptService.readWindow(from, to, cursor, pageLimit, sink));
+    }
+
+    /**
+     * Handles invalid request parameters.
+     *
+     * @param e the exception
+     * @return a bad request response carrying the error message
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleInvalidRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(e.getMessage());
+    }
+
+    /**
+     * Resolves the requested limit.
+     *
+     * @param limit the requested limit, or null for the default
+     * @return the limit to apply
+     */
+    private int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return defaultLimit;
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive.");
+        }
+        return Math.min(limit, maxLimit);
+    }
+
+    /**
+     * Builds a response writing the transactions as JSON while they are read.
+     *
+     * @param reader reads the transactions into the given sink and returns the next cursor
+     * @return the streamed response
+     */
+    private ResponseEntity<StreamingResponseBody> stream(Function<Consumer<ChatTransaction>, TranscriptCursor> reader) {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("transactions");
+                TranscriptCursor next = reader.apply(transaction -> {
+                    try {
+                        generator.writeObject(transaction);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+                generator.writeStringField("next", next != null ? next.encode() : null);
+                generator.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
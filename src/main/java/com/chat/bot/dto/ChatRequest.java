@@ -0,0 +1,17 @@
+package com.chat.bot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response sent by the user in a chat turn.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatRequest {
+
+    /** The user's response. */
+    private String response;
+}
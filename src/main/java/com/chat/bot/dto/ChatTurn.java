@@ -0,0 +1,24 @@
+package com.chat.bot.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Outcome of a chat turn, carrying only what changed since the previous turn.
+ */
+@Value
+public class ChatTurn {
+
+    /** Token identifying the chat session. */
+    String token;
+
+    /** Messages sent by the chatbot during this turn. */
+    List<String> messages;
+
+    /** Responses the chatbot understands at the current node. */
+    List<String> options;
+
+    /** Indicates whether the conversation has reached its end. */
+    boolean ended;
+}
@@ -0,0 +1,16 @@
+package com.chat.bot.dto;
+
+import lombok.Value;
+
+/**
+ * Outcome of a graph import.
+ */
+@Value
+public class GraphImportResult {
+
+    /** Number of imported nodes. */
+    int nodes;
+
+    /** Number of imported responses. */
+    int responses;
+}
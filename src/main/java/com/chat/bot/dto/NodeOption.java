@@ -0,0 +1,22 @@
+package com.chat.bot.dto;
+
+/**
+ * ID and display name of a conversation node, as offered by the node picker. The name is the message name, or
+ * the start of the message when the node has no name.
+ */
+public interface NodeOption {
+
+    /**
+     * Returns the ID of the node.
+     *
+     * @return the ID of the node.
+     */
+    Long getId();
+
+    /**
+     * Returns the display name of the node.
+     *
+     * @return the display name of the node.
+     */
+    String getName();
+}
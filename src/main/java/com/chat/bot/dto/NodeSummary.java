@@ -0,0 +1,29 @@
+package com.chat.bot.dto;
+
+import com.chat.bot.entity.ConversationNode.NodeType;
+import lombok.Value;
+
+/**
+ * Header of a conversation node with the number of its responses, as shown in the admin listing.
+ */
+@Value
+public class NodeSummary {
+
+    /** ID of the node. */
+    Long id;
+
+    /** Message of the node. */
+    String message;
+
+    /** Name of the message. */
+    String messageName;
+
+    /** Type of the node. */
+    NodeType nodeType;
+
+    /** Indicates whether the node is deletable. */
+    boolean deletable;
+
+    /** Number of responses of the node. */
+    long responseCount;
+}
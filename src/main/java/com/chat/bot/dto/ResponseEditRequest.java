@@ -0,0 +1,20 @@
+package com.chat.bot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Edit of a single response of a conversation node.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResponseEditRequest {
+
+    /** Response key; taken from the path when retargeting. */
+    private String key;
+
+    /** ID of the node the response leads to. */
+    private Long nextNodeId;
+}
@@ -9,18 +9,25 @@ import java.time.LocalDateTime;
 
 /**
  * Entity class representing a chat transaction.
+ * <p>
+ * Transactions are read back in (timestamp, id) order, per session or per time window; both orders are indexed.
  */
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_chat_transaction_session", columnList = "session_id, timestamp, id"),
+        @Index(name = "idx_chat_transaction_timestamp", columnList = "timestamp, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ChatTransaction {
 
     /**
-     * Unique identifier for the chat transaction.
+     * Unique identifier for the chat transaction, allocated in blocks from a sequence so inserts can be batched.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_transaction_seq")
+    @SequenceGenerator(name = "chat_transaction_seq", sequenceName = "chat_transaction_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -29,8 +36,9 @@ public class ChatTransaction {
     private Long sessionId;
 
     /**
-     * Message content of the chat transaction.
+     * Message content of the chat transaction, which may be the long body of a node.
      */
+    @Column(columnDefinition = "TEXT")
     private String message;
 
     /**
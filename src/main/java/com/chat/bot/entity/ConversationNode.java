@@ -18,17 +18,32 @@ import java.util.Map;
 public class ConversationNode {
 
     /**
-     * Unique identifier for the conversation node.
+     * Unique identifier for the conversation node, allocated in blocks from a sequence so inserts can be batched.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "conversation_node_seq")
+    @SequenceGenerator(name = "conversation_node_seq", sequenceName = "conversation_node_seq", allocationSize = 50)
     private Long id;
 
     /**
-     * Message associated with the conversation node.
+     * Message associated with the conversation node. When the node has a body, the message is its short summary,
+     * used in listings and pickers, and the body is sent instead.
      */
     private String message;
 
+    /**
+     * Length of the node's body stored in {@link ConversationNodeBody}, or 0 if the node has none. Kept on the
+     * node so the chat knows whether to fetch a body without looking for one.
+     */
+    private int bodyLength;
+
+    /**
+     * Body submitted with the node by the admin forms or read from a graph document: null leaves the stored body
+     * as is, an empty string removes it. Never loaded with the node.
+     */
+    @Transient
+    private String body;
+
     /**
      * Name of the message.
      */
@@ -46,10 +61,12 @@ public class ConversationNode {
     private NodeType nodeType = NodeType.NORMAL_NODE;
 
     /**
-     * Responses associated with the conversation node.
+     * Responses associated with the conversation node. Edges are indexed by target so the nodes pointing at a
+     * node can be found without scanning the graph.
      */
     @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "conversation_node_responses", joinColumns = @JoinColumn(name = "conversation_node_id"))
+    @CollectionTable(name = "conversation_node_responses", joinColumns = @JoinColumn(name = "conversation_node_id"),
+            indexes = @Index(name = "idx_conversation_node_responses_next_node", columnList = "next_node_id"))
     @MapKeyColumn(name = "response_key")
     @Column(name = "next_node_id")
     private Map<String, Long> responses = new HashMap<>();
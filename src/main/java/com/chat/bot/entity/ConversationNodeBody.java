@@ -0,0 +1,33 @@
+package com.chat.bot.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Entity class representing the long message body of a conversation node.
+ * <p>
+ * Bodies live apart from the node so that loading nodes, listing them and compiling the graph never read them;
+ * the node only records the length of its body. On PostgreSQL, large TEXT values are compressed and stored out of
+ * line by TOAST.
+ */
+@Entity
+@Table(name = "conversation_node_body")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationNodeBody {
+
+    /**
+     * ID of the conversation node the body belongs to.
+     */
+    @Id
+    private Long nodeId;
+
+    /**
+     * Message sent by the chatbot instead of the node's message.
+     */
+    @Column(columnDefinition = "TEXT")
+    private String body;
+}
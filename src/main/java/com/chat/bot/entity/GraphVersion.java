@@ -0,0 +1,40 @@
+package com.chat.bot.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity class representing a published, immutable version of the conversation graph.
+ * <p>
+ * Admins edit the draft graph held in the conversation_node tables; publishing copies it into the graph_version
+ * tables under a new version, which is never modified afterwards.
+ */
+@Entity
+@Table(name = "graph_version")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GraphVersion {
+
+    /**
+     * Number of the version, increasing with every publication.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "graph_version_seq")
+    @SequenceGenerator(name = "graph_version_seq", sequenceName = "graph_version_seq", allocationSize = 1)
+    private Long id;
+
+    /**
+     * Time the version was published.
+     */
+    private LocalDateTime publishedAt;
+
+    /**
+     * Number of nodes in the version.
+     */
+    private int nodeCount;
+}
@@ -0,0 +1,287 @@
+package com.chat.bot.graph;
+
+import com.chat.bot.entity.ConversationNode;
+import com.chat.bot.entity.ConversationNode.NodeType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable, compiled snapshot of the conversation graph, indexed by node ID and by node type.
+ * <p>
+ * A snapshot is never modified once built; changes to the draft produce a new snapshot that is swapped in
+ * atomically by the {@link ConversationGraphCache}, while a published version is compiled once by the
+ * {@link PublishedGraphCache} and never changes.
+ */
+public final class ConversationGraph {
+
+    /** Graph without any node. */
+    public static final ConversationGraph EMPTY = new ConversationGraph(Collections.emptyMap(), 0L);
+
+    /** Order of the nodes of each type. */
+    private static final Comparator<GraphNode> BY_ID =
+            Comparator.comparing(GraphNode::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    /** Published version the graph was compiled from, or 0 for the draft. */
+    private final long version;
+
+    /** Nodes keyed by ID. */
+    private final Map<Long, GraphNode> nodesById;
+
+    /** Nodes grouped by type, ordered by ID. */
+    private final Map<NodeType, List<GraphNode>> nodesByType;
+
+    /** Node new chats start at, or null. */
+    private final GraphNode firstNode;
+
+    /** Node answering responses the current node does not understand, or null. */
+    private final GraphNode invalidNode;
+
+    /** End node offering responses, so the user can go on after the chat ended, or null. */
+    private final GraphNode restartNode;
+
+    /**
+     * Constructor for ConversationGraph.
+     *
+     * @param nodesById the nodes keyed by ID; the map is owned by the graph from now on.
+     * @param version   the published version, or 0 for the draft.
+     */
+    private ConversationGraph(Map<Long, GraphNode> nodesById, long version) {
+        this(nodesById, indexByType(nodesById.values()), version);
+    }
+
+    /**
+     * Constructor for ConversationGraph, for nodes already grouped by type.
+     *
+     * @param nodesById   the nodes keyed by ID; the map is owned by the graph from now on.
+     * @param nodesByType read-only lists of the same nodes per type, ordered by ID.
+     * @param version     the published version, or 0 for the draft.
+     */
+    private ConversationGraph(Map<Long, GraphNode> nodesById, Map<NodeType, List<GraphNode>> nodesByType,
+                              long version) {
+        this.version = version;
+        this.nodesById = Collections.unmodifiableMap(nodesById);
+        this.nodesByType = nodesByType;
+        this.firstNode = findByNodeType(NodeType.FIRST_NODE).orElse(null);
+        this.invalidNode = findByNodeType(NodeType.INVALID_NODE).orElse(null);
+        this.restartNode = nodesByType.get(NodeType.END_NODE).stream()
+                .filter(node -> !node.getResponses().isEmpty())
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Compiles a snapshot of the given draft conversation nodes.
+     *
+     * @param nodes the nodes of the graph.
+     * @return the compiled graph.
+     */
+    public static ConversationGraph compile(Collection<ConversationNode> nodes) {
+        return compile(nodes, 0L);
+    }
+
+    /**
+     * Compiles a snapshot of the conversation nodes of a published version.
+     *
+     * @param nodes   the nodes of the graph.
+     * @param version the published version, or 0 for the draft.
+     * @return the compiled graph.
+     */
+    public static ConversationGraph compile(Collection<ConversationNode> nodes, long version) {
+        Map<Long, GraphNode> nodesById = new HashMap<>(Math.max(16, nodes.size() * 4 / 3 + 1));
+        for (ConversationNode node : nodes) {
+            nodesById.put(node.getId(), GraphNode.of(node, version));
+        }
+        return new ConversationGraph(nodesById, version);
+    }
+
+    /**
+     * Creates a copy of this graph with some nodes replaced or removed.
+     * <p>
+     * Only the changed nodes are compiled. The index by ID is copied shallowly, and only the lists of the types the
+     * changed and removed nodes belong to are rebuilt, by dropping and inserting in order instead of sorting; the
+     * other lists are shared with this graph.
+     *
+     * @param changedNodes the nodes to add or replace.
+     * @param removedIds   the IDs of the nodes to remove.
+     * @return the new graph.
+     */
+    public ConversationGraph withNodes(Collection<ConversationNode> changedNodes, Collection<Long> removedIds) {
+        Map<Long, GraphNode> copy = new HashMap<>(nodesById);
+        Set<Long> dropped = new HashSet<>();
+        Set<NodeType> affected = EnumSet.noneOf(NodeType.class);
+        for (Long id : removedIds) {
+            drop(copy.remove(id), dropped, affected);
+        }
+        Map<Long, GraphNode> added = new LinkedHashMap<>();
+        for (ConversationNode node : changedNodes) {
+            GraphNode graphNode = GraphNode.of(node, version);
+            drop(nodesById.get(node.getId()), dropped, affected);
+            copy.put(node.getId(), graphNode);
+            added.put(node.getId(), graphNode);
+            if (graphNode.getNodeType() != null) {
+                affected.add(graphNode.getNodeType());
+            }
+        }
+        if (affected.isEmpty()) {
+            return new ConversationGraph(copy, nodesByType, version);
+        }
+        Map<NodeType, List<GraphNode>> byType = new EnumMap<>(nodesByType);
+        for (NodeType nodeType : affected) {
+            byType.put(nodeType, updateBucket(nodesByType.get(nodeType), nodeType, dropped, added.values()));
+        }
+        return new ConversationGraph(copy, Collections.unmodifiableMap(byType), version);
+    }
+
+    /**
+     * Finds a node by its ID.
+     *
+     * @param id the ID of the node.
+     * @return an Optional containing the node, or empty if the graph has no such node.
+     */
+    public Optional<GraphNode> findNode(Long id) {
+        return Optional.ofNullable(nodesById.get(id));
+    }
+
+    /**
+     * Finds the node with the lowest ID of the given type.
+     *
+     * @param nodeType the type of the node.
+     * @return an Optional containing the node, or empty if the graph has no node of this type.
+     */
+    public Optional<GraphNode> findByNodeType(NodeType nodeType) {
+        List<GraphNode> nodes = nodesByType.get(nodeType);
+        return nodes.isEmpty() ? Optional.empty() : Optional.of(nodes.get(0));
+    }
+
+    /**
+     * Finds all nodes of the given type, ordered by ID.
+     *
+     * @param nodeType the type of the nodes.
+     * @return a read-only list of nodes.
+     */
+    public List<GraphNode> findAllByNodeType(NodeType nodeType) {
+        return nodesByType.get(nodeType);
+    }
+
+    /**
+     * Finds the node new chats start at.
+     *
+     * @return an Optional containing the first node, or empty if the graph has none.
+     */
+    public Optional<GraphNode> findFirstNode() {
+        return Optional.ofNullable(firstNode);
+    }
+
+    /**
+     * Finds the node answering responses the current node does not understand.
+     *
+     * @return an Optional containing the invalid node, or empty if the graph has none.
+     */
+    public Optional<GraphNode> findInvalidNode() {
+        return Optional.ofNullable(invalidNode);
+    }
+
+    /**
+     * Finds the end node with the lowest ID among those offering responses.
+     *
+     * @return an Optional containing the end node, or empty if no end node offers responses.
+     */
+    public Optional<GraphNode> findRestartNode() {
+        return Optional.ofNullable(restartNode);
+    }
+
+    /**
+     * Returns the published version the graph was compiled from.
+     *
+     * @return the version, or 0 for the draft.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the number of nodes in the graph.
+     *
+     * @return the number of nodes.
+     */
+    public int size() {
+        return nodesById.size();
+    }
+
+    /**
+     * Records a node leaving the graph.
+     *
+     * @param node     the node, or null if the graph does not have it.
+     * @param dropped  the IDs of the nodes leaving the graph.
+     * @param affected the types whose lists change.
+     */
+    private static void drop(GraphNode node, Set<Long> dropped, Set<NodeType> affected) {
+        if (node != null) {
+            dropped.add(node.getId());
+            if (node.getNodeType() != null) {
+                affected.add(node.getNodeType());
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the list of nodes of one type without the dropped nodes and with the added ones.
+     *
+     * @param bucket   the current list, ordered by ID.
+     * @param nodeType the type of the list.
+     * @param dropped  the IDs of the nodes leaving the graph.
+     * @param added    the nodes entering the graph, of any type.
+     * @return the read-only list, ordered by ID.
+     */
+    private static List<GraphNode> updateBucket(List<GraphNode> bucket, NodeType nodeType, Set<Long> dropped,
+                                                Collection<GraphNode> added) {
+        List<GraphNode> updated = new ArrayList<>(bucket.size() + added.size());
+        for (GraphNode node : bucket) {
+            if (!dropped.contains(node.getId())) {
+                updated.add(node);
+            }
+        }
+        for (GraphNode node : added) {
+            if (node.getNodeType() == nodeType) {
+                int index = Collections.binarySearch(updated, node, BY_ID);
+                updated.add(index < 0 ? -index - 1 : index, node);
+            }
+        }
+        return Collections.unmodifiableList(updated);
+    }
+
+    /**
+     * Groups nodes by type.
+     *
+     * @param nodes the nodes to group.
+     * @return read-only lists of nodes per type, ordered by ID.
+     */
+    private static Map<NodeType, List<GraphNode>> indexByType(Collection<GraphNode> nodes) {
+        Map<NodeType, List<GraphNode>> byType = new EnumMap<>(NodeType.class);
+        for (NodeType nodeType : NodeType.values()) {
+            byType.put(nodeType, new ArrayList<>());
+        }
+        for (GraphNode node : nodes) {
+            if (node.getNodeType() != null) {
+                byType.get(node.getNodeType()).add(node);
+            }
+        }
+        byType.replaceAll((nodeType, list) -> {
+            list.sort(BY_ID);
+            return Collections.unmodifiableList(list);
+        });
+        return Collections.unmodifiableMap(byType);
+    }
+}
@@ -0,0 +1,120 @@
+package com.chat.bot.graph;
+
+import com.chat.bot.entity.ConversationNode;
+import com.chat.bot.repository.ConversationNodeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the compiled {@link ConversationGraph} of the draft the admins edit, used to validate their changes without
+ * touching the database. Chats walk published versions instead, served by the {@link PublishedGraphCache}.
+ * <p>
+ * The graph is loaded on first use and replaced atomically whenever a change of the draft is announced on the
+ * {@link GraphChangeChannel}, by this instance or another one.
+ * Reloads are serialized with a {@link ReentrantLock} rather than {@code synchronized}, so a virtual thread
+ * waiting on the database during a reload does not pin its carrier thread.
+ */
+@Component
+public class ConversationGraphCache {
+
+    /** Logger instance for logging. */
+    private static final Logger logger = LoggerFactory.getLogger(ConversationGraphCache.class);
+
+    /** Repository for conversation nodes. */
+    private final ConversationNodeRepository repository;
+
+    /** The current snapshot, or null before the first load. */
+    private final AtomicReference<ConversationGraph> graph = new AtomicReference<>();
+
+    /** Lock serializing reloads. */
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    /**
+     * Constructor for ConversationGraphCache.
+     *
+     * @param repository the repository for conversation nodes.
+     */
+    public ConversationGraphCache(ConversationNodeRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Returns the current snapshot of the conversation graph, loading it on first use.
+     *
+     * @return the current graph.
+     */
+    public ConversationGraph current() {
+        ConversationGraph current = graph.get();
+        return current != null ? current : reload();
+    }
+
+    /**
+     * Tells whether the graph was loaded, so changes announced by other instances only need applying if it was.
+     *
+     * @return true once the graph was loaded.
+     */
+    public boolean isLoaded() {
+        return graph.get() != null;
+    }
+
+    /**
+     * Returns the number of nodes in the current snapshot, without loading it.
+     *
+     * @return the number of nodes, or 0 before the first load.
+     */
+    public int size() {
+        ConversationGraph current = graph.get();
+        return current != null ? current.size() : 0;
+    }
+
+    /**
+     * Recompiles the graph from the database and swaps it in.
+     *
+     * @return the new graph.
+     */
+    public ConversationGraph reload() {
+        reloadLock.lock();
+        try {
+            ConversationGraph reloaded = ConversationGraph.compile(repository.findAllWithResponses());
+            graph.set(reloaded);
+            logger.info("Compiled conversation graph with {} nodes", reloaded.size());
+            return reloaded;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Reloads only the given nodes and swaps in a graph containing their current state.
+     * Nodes that no longer exist are removed from the graph.
+     *
+     * @param nodeIds the IDs of the changed nodes.
+     * @return the new graph.
+     */
+    public ConversationGraph refreshNodes(Collection<Long> nodeIds) {
+        reloadLock.lock();
+        try {
+            ConversationGraph current = graph.get();
+            if (current == null) {
+                return reload();
+            }
+            List<ConversationNode> changedNodes = repository.findAllWithResponsesByIdIn(nodeIds);
+            Set<Long> removedIds = new HashSet<>(nodeIds);
+            changedNodes.forEach(node -> removedIds.remove(node.getId()));
+            ConversationGraph refreshed = current.withNodes(changedNodes, removedIds);
+            graph.set(refreshed);
+            logger.info("Refreshed {} nodes of the conversation graph", nodeIds.size());
+            return refreshed;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+}
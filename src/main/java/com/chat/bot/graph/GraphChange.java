@@ -0,0 +1,110 @@
+package com.chat.bot.graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Change of the conversation graph announced to every instance through the {@link GraphChangeChannel}.
+ * <p>
+ * A change is encoded as a short text payload, so it fits a PostgreSQL notification: {@code N:1,2,3} for changed
+ * draft nodes, {@code R} for a draft replaced as a whole and {@code P:7} for a newly published version.
+ *
+ * @param kind    what changed.
+ * @param nodeIds the IDs of the changed draft nodes, empty unless the kind is {@link Kind#NODES}.
+ * @param version the published version, 0 unless the kind is {@link Kind#PUBLISHED}.
+ */
+public record GraphChange(Kind kind, List<Long> nodeIds, long version) {
+
+    /**
+     * Kinds of graph changes.
+     */
+    public enum Kind {
+        /** Some draft nodes were saved or deleted. */
+        NODES,
+        /** The whole draft was replaced. */
+        RELOAD,
+        /** A new version was published. */
+        PUBLISHED
+    }
+
+    /**
+     * Constructor for GraphChange.
+     *
+     * @param kind    what changed.
+     * @param nodeIds the IDs of the changed draft nodes.
+     * @param version the published version.
+     */
+    public GraphChange {
+        nodeIds = List.copyOf(nodeIds);
+    }
+
+    /**
+     * Creates a change of some draft nodes.
+     *
+     * @param nodeIds the IDs of the saved or deleted nodes.
+     * @return the change.
+     */
+    public static GraphChange nodes(Collection<Long> nodeIds) {
+        return new GraphChange(Kind.NODES, List.copyOf(nodeIds), 0L);
+    }
+
+    /**
+     * Creates a change replacing the whole draft.
+     *
+     * @return the change.
+     */
+    public static GraphChange reload() {
+        return new GraphChange(Kind.RELOAD, List.of(), 0L);
+    }
+
+    /**
+     * Creates the publication of a new version.
+     *
+     * @param version the published version.
+     * @return the change.
+     */
+    public static GraphChange published(long version) {
+        return new GraphChange(Kind.PUBLISHED, List.of(), version);
+    }
+
+    /**
+     * Encodes the change as a notification payload.
+     *
+     * @return the payload.
+     */
+    public String encode() {
+        return switch (kind) {
+            case NODES -> "N:" + String.join(",", nodeIds.stream().map(String::valueOf).toList());
+            case RELOAD -> "R";
+            case PUBLISHED -> "P:" + version;
+        };
+    }
+
+    /**
+     * Decodes a notification payload. A payload that cannot be read is taken as a replaced draft, so the receiver
+     * reloads rather than misses a change.
+     *
+     * @param payload the payload.
+     * @return the change.
+     */
+    public static GraphChange decode(String payload) {
+        try {
+            if (payload.startsWith("N:")) {
+                List<Long> nodeIds = new ArrayList<>();
+                for (String id : payload.substring(2).split(",")) {
+                    if (!id.isEmpty()) {
+                        nodeIds.add(Long.parseLong(id));
+                    }
+                }
+                return nodes(nodeIds);
+            }
+            if (payload.startsWith("P:")) {
+                return published(Long.parseLong(payload.substring(2)));
+            }
+        } catch (NumberFormatException e) {
+            return reload();
+        }
+        return reload();
+    }
+}
@@ -0,0 +1,18 @@
+package com.chat.bot.graph;
+
+/**
+ * Channel announcing changes of the conversation graph to every instance of the application, so each one refreshes
+ * only the affected part of its caches instead of polling the database.
+ * <p>
+ * A change published inside a transaction is delivered once the transaction has committed, and never if it rolls
+ * back. The instance publishing a change applies it as well.
+ */
+public interface GraphChangeChannel {
+
+    /**
+     * Announces a change of the graph.
+     *
+     * @param change the change.
+     */
+    void publish(GraphChange change);
+}
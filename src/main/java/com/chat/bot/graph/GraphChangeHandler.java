@@ -0,0 +1,84 @@
+package com.chat.bot.graph;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies the graph changes received from the {@link GraphChangeChannel} to the caches of this instance.
+ * <p>
+ * Changed draft nodes are refreshed one by one in the {@link ConversationGraphCache}, and only if the draft was
+ * loaded here at all; a published version is adopted by the {@link PublishedGraphCache}, whose versions never need
+ * invalidating.
+ */
+@Component
+public class GraphChangeHandler {
+
+    /** Logger instance for logging. */
+    private static final Logger logger = LoggerFactory.getLogger(GraphChangeHandler.class);
+
+    /** Cache of the compiled draft graph. */
+    private final ConversationGraphCache draftCache;
+
+    /** Cache of the published graph versions. */
+    private final PublishedGraphCache publishedGraphCache;
+
+    /** Number of changes applied. */
+    private final AtomicLong appliedCount = new AtomicLong();
+
+    /**
+     * Constructor for GraphChangeHandler.
+     *
+     * @param draftCache          the cache of the compiled draft graph.
+     * @param publishedGraphCache the cache of the published graph versions.
+     */
+    public GraphChangeHandler(ConversationGraphCache draftCache, PublishedGraphCache publishedGraphCache) {
+        this.draftCache = draftCache;
+        this.publishedGraphCache = publishedGraphCache;
+    }
+
+    /**
+     * Applies a change to the caches.
+     *
+     * @param change the change.
+     */
+    public void apply(GraphChange change) {
+        switch (change.kind()) {
+            case NODES -> {
+                if (draftCache.isLoaded() && !change.nodeIds().isEmpty()) {
+                    draftCache.refreshNodes(change.nodeIds());
+                }
+            }
+            case RELOAD -> {
+                if (draftCache.isLoaded()) {
+                    draftCache.reload();
+                }
+            }
+            case PUBLISHED -> publishedGraphCache.adopt(change.version());
+        }
+        appliedCount.incrementAndGet();
+        logger.debug("Applied graph change {}", change);
+    }
+
+    /**
+     * Brings the caches up to date after changes may have been missed, such as while the channel was reconnecting.
+     */
+    public void resync() {
+        if (draftCache.isLoaded()) {
+            draftCache.reload();
+        }
+        publishedGraphCache.adoptLatest();
+        logger.info("Resynchronized the conversation graph caches");
+    }
+
+    /**
+     * Returns the number of changes applied since startup.
+     *
+     * @return the number of applied changes.
+     */
+    public long getAppliedCount() {
+        return appliedCount.get();
+    }
+}
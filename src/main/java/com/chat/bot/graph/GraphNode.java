@@ -0,0 +1,92 @@
+package com.chat.bot.graph;
+
+import com.chat.bot.entity.ConversationNode;
+import com.chat.bot.entity.ConversationNode.NodeType;
+import lombok.Value;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, detached copy of a {@link ConversationNode} and its outgoing edges.
+ */
+@Value
+public class GraphNode {
+
+    /** Unique identifier of the node. */
+    Long id;
+
+    /** Published graph version the node belongs to, or 0 for a draft node. */
+    long version;
+
+    /** Message sent by the chatbot when the node is reached, or the summary of its body. */
+    String message;
+
+    /** Length of the node's body, or 0 if none; the body itself is read through {@link MessageBodyCache}. */
+    int bodyLength;
+
+    /** Name of the message. */
+    String messageName;
+
+    /** Type of the node. */
+    NodeType nodeType;
+
+    /** Indicates whether the node is deletable. */
+    boolean deletable;
+
+    /** Read-only mapping of response keys to the IDs of the next nodes. */
+    Map<String, Long> responses;
+
+    /** Read-only list of the response keys, offered to the user as options. */
+    List<String> options;
+
+    /** Case-insensitive index of the response keys, used to match user responses. */
+    ResponseIndex responseIndex;
+
+    /**
+     * Creates a detached copy of a draft conversation node.
+     *
+     * @param node the node to copy.
+     * @return the graph node.
+     */
+    public static GraphNode of(ConversationNode node) {
+        return of(node, 0L);
+    }
+
+    /**
+     * Creates a detached copy of a conversation node of a published graph version.
+     *
+     * @param node    the node to copy.
+     * @param version the graph version, or 0 for a draft node.
+     * @return the graph node.
+     */
+    public static GraphNode of(ConversationNode node, long version) {
+        Map<String, Long> responses = node.getResponses() == null
+                ? Collections.emptyMap()
+                : Collections.unmodifiableMap(new LinkedHashMap<>(node.getResponses()));
+        return new GraphNode(node.getId(), version, node.getMessage(), node.getBodyLength(), node.getMessageName(),
+                node.getNodeType(), node.isDeletable(), responses, List.copyOf(responses.keySet()),
+                ResponseIndex.of(responses));
+    }
+
+    /**
+     * Tells whether the chatbot sends a body stored apart from the node instead of its message.
+     *
+     * @return true if the node has a body.
+     */
+    public boolean hasBody() {
+        return bodyLength > 0;
+    }
+
+    /**
+     * Finds the next node for a user's response, ignoring case and surrounding whitespace.
+     *
+     * @param response the user's response.
+     * @return the ID of the next node, or {@link ResponseIndex#NO_MATCH} if no response key matches.
+     */
+    public long findNextNodeId(String response) {
+        return responseIndex.find(response);
+    }
+}
@@ -0,0 +1,42 @@
+package com.chat.bot.graph;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-process {@link GraphChangeChannel}, for a single instance or a database without notifications such as H2.
+ * Changes are applied to this instance once the current transaction has committed, or right away when no
+ * transaction is active.
+ */
+@Component
+@ConditionalOnProperty(name = "chatbot.graph.change-channel", havingValue = "local", matchIfMissing = true)
+public class LocalGraphChangeChannel implements GraphChangeChannel {
+
+    /** Applier of the changes. */
+    private final GraphChangeHandler handler;
+
+    /**
+     * Constructor for LocalGraphChangeChannel.
+     *
+     * @param handler the applier of the changes.
+     */
+    public LocalGraphChangeChannel(GraphChangeHandler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public void publish(GraphChange change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            handler.apply(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                handler.apply(change);
+            }
+        });
+    }
+}
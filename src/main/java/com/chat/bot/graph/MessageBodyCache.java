@@ -0,0 +1,129 @@
+package com.chat.bot.graph;
+
+import com.chat.bot.repository.GraphVersionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, least-recently-used cache of the long message bodies of the conversation nodes.
+ * <p>
+ * The compiled graph only knows the length of a body; bodies are read on first use and evicted once the cache is
+ * full. Bodies are read from the published version a node belongs to and keyed by version and node ID: a published
+ * version never changes, so an entry can never go stale and the writers have nothing to invalidate. The database is
+ * read outside the lock.
+ */
+@Component
+public class MessageBodyCache {
+
+    /** Repository for the published graph versions. */
+    private final GraphVersionRepository repository;
+
+    /** Maximum number of cached bodies. */
+    private final int capacity;
+
+    /** Cached bodies by version and node ID, in access order. */
+    private final Map<Key, String> entries;
+
+    /** Lock guarding the entries. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Number of bodies read from the database. */
+    private final AtomicLong loadCount = new AtomicLong();
+
+    /**
+     * Constructor for MessageBodyCache.
+     *
+     * @param repository the repository for the published graph versions.
+     * @param capacity   the maximum number of cached bodies.
+     */
+    public MessageBodyCache(GraphVersionRepository repository,
+                            @Value("${chatbot.graph.body-cache-size:1000}") int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Message body cache size must be positive.");
+        }
+        this.repository = repository;
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+                return size() > MessageBodyCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the text the chatbot sends for a node: its body if it has one, its message otherwise.
+     *
+     * @param node the node.
+     * @return the text of the node.
+     */
+    public String messageOf(GraphNode node) {
+        return node.hasBody() ? bodyOf(node) : node.getMessage();
+    }
+
+    /**
+     * Returns the body of a node, reading it from the database if it is not cached. A node whose version has no
+     * body for it falls back to its message.
+     *
+     * @param node the node.
+     * @return the body of the node.
+     */
+    public String bodyOf(GraphNode node) {
+        Key key = new Key(node.getVersion(), node.getId());
+        lock.lock();
+        try {
+            String body = entries.get(key);
+            if (body != null) {
+                return body;
+            }
+        } finally {
+            lock.unlock();
+        }
+        String body = repository.findBody(node.getVersion(), node.getId()).orElse(node.getMessage());
+        loadCount.incrementAndGet();
+        lock.lock();
+        try {
+            entries.put(key, body);
+        } finally {
+            lock.unlock();
+        }
+        return body;
+    }
+
+    /**
+     * Returns the number of cached bodies.
+     *
+     * @return the number of cached bodies.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of bodies read from the database since startup.
+     *
+     * @return the number of loads.
+     */
+    public long getLoadCount() {
+        return loadCount.get();
+    }
+
+    /**
+     * Key of a cached body.
+     *
+     * @param version the published version of the node.
+     * @param nodeId  the ID of the node.
+     */
+    private record Key(long version, Long nodeId) {
+    }
+}
@@ -0,0 +1,272 @@
+package com.chat.bot.graph;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link GraphChangeChannel} over PostgreSQL LISTEN/NOTIFY, for several instances sharing one database.
+ * <p>
+ * A change is sent with {@code pg_notify} on the connection of the current transaction, so PostgreSQL delivers it
+ * to every listening instance only once the transaction has committed, and drops it on rollback. The publishing
+ * instance applies its own changes after commit without waiting for the round trip, and skips them when they come
+ * back. Each instance listens from a background thread on a dedicated connection opened with the URL and credentials
+ * of the data source but outside its pool, so the listener never holds a pooled connection away from requests.
+ * After the connection is lost, the listener reconnects with exponential backoff and resynchronizes its caches,
+ * since notifications sent meanwhile are gone. A change too large for a notification payload is sent as a reload
+ * of the draft.
+ */
+@Component
+@ConditionalOnProperty(name = "chatbot.graph.change-channel", havingValue = "postgres")
+public class PostgresGraphChangeChannel implements GraphChangeChannel {
+
+    /** Logger instance for logging. */
+    private static final Logger logger = LoggerFactory.getLogger(PostgresGraphChangeChannel.class);
+
+    /** Name of the notification channel. */
+    static final String CHANNEL = "chatbot_graph_changes";
+
+    /** Longest payload sent, below the 8000-byte limit of PostgreSQL. */
+    static final int MAX_PAYLOAD_LENGTH = 7900;
+
+    /** Separator between the sending instance and the change in a payload. */
+    private static final char SENDER_SEPARATOR = '|';
+
+    /** Access to the database, sending notifications within the current transaction. */
+    private final JdbcTemplate jdbcTemplate;
+
+    /** URL and credentials of the database, for the dedicated listening connection. */
+    private final DataSourceProperties dataSourceProperties;
+
+    /** Applier of the changes. */
+    private final GraphChangeHandler handler;
+
+    /** Channel applying the changes of this instance after commit. */
+    private final LocalGraphChangeChannel localChannel;
+
+    /** Maximum time the listener waits for notifications before checking whether it should stop. */
+    private final Duration pollTimeout;
+
+    /** Time the listener waits before its first reconnection attempt. */
+    private final Duration retryDelay;
+
+    /** Longest time the listener waits between reconnection attempts. */
+    private final Duration maxRetryDelay;
+
+    /** Whether the listener runs on a virtual thread. */
+    private final boolean virtualThreads;
+
+    /** Identifier of this instance, telling its own notifications apart. */
+    private final String instanceId = UUID.randomUUID().toString();
+
+    /** Number of changes received from other instances. */
+    private final AtomicLong receivedCount = new AtomicLong();
+
+    /** Whether the listener keeps listening. */
+    private volatile boolean running;
+
+    /** The listener thread. */
+    private Thread listenerThread;
+
+    /**
+     * Constructor for PostgresGraphChangeChannel.
+     *
+     * @param jdbcTemplate         the access to the database.
+     * @param dataSourceProperties the URL and credentials of the database.
+     * @param handler              the applier of the changes.
+     * @param pollTimeout          the maximum time the listener waits for notifications at once.
+     * @param retryDelay           the time the listener waits before its first reconnection attempt.
+     * @param maxRetryDelay        the longest time the listener waits between reconnection attempts.
+     * @param virtualThreads       whether the listener runs on a virtual thread.
+     */
+    public PostgresGraphChangeChannel(
+            JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties, GraphChangeHandler handler,
+            @Value("${chatbot.graph.change-listener.poll-timeout:PT10S}") Duration pollTimeout,
+            @Value("${chatbot.graph.change-listener.retry-delay:PT5S}") Duration retryDelay,
+            @Value("${chatbot.graph.change-listener.max-retry-delay:PT2M}") Duration maxRetryDelay,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.handler = handler;
+        this.localChannel = new LocalGraphChangeChannel(handler);
+        this.pollTimeout = pollTimeout;
+        this.retryDelay = retryDelay;
+        this.maxRetryDelay = maxRetryDelay.compareTo(retryDelay) < 0 ? retryDelay : maxRetryDelay;
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Starts the listener.
+     */
+    @PostConstruct
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true);
+        listenerThread = builder.name("graph-change-listener").start(this::listenLoop);
+        logger.info("Listening for graph changes on channel {}", CHANNEL);
+    }
+
+    /**
+     * Stops the listener.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        listenerThread.interrupt();
+        try {
+            listenerThread.join(pollTimeout.toMillis() + TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Stopped listening for graph changes after receiving {}", receivedCount.get());
+    }
+
+    @Override
+    public void publish(GraphChange change) {
+        String payload = change.encode();
+        if (payload.length() > MAX_PAYLOAD_LENGTH) {
+            payload = GraphChange.reload().encode();
+        }
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", (ResultSetExtractor<Void>) rs -> null,
+                CHANNEL, instanceId + SENDER_SEPARATOR + payload);
+        localChannel.publish(change);
+    }
+
+    /**
+     * Applies a notification sent by another instance.
+     *
+     * @param payload the payload of the notification.
+     */
+    void receive(String payload) {
+        int separator = payload.indexOf(SENDER_SEPARATOR);
+        if (separator >= 0 && payload.substring(0, separator).equals(instanceId)) {
+            return;
+        }
+        receivedCount.incrementAndGet();
+        handler.apply(GraphChange.decode(payload.substring(separator + 1)));
+    }
+
+    /**
+     * Returns the number of changes received from other instances since startup.
+     *
+     * @return the number of received changes.
+     */
+    public long getReceivedCount() {
+        return receivedCount.get();
+    }
+
+    /**
+     * Computes the time to wait before a reconnection attempt, doubling after each failed attempt.
+     *
+     * @param failures the number of consecutive failed attempts, at least 1.
+     * @return the time to wait.
+     */
+    Duration backoff(int failures) {
+        Duration delay = retryDelay;
+        for (int i = 1; i < failures && delay.compareTo(maxRetryDelay) < 0; i++) {
+            delay = delay.multipliedBy(2);
+        }
+        return delay.compareTo(maxRetryDelay) < 0 ? delay : maxRetryDelay;
+    }
+
+    /**
+     * Opens the dedicated listening connection, bypassing the connection pool.
+     *
+     * @return the connection.
+     * @throws SQLException if the connection cannot be opened.
+     */
+    private Connection openListenerConnection() throws SQLException {
+        Properties info = new Properties();
+        String username = dataSourceProperties.determineUsername();
+        String password = dataSourceProperties.determinePassword();
+        if (username != null) {
+            info.setProperty("user", username);
+        }
+        if (password != null) {
+            info.setProperty("password", password);
+        }
+        info.setProperty("tcpKeepAlive", "true");
+        info.setProperty("ApplicationName", "chatbot-graph-listener");
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(), info);
+    }
+
+    /**
+     * Listens for notifications until stopped, reconnecting whenever the connection is lost.
+     */
+    private void listenLoop() {
+        int failures = 0;
+        while (running) {
+            try (Connection connection = openListenerConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (failures > 0) {
+                    handler.resync();
+                    failures = 0;
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        applySafely(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                failures++;
+                Duration delay = backoff(failures);
+                logger.warn("Graph change listener lost its connection, reconnecting in {}", delay, e);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies a notification, logging rather than propagating a failure so the listener keeps running.
+     *
+     * @param payload the payload of the notification.
+     */
+    private void applySafely(String payload) {
+        try {
+            receive(payload);
+        } catch (RuntimeException e) {
+            logger.error("Could not apply graph change {}", payload, e);
+        }
+    }
+}
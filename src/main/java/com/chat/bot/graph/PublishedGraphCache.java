@@ -0,0 +1,148 @@
+package com.chat.bot.graph;
+
+import com.chat.bot.entity.GraphVersion;
+import com.chat.bot.repository.GraphVersionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the compiled {@link ConversationGraph} of the published versions chats walk.
+ * <p>
+ * A published version never changes, so a compiled version is never invalidated: new chats start on the latest
+ * version, and each session keeps a reference to the graph it started on until it ends. Publishing a new version
+ * compiles it once and makes it current; the cache keeps the most recent versions by ID, while older graphs live as
+ * long as a session still holds them. Loads are serialized with a {@link ReentrantLock}, so a version is compiled
+ * once however many chats ask for it at the same time.
+ */
+@Component
+public class PublishedGraphCache {
+
+    /** Logger instance for logging. */
+    private static final Logger logger = LoggerFactory.getLogger(PublishedGraphCache.class);
+
+    /** Repository for the published graph versions. */
+    private final GraphVersionRepository repository;
+
+    /** Maximum number of versions kept by ID. */
+    private final int capacity;
+
+    /** Compiled versions by ID, in access order. */
+    private final Map<Long, ConversationGraph> versions;
+
+    /** The latest published version, or null before the first load. */
+    private final AtomicReference<ConversationGraph> latest = new AtomicReference<>();
+
+    /** Lock guarding the versions and serializing loads. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Constructor for PublishedGraphCache.
+     *
+     * @param repository the repository for the published graph versions.
+     * @param capacity   the maximum number of versions kept by ID.
+     */
+    public PublishedGraphCache(GraphVersionRepository repository,
+                               @Value("${chatbot.graph.version-cache-size:4}") int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Graph version cache size must be positive.");
+        }
+        this.repository = repository;
+        this.capacity = capacity;
+        this.versions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ConversationGraph> eldest) {
+                return size() > PublishedGraphCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the latest published version, loading it on first use.
+     *
+     * @return the latest graph, or an empty graph if nothing was published.
+     */
+    public ConversationGraph current() {
+        ConversationGraph current = latest.get();
+        if (current != null) {
+            return current;
+        }
+        lock.lock();
+        try {
+            current = latest.get();
+            if (current != null) {
+                return current;
+            }
+            ConversationGraph loaded = repository.findTopByOrderByIdDesc()
+                    .map(GraphVersion::getId)
+                    .map(this::version)
+                    .orElse(ConversationGraph.EMPTY);
+            latest.compareAndSet(null, loaded);
+            return latest.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a published version, compiling it if it is not cached.
+     *
+     * @param versionId the ID of the version.
+     * @return the graph of the version.
+     */
+    public ConversationGraph version(long versionId) {
+        lock.lock();
+        try {
+            ConversationGraph graph = versions.get(versionId);
+            if (graph == null) {
+                graph = ConversationGraph.compile(repository.loadNodes(versionId), versionId);
+                versions.put(versionId, graph);
+                logger.info("Compiled version {} of the conversation graph with {} nodes", versionId, graph.size());
+            }
+            return graph;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Makes a newly published version the one new chats start on, unless a later version is already current.
+     *
+     * @param versionId the ID of the published version.
+     * @return the latest graph.
+     */
+    public ConversationGraph adopt(long versionId) {
+        ConversationGraph published = version(versionId);
+        return latest.accumulateAndGet(published,
+                (current, candidate) -> current == null || candidate.getVersion() > current.getVersion()
+                        ? candidate : current);
+    }
+
+    /**
+     * Makes the latest version in the database the one new chats start on, for when its publication may have been
+     * missed.
+     *
+     * @return the latest graph.
+     */
+    public ConversationGraph adoptLatest() {
+        return repository.findTopByOrderByIdDesc()
+                .map(version -> adopt(version.getId()))
+                .orElseGet(this::current);
+    }
+
+    /**
+     * Returns the latest published version, without loading it.
+     *
+     * @return the version new chats start on, or 0 before the first load.
+     */
+    public long currentVersion() {
+        ConversationGraph current = latest.get();
+        return current != null ? current.getVersion() : 0L;
+    }
+}
@@ -0,0 +1,135 @@
+package com.chat.bot.graph;
+
+import java.util.Map;
+
+/**
+ * Read-only, open-addressing hash index from response keys to next node IDs.
+ * <p>
+ * Keys are matched case-insensitively and with surrounding whitespace ignored. Lookups hash the
+ * user's response in place, so matching takes constant time and allocates nothing.
+ */
+public final class ResponseIndex {
+
+    /** Value returned by {@link #find(String)} when no key matches. */
+    public static final long NO_MATCH = Long.MIN_VALUE;
+
+    /** Index without any key. */
+    public static final ResponseIndex EMPTY = new ResponseIndex(new String[1], new int[1], new long[1], 0);
+
+    /** Trimmed keys, or null for empty slots. */
+    private final String[] keys;
+
+    /** Case-folded hashes of the keys. */
+    private final int[] hashes;
+
+    /** Next node IDs of the keys. */
+    private final long[] targets;
+
+    /** Number of keys in the index. */
+    private final int size;
+
+    private ResponseIndex(String[] keys, int[] hashes, long[] targets, int size) {
+        this.keys = keys;
+        this.hashes = hashes;
+        this.targets = targets;
+        this.size = size;
+    }
+
+    /**
+     * Builds an index of the given responses.
+     * <p>
+     * Entries without a next node are skipped. When two keys only differ in case or surrounding
+     * whitespace, the first one in iteration order wins.
+     *
+     * @param responses the mapping of response keys to next node IDs.
+     * @return the index.
+     */
+    public static ResponseIndex of(Map<String, Long> responses) {
+        if (responses == null || responses.isEmpty()) {
+            return EMPTY;
+        }
+        int capacity = Integer.highestOneBit(Math.max(2, responses.size() * 2 - 1)) << 1;
+        String[] keys = new String[capacity];
+        int[] hashes = new int[capacity];
+        long[] targets = new long[capacity];
+        int mask = capacity - 1;
+        int size = 0;
+        for (Map.Entry<String, Long> entry : responses.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                continue;
+            }
+            String key = entry.getKey().trim();
+            int hash = hash(key, 0, key.length());
+            int slot = hash & mask;
+            while (keys[slot] != null && !matches(keys[slot], hashes[slot], hash, key, 0, key.length())) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == null) {
+                keys[slot] = key;
+                hashes[slot] = hash;
+                targets[slot] = entry.getValue();
+                size++;
+            }
+        }
+        return new ResponseIndex(keys, hashes, targets, size);
+    }
+
+    /**
+     * Finds the next node ID for a user's response.
+     *
+     * @param response the user's response.
+     * @return the next node ID, or {@link #NO_MATCH} if no key matches.
+     */
+    public long find(String response) {
+        if (response == null || size == 0) {
+            return NO_MATCH;
+        }
+        int start = 0;
+        int end = response.length();
+        while (start < end && response.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && response.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int hash = hash(response, start, end);
+        int mask = keys.length - 1;
+        int slot = hash & mask;
+        String key;
+        while ((key = keys[slot]) != null) {
+            if (matches(key, hashes[slot], hash, response, start, end)) {
+                return targets[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_MATCH;
+    }
+
+    /**
+     * Returns the number of keys in the index.
+     *
+     * @return the number of keys.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Computes a case-insensitive hash of a region of a string.
+     * <p>
+     * Characters are folded the same way {@link String#regionMatches(boolean, int, String, int, int)}
+     * compares them, so equal keys always share a hash.
+     */
+    private static int hash(String value, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(value.charAt(i)));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String key, int keyHash, int hash, String value, int start, int end) {
+        int length = end - start;
+        return keyHash == hash && key.length() == length && key.regionMatches(true, 0, value, start, length);
+    }
+}
@@ -0,0 +1,65 @@
+package com.chat.bot.logging;
+
+import com.chat.bot.metrics.TurnOutcome;
+import com.chat.bot.session.ConversationSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs a sample of chat turns as structured events.
+ * <p>
+ * Per-turn detail used to be logged at INFO on every turn, message text included. Only a fraction of the turns
+ * is logged now, as key/value pairs without the user's text, on the dedicated {@value #LOGGER_NAME} logger so it
+ * can be routed or silenced on its own.
+ */
+@Component
+public class TurnEventLogger {
+
+    /** Name of the logger the events are written to. */
+    public static final String LOGGER_NAME = "com.chat.bot.turns";
+
+    private static final Logger logger = LoggerFactory.getLogger(LOGGER_NAME);
+
+    /** Fraction of the turns logged, between 0 and 1. */
+    private final double sampleRate;
+
+    /**
+     * Constructor for TurnEventLogger.
+     *
+     * @param sampleRate the fraction of the turns logged, between 0 and 1.
+     */
+    public TurnEventLogger(@Value("${chatbot.logging.turn-sample-rate:0.01}") double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Turn sample rate must be between 0 and 1: " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Logs a turn if it is sampled.
+     *
+     * @param session    the session, after the turn.
+     * @param fromNodeId the ID of the node the response was given at.
+     * @param outcome    the outcome of the turn.
+     * @param nanos      the time the turn took, in nanoseconds.
+     */
+    public void logTurn(ConversationSession session, Long fromNodeId, TurnOutcome outcome, long nanos) {
+        if (sampleRate == 0 || !logger.isInfoEnabled()
+                || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+        logger.atInfo()
+                .setMessage("chat turn")
+                .addKeyValue("sessionId", session.getSessionId())
+                .addKeyValue("fromNode", fromNodeId)
+                .addKeyValue("toNode", session.getCurrentNode().getId())
+                .addKeyValue("outcome", outcome.tag())
+                .addKeyValue("latencyMicros", nanos / 1000)
+                .addKeyValue("sampleRate", sampleRate)
+                .log();
+    }
+}
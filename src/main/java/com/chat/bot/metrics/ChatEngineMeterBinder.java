@@ -0,0 +1,105 @@
+package com.chat.bot.metrics;
+
+import com.chat.bot.graph.ConversationGraphCache;
+import com.chat.bot.graph.GraphChangeHandler;
+import com.chat.bot.graph.MessageBodyCache;
+import com.chat.bot.graph.PublishedGraphCache;
+import com.chat.bot.session.ConversationSessionStore;
+import com.chat.bot.transcript.TranscriptWriter;
+import com.chat.bot.websocket.ChatWebSocketHandler;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the state of the chat engine as gauges and counters read when the registry is scraped, so the hot
+ * paths do not record anything for them.
+ */
+@Component
+public class ChatEngineMeterBinder implements MeterBinder {
+
+    /** Store holding the active chat sessions. */
+    private final ConversationSessionStore sessionStore;
+
+    /** Cache of the compiled draft graph. */
+    private final ConversationGraphCache graphCache;
+
+    /** Cache of the published graph versions. */
+    private final PublishedGraphCache publishedGraphCache;
+
+    /** Cache of the long message bodies of the nodes. */
+    private final MessageBodyCache messageBodyCache;
+
+    /** Applier of the graph changes announced by the instances. */
+    private final GraphChangeHandler graphChangeHandler;
+
+    /** Write-behind writer for chat transactions. */
+    private final TranscriptWriter transcriptWriter;
+
+    /** Handler of the chat WebSocket channel. */
+    private final ChatWebSocketHandler chatWebSocketHandler;
+
+    /**
+     * Constructor for ChatEngineMeterBinder.
+     *
+     * @param sessionStore         the store holding the active chat sessions.
+     * @param graphCache           the cache of the compiled draft graph.
+     * @param publishedGraphCache  the cache of the published graph versions.
+     * @param messageBodyCache     the cache of the long message bodies of the nodes.
+     * @param graphChangeHandler   the applier of the graph changes announced by the instances.
+     * @param transcriptWriter     the write-behind writer for chat transactions.
+     * @param chatWebSocketHandler the handler of the chat WebSocket channel.
+     */
+    public ChatEngineMeterBinder(ConversationSessionStore sessionStore, ConversationGraphCache graphCache,
+                                 PublishedGraphCache publishedGraphCache, MessageBodyCache messageBodyCache,
+                                 GraphChangeHandler graphChangeHandler, TranscriptWriter transcriptWriter,
+                                 ChatWebSocketHandler chatWebSocketHandler) {
+        this.sessionStore = sessionStore;
+        this.graphCache = graphCache;
+        this.publishedGraphCache = publishedGraphCache;
+        this.messageBodyCache = messageBodyCache;
+        this.graphChangeHandler = graphChangeHandler;
+        this.transcriptWriter = transcriptWriter;
+        this.chatWebSocketHandler = chatWebSocketHandler;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("chatbot.sessions.active", sessionStore, ConversationSessionStore::size)
+                .description("Chat sessions currently held")
+                .register(registry);
+        Gauge.builder("chatbot.websocket.connections", chatWebSocketHandler, ChatWebSocketHandler::getConnectionCount)
+                .description("Open chat WebSocket connections")
+                .register(registry);
+        Gauge.builder("chatbot.graph.nodes", graphCache, ConversationGraphCache::size)
+                .description("Nodes in the compiled draft graph")
+                .register(registry);
+        Gauge.builder("chatbot.graph.version", publishedGraphCache, PublishedGraphCache::currentVersion)
+                .description("Published graph version new chats start on")
+                .register(registry);
+        FunctionCounter.builder("chatbot.graph.changes.applied", graphChangeHandler,
+                        GraphChangeHandler::getAppliedCount)
+                .description("Graph changes applied to the caches of this instance")
+                .register(registry);
+        Gauge.builder("chatbot.graph.bodies.cached", messageBodyCache, MessageBodyCache::size)
+                .description("Node message bodies held in memory")
+                .register(registry);
+        FunctionCounter.builder("chatbot.graph.bodies.loaded", messageBodyCache, MessageBodyCache::getLoadCount)
+                .description("Node message bodies read from the database")
+                .register(registry);
+        Gauge.builder("chatbot.transcript.queue.depth", transcriptWriter, TranscriptWriter::getQueueDepth)
+                .description("Chat transactions waiting to be written")
+                .register(registry);
+        FunctionCounter.builder("chatbot.transcript.written", transcriptWriter, TranscriptWriter::getWrittenCount)
+                .description("Chat transactions written to the database")
+                .register(registry);
+        FunctionCounter.builder("chatbot.transcript.failed", transcriptWriter, TranscriptWriter::getFailedCount)
+                .description("Chat transactions that could not be written")
+                .register(registry);
+        FunctionCounter.builder("chatbot.transcript.overflow", transcriptWriter, TranscriptWriter::getOverflowCount)
+                .description("Chat transactions written synchronously because the queue was full")
+                .register(registry);
+    }
+}
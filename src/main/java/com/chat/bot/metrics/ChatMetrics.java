@@ -0,0 +1,95 @@
+package com.chat.bot.metrics;
+
+import com.chat.bot.entity.ConversationNode.NodeType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters recorded by the chat engine on every turn.
+ * <p>
+ * Meters are registered once and kept, so recording a turn does not go through the registry. Every tag takes a
+ * bounded set of values: invalid responses are counted by type of the node they were given at, as tagging them by
+ * node ID would register a series per node ever edited; the node itself is in the sampled turn events.
+ */
+@Component
+public class ChatMetrics {
+
+    /** Name of the turn latency timer. */
+    public static final String TURN_TIMER = "chatbot.turns";
+
+    /** Name of the invalid response counter, tagged by node type. */
+    public static final String INVALID_RESPONSES = "chatbot.responses.invalid";
+
+    /** Name of the admin graph edit counter. */
+    public static final String GRAPH_EDITS = "chatbot.graph.edits";
+
+    /** Registry the meters are registered with. */
+    private final MeterRegistry registry;
+
+    /** Turn latency timers by outcome. */
+    private final Map<TurnOutcome, Timer> turnTimers = new EnumMap<>(TurnOutcome.class);
+
+    /** Invalid response counters by type of the node the response was given at. */
+    private final Map<NodeType, Counter> invalidResponses = new EnumMap<>(NodeType.class);
+
+    /**
+     * Constructor for ChatMetrics.
+     *
+     * @param registry the registry the meters are registered with.
+     */
+    public ChatMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (TurnOutcome outcome : TurnOutcome.values()) {
+            turnTimers.put(outcome, Timer.builder(TURN_TIMER)
+                    .description("Time to handle a user response")
+                    .tag("outcome", outcome.tag())
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        for (NodeType nodeType : NodeType.values()) {
+            invalidResponses.put(nodeType, Counter.builder(INVALID_RESPONSES)
+                    .description("User responses matching no option of the node")
+                    .tag("nodeType", nodeType.name())
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Records the latency of a turn.
+     *
+     * @param outcome the outcome of the turn.
+     * @param nanos   the time the turn took, in nanoseconds.
+     */
+    public void recordTurn(TurnOutcome outcome, long nanos) {
+        turnTimers.get(outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a response no option of a node matched.
+     *
+     * @param nodeType the type of the node the response was given at, or null for a node without one.
+     */
+    public void countInvalidResponse(NodeType nodeType) {
+        invalidResponses.get(nodeType != null ? nodeType : NodeType.NORMAL_NODE).increment();
+    }
+
+    /**
+     * Counts an edit of the conversation graph made through the admin service. Edits are rare, so the counter is
+     * looked up in the registry.
+     *
+     * @param operation the name of the edit operation.
+     */
+    public void countGraphEdit(String operation) {
+        Counter.builder(GRAPH_EDITS)
+                .description("Edits of the conversation graph")
+                .tag("operation", operation)
+                .register(registry)
+                .increment();
+    }
+}
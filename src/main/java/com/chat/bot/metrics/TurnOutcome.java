@@ -0,0 +1,27 @@
+package com.chat.bot.metrics;
+
+import java.util.Locale;
+
+/**
+ * Outcome of a chat turn, used to split turn latency.
+ */
+public enum TurnOutcome {
+
+    /** The response matched an option of the current node. */
+    VALID,
+
+    /** The response matched no option; the invalid node answered. */
+    INVALID,
+
+    /** The turn ended the chat. */
+    END;
+
+    /**
+     * Returns the value of the outcome tag.
+     *
+     * @return the outcome in lower case.
+     */
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -2,9 +2,75 @@ package com.chat.bot.repository;
 
 import com.chat.bot.entity.ChatTransaction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Repository interface for managing chat transactions.
+ * <p>
+ * Transcripts are read with keyset pagination in (timestamp, id) order: each page starts strictly after the
+ * last row of the previous one, so a page costs one index range scan however deep it is. The row-value
+ * comparison lets Postgres use the composite indexes directly.
  */
 public interface ChatTransactionRepository extends JpaRepository<ChatTransaction, Long> {
+
+    /**
+     * Finds the first transactions of a session.
+     *
+     * @param sessionId the session ID
+     * @param limit     the maximum number of transactions
+     * @return the transactions, ordered by timestamp and ID
+     */
+    @Query(value = "SELECT * FROM chat_transaction WHERE session_id = :sessionId "
+            + "ORDER BY timestamp, id LIMIT :limit", nativeQuery = true)
+    List<ChatTransaction> findSessionPage(@Param("sessionId") Long sessionId, @Param("limit") int limit);
+
+    /**
+     * Finds the transactions of a session that follow the given position.
+     *
+     * @param sessionId the session ID
+     * @param timestamp the timestamp of the last transaction read
+     * @param id        the ID of the last transaction read
+     * @param limit     the maximum number of transactions
+     * @return the transactions, ordered by timestamp and ID
+     */
+    @Query(value = "SELECT * FROM chat_transaction WHERE session_id = :sessionId "
+            + "AND (timestamp, id) > (:timestamp, :id) ORDER BY timestamp, id LIMIT :limit", nativeQuery = true)
+    List<ChatTransaction> findSessionPageAfter(@Param("sessionId") Long sessionId,
+                                               @Param("timestamp") LocalDateTime timestamp,
+                                               @Param("id") Long id,
+                                               @Param("limit") int limit);
+
+    /**
+     * Finds the first transactions of a time window.
+     *
+     * @param from  the start of the window, inclusive
+     * @param to    the end of the window, exclusive
+     * @param limit the maximum number of transactions
+     * @return the transactions, ordered by timestamp and ID
+     */
+    @Query(value = "SELECT * FROM chat_transaction WHERE timestamp >= :from AND timestamp < :to "
+            + "ORDER BY timestamp, id LIMIT :limit", nativeQuery = true)
+    List<ChatTransaction> findWindowPage(@Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to,
+                                         @Param("limit") int limit);
+
+    /**
+     * Finds the transactions of a time window that follow the given position.
+     *
+     * @param timestamp the timestamp of the last transaction read
+     * @param id        the ID of the last transaction read
+     * @param to        the end of the window, exclusive
+     * @param limit     the maximum number of transactions
+     * @return the transactions, ordered by timestamp and ID
+     */
+    @Query(value = "SELECT * FROM chat_transaction WHERE (timestamp, id) > (:timestamp, :id) AND timestamp < :to "
+            + "ORDER BY timestamp, id LIMIT :limit", nativeQuery = true)
+    List<ChatTransaction> findWindowPageAfter(@Param("timestamp") LocalDateTime timestamp,
+                                              @Param("id") Long id,
+                                              @Param("to") LocalDateTime to,
+                                              @Param("limit") int limit);
 }
@@ -0,0 +1,23 @@
+package com.chat.bot.repository;
+
+import com.chat.bot.entity.ConversationNodeBody;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for managing the long message bodies of conversation nodes.
+ */
+public interface ConversationNodeBodyRepository extends JpaRepository<ConversationNodeBody, Long> {
+
+    /**
+     * Finds the body of a conversation node, without going through the persistence context.
+     *
+     * @param nodeId the ID of the node
+     * @return an Optional containing the body, or empty if the node has none
+     */
+    @Query(value = "SELECT body FROM conversation_node_body WHERE node_id = :nodeId", nativeQuery = true)
+    Optional<String> findBodyByNodeId(@Param("nodeId") Long nodeId);
+}
@@ -1,13 +1,23 @@
 package com.chat.bot.repository;
 
+import com.chat.bot.dto.NodeOption;
+import com.chat.bot.dto.NodeSummary;
 import com.chat.bot.entity.ConversationNode;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Repository interface for managing conversation nodes.
+ * <p>
+ * The admin pages read nodes in keyset pages by ID and search them by prefix for the node picker; on PostgreSQL
+ * the search predicates are backed by the expression indexes of data-postgresql.sql.
  */
 public interface ConversationNodeRepository extends JpaRepository<ConversationNode, Long> {
 
@@ -26,4 +36,158 @@ public interface ConversationNodeRepository extends JpaRepository<ConversationNo
      * @return a list of nodes with the specified type
      */
     List<ConversationNode> findAllByNodeType(ConversationNode.NodeType nodeType);
+
+    /**
+     * Finds every conversation node together with its responses, in a single join instead of one query per node.
+     *
+     * @return all nodes with their responses loaded
+     */
+    @Query("SELECT DISTINCT n FROM ConversationNode n LEFT JOIN FETCH n.responses")
+    List<ConversationNode> findAllWithResponses();
+
+    /**
+     * Finds the given conversation nodes together with their responses, in a single join.
+     *
+     * @param ids the IDs of the nodes
+     * @return the nodes found, with their responses loaded
+     */
+    @Query("SELECT DISTINCT n FROM ConversationNode n LEFT JOIN FETCH n.responses WHERE n.id IN :ids")
+    List<ConversationNode> findAllWithResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds the lowest ID among the conversation nodes of a node type. On PostgreSQL the lookup of the first and
+     * invalid nodes is answered from the partial unique index of data-postgresql.sql.
+     *
+     * @param nodeType the type of the nodes
+     * @return an Optional containing the ID, or empty if no node has the type
+     */
+    @Query("SELECT MIN(n.id) FROM ConversationNode n WHERE n.nodeType = :nodeType")
+    Optional<Long> findFirstIdByNodeType(@Param("nodeType") ConversationNode.NodeType nodeType);
+
+    /**
+     * Counts the conversation nodes of a node type.
+     *
+     * @param nodeType the type of the nodes
+     * @return the number of nodes with the specified type
+     */
+    long countByNodeType(ConversationNode.NodeType nodeType);
+
+    /**
+     * Lists the headers of the conversation nodes following an ID with their response counts, in one aggregate
+     * statement instead of loading every node and then its responses.
+     *
+     * @param afterId  the ID to list after; 0 to list from the start
+     * @param pageable the page size; the page number must be 0
+     * @return the node summaries, ordered by ID
+     */
+    @Query("SELECT new com.chat.bot.dto.NodeSummary(n.id, n.message, n.messageName, n.nodeType, n.deletable, "
+            + "COUNT(KEY(r))) FROM ConversationNode n LEFT JOIN n.responses r WHERE n.id > :afterId "
+            + "GROUP BY n.id, n.message, n.messageName, n.nodeType, n.deletable ORDER BY n.id")
+    List<NodeSummary> findSummariesAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Finds the nodes whose message name or message starts with a pattern, ignoring case.
+     * <p>
+     * The two predicates are searched separately and their first matches by ID merged with a UNION, so each one
+     * is answered from its own expression index; a single OR under {@code ORDER BY id LIMIT} leads the planner to
+     * walk the primary key instead and filter every node.
+     *
+     * @param pattern the lower-case LIKE pattern, escaped with a backslash
+     * @param limit   the maximum number of nodes
+     * @return the ID and display name of the nodes, ordered by ID
+     */
+    @Query(value = "SELECT id, COALESCE(NULLIF(message_name, ''), LEFT(message, 80)) AS name FROM ("
+            + "(SELECT id, message_name, message FROM conversation_node "
+            + "WHERE LOWER(message_name) LIKE :pattern ESCAPE '\\' ORDER BY id LIMIT :limit) "
+            + "UNION (SELECT id, message_name, message FROM conversation_node "
+            + "WHERE LOWER(LEFT(message, 64)) LIKE :pattern ESCAPE '\\' ORDER BY id LIMIT :limit)"
+            + ") matches ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<NodeOption> searchOptions(@Param("pattern") String pattern, @Param("limit") int limit);
+
+    /**
+     * Finds the ID and display name of the given nodes.
+     *
+     * @param ids the IDs of the nodes
+     * @return the ID and display name of the nodes found
+     */
+    @Query(value = "SELECT id, COALESCE(NULLIF(message_name, ''), LEFT(message, 80)) AS name FROM conversation_node "
+            + "WHERE id IN (:ids)", nativeQuery = true)
+    List<NodeOption> findOptionsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Counts the nodes among the given IDs that exist.
+     *
+     * @param ids the IDs of the nodes
+     * @return the number of existing nodes
+     */
+    long countByIdIn(Collection<Long> ids);
+
+    /**
+     * Checks whether any conversation node exists, stopping at the first row instead of counting them all.
+     *
+     * @return true if the graph has at least one node
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM conversation_node)", nativeQuery = true)
+    boolean existsAnyNode();
+
+    /**
+     * Finds the IDs of the nodes having at least one response leading to the given node.
+     *
+     * @param nodeId the ID of the target node
+     * @return the IDs of the nodes pointing at the target node
+     */
+    @Query(value = "SELECT DISTINCT conversation_node_id FROM conversation_node_responses WHERE next_node_id = :nodeId",
+            nativeQuery = true)
+    List<Long> findReferrerIds(@Param("nodeId") Long nodeId);
+
+    /**
+     * Redirects every response leading to a node to another node, in a single statement.
+     *
+     * @param nodeId     the ID of the current target node
+     * @param nextNodeId the ID of the new target node
+     * @return the number of redirected responses
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE conversation_node_responses SET next_node_id = :nextNodeId WHERE next_node_id = :nodeId",
+            nativeQuery = true)
+    int redirectResponses(@Param("nodeId") Long nodeId, @Param("nextNodeId") Long nextNodeId);
+
+    /**
+     * Inserts a response of a node, unless the node already has a response with that key.
+     *
+     * @param nodeId     the ID of the node
+     * @param key        the response key
+     * @param nextNodeId the ID of the next node
+     * @return 1 if the response was inserted, 0 if the key already exists
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO conversation_node_responses (conversation_node_id, response_key, next_node_id) "
+            + "SELECT :nodeId, :key, :nextNodeId WHERE NOT EXISTS (SELECT 1 FROM conversation_node_responses "
+            + "WHERE conversation_node_id = :nodeId AND response_key = :key)", nativeQuery = true)
+    int insertResponse(@Param("nodeId") Long nodeId, @Param("key") String key, @Param("nextNodeId") Long nextNodeId);
+
+    /**
+     * Changes the next node of a response.
+     *
+     * @param nodeId     the ID of the node
+     * @param key        the response key
+     * @param nextNodeId the ID of the new next node
+     * @return the number of updated responses, 0 if the node has no response with that key
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE conversation_node_responses SET next_node_id = :nextNodeId "
+            + "WHERE conversation_node_id = :nodeId AND response_key = :key", nativeQuery = true)
+    int updateResponse(@Param("nodeId") Long nodeId, @Param("key") String key, @Param("nextNodeId") Long nextNodeId);
+
+    /**
+     * Deletes a response of a node.
+     *
+     * @param nodeId the ID of the node
+     * @param key    the response key
+     * @return the number of deleted responses, 0 if the node has no response with that key
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM conversation_node_responses WHERE conversation_node_id = :nodeId AND response_key = :key",
+            nativeQuery = true)
+    int deleteResponse(@Param("nodeId") Long nodeId, @Param("key") String key);
 }
@@ -0,0 +1,124 @@
+package com.chat.bot.repository;
+
+import com.chat.bot.entity.ConversationNode;
+import com.chat.bot.entity.GraphVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Repository interface for managing the published versions of the conversation graph.
+ * <p>
+ * A version is written once, by copying the draft graph with set-based INSERT ... SELECT statements, and only read
+ * afterwards.
+ */
+public interface GraphVersionRepository extends JpaRepository<GraphVersion, Long> {
+
+    /**
+     * Finds the latest published version.
+     *
+     * @return an Optional containing the latest version, or empty if nothing was published
+     */
+    Optional<GraphVersion> findTopByOrderByIdDesc();
+
+    /**
+     * Copies the nodes of the draft graph into a version. Flushes first, so the version row exists.
+     *
+     * @param versionId the ID of the version
+     * @return the number of copied nodes
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO graph_version_node "
+            + "(version_id, node_id, message, body_length, message_name, deletable, node_type) "
+            + "SELECT :versionId, id, message, body_length, message_name, deletable, node_type FROM conversation_node",
+            nativeQuery = true)
+    int copyDraftNodes(@Param("versionId") Long versionId);
+
+    /**
+     * Copies the responses of the draft graph into a version.
+     *
+     * @param versionId the ID of the version
+     * @return the number of copied responses
+     */
+    @Modifying
+    @Query(value = "INSERT INTO graph_version_response (version_id, node_id, response_key, next_node_id) "
+            + "SELECT :versionId, conversation_node_id, response_key, next_node_id FROM conversation_node_responses",
+            nativeQuery = true)
+    int copyDraftResponses(@Param("versionId") Long versionId);
+
+    /**
+     * Copies the bodies of the draft graph into a version.
+     *
+     * @param versionId the ID of the version
+     * @return the number of copied bodies
+     */
+    @Modifying
+    @Query(value = "INSERT INTO graph_version_body (version_id, node_id, body) "
+            + "SELECT :versionId, node_id, body FROM conversation_node_body", nativeQuery = true)
+    int copyDraftBodies(@Param("versionId") Long versionId);
+
+    /**
+     * Reads the node headers of a version.
+     *
+     * @param versionId the ID of the version
+     * @return rows of node ID, message, body length, message name, deletable flag and node type
+     */
+    @Query(value = "SELECT node_id, message, body_length, message_name, deletable, node_type FROM graph_version_node "
+            + "WHERE version_id = :versionId", nativeQuery = true)
+    List<Object[]> findNodeRows(@Param("versionId") Long versionId);
+
+    /**
+     * Reads the responses of a version.
+     *
+     * @param versionId the ID of the version
+     * @return rows of node ID, response key and next node ID
+     */
+    @Query(value = "SELECT node_id, response_key, next_node_id FROM graph_version_response "
+            + "WHERE version_id = :versionId", nativeQuery = true)
+    List<Object[]> findResponseRows(@Param("versionId") Long versionId);
+
+    /**
+     * Finds the body of a node in a version.
+     *
+     * @param versionId the ID of the version
+     * @param nodeId    the ID of the node
+     * @return an Optional containing the body, or empty if the node has none
+     */
+    @Query(value = "SELECT body FROM graph_version_body WHERE version_id = :versionId AND node_id = :nodeId",
+            nativeQuery = true)
+    Optional<String> findBody(@Param("versionId") Long versionId, @Param("nodeId") Long nodeId);
+
+    /**
+     * Loads the nodes of a version with their responses, in two statements.
+     *
+     * @param versionId the ID of the version
+     * @return detached nodes, to be compiled into a graph
+     */
+    default List<ConversationNode> loadNodes(Long versionId) {
+        Map<Long, ConversationNode> nodes = new HashMap<>();
+        for (Object[] row : findNodeRows(versionId)) {
+            ConversationNode node = new ConversationNode();
+            node.setId(((Number) row[0]).longValue());
+            node.setMessage((String) row[1]);
+            node.setBodyLength(row[2] == null ? 0 : ((Number) row[2]).intValue());
+            node.setMessageName((String) row[3]);
+            node.setDeletable(Boolean.TRUE.equals(row[4]));
+            node.setNodeType(row[5] == null ? null : ConversationNode.NodeType.valueOf((String) row[5]));
+            nodes.put(node.getId(), node);
+        }
+        for (Object[] row : findResponseRows(versionId)) {
+            ConversationNode node = nodes.get(((Number) row[0]).longValue());
+            if (node != null) {
+                node.getResponses().put((String) row[1], row[2] == null ? null : ((Number) row[2]).longValue());
+            }
+        }
+        return new ArrayList<>(nodes.values());
+    }
+}
@@ -1,20 +1,48 @@
 package com.chat.bot.service;
 
 import com.chat.bot.constants.ChatMessages;
+import com.chat.bot.dto.NodeOption;
+import com.chat.bot.dto.NodeSummary;
 import com.chat.bot.entity.ConversationNode;
 import com.chat.bot.entity.ConversationNode.NodeType;
+import com.chat.bot.entity.ConversationNodeBody;
+import com.chat.bot.entity.GraphVersion;
+import com.chat.bot.graph.ConversationGraphCache;
+import com.chat.bot.graph.GraphChange;
+import com.chat.bot.graph.GraphChangeChannel;
+import com.chat.bot.metrics.ChatMetrics;
+import com.chat.bot.repository.ConversationNodeBodyRepository;
 import com.chat.bot.repository.ConversationNodeRepository;
+import com.chat.bot.repository.GraphVersionRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service class for managing conversation nodes.
+ * <p>
+ * Admins edit a draft graph; every write is announced on the {@link GraphChangeChannel}, so each instance refreshes
+ * the changed nodes in its draft {@link ConversationGraphCache}. The first and invalid nodes are checked in the
+ * database within the transaction of the write, since the compiled draft lags behind the commits of other admins
+ * and instances; on PostgreSQL a partial unique index makes concurrent writes fail rather than leave two of either.
+ * Chats only see the changes once
+ * the draft is published as a new immutable version, which new chats start on while running chats finish on theirs.
+ * Long message bodies are written to their own table and only read back to edit a node.
  */
 @Service
 public class AdminService {
@@ -30,12 +58,42 @@ public class AdminService {
     private final ConversationNodeRepository repository;
 
     /**
-     * Constructor for injecting the ConversationNodeRepository.
+     * Meters of the chat engine.
+     */
+    private final ChatMetrics chatMetrics;
+
+    /**
+     * Repository for the bodies of conversation nodes.
+     */
+    private final ConversationNodeBodyRepository bodyRepository;
+
+    /**
+     * Repository for the published graph versions.
+     */
+    private final GraphVersionRepository versionRepository;
+
+    /**
+     * Channel announcing graph changes to every instance.
+     */
+    private final GraphChangeChannel graphChanges;
+
+    /**
+     * Constructor for AdminService.
      *
-     * @param repository the repository to inject.
+     * @param repository        the repository for conversation nodes.
+     * @param chatMetrics       the meters of the chat engine.
+     * @param bodyRepository    the repository for the bodies of conversation nodes.
+     * @param versionRepository the repository for the published graph versions.
+     * @param graphChanges      the channel announcing graph changes to every instance.
      */
-    public AdminService(ConversationNodeRepository repository) {
+    public AdminService(ConversationNodeRepository repository, ChatMetrics chatMetrics,
+                        ConversationNodeBodyRepository bodyRepository, GraphVersionRepository versionRepository,
+                        GraphChangeChannel graphChanges) {
         this.repository = repository;
+        this.chatMetrics = chatMetrics;
+        this.bodyRepository = bodyRepository;
+        this.versionRepository = versionRepository;
+        this.graphChanges = graphChanges;
     }
 
     /**
@@ -48,6 +106,48 @@ public class AdminService {
         return repository.findAll();
     }
 
+    /**
+     * Fetches a page of node headers with their response counts, without loading the responses.
+     *
+     * @param afterId the ID of the last node of the previous page, or 0 for the first page.
+     * @param size    the maximum number of nodes.
+     * @return the node summaries, ordered by ID.
+     */
+    public List<NodeSummary> getNodeSummaries(long afterId, int size) {
+        logger.info("Fetching conversation node summaries after ID: {}", afterId);
+        return repository.findSummariesAfter(afterId, PageRequest.ofSize(size));
+    }
+
+    /**
+     * Searches the nodes whose message name or message starts with a query, ignoring case.
+     *
+     * @param query the start of the message name or message.
+     * @param limit the maximum number of nodes.
+     * @return the ID and display name of the matching nodes, ordered by ID.
+     */
+    public List<NodeOption> searchNodes(String query, int limit) {
+        String prefix = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return repository.searchOptions(pattern, limit);
+    }
+
+    /**
+     * Fetches the ID and display name of the nodes the responses of a node lead to.
+     *
+     * @param node the node.
+     * @return the display names of the next nodes, by ID.
+     */
+    public Map<Long, String> getNextNodeNames(ConversationNode node) {
+        Set<Long> ids = new HashSet<>(node.getResponses().values());
+        Map<Long, String> names = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (NodeOption option : repository.findOptionsByIds(ids)) {
+                names.put(option.getId(), option.getName());
+            }
+        }
+        return names;
+    }
+
     /**
      * Fetches a conversation node by its ID.
      *
@@ -61,37 +161,87 @@ public class AdminService {
     }
 
     /**
-     * Saves a conversation node.
+     * Fetches a conversation node by its ID, with its body, to edit it.
+     *
+     * @param id the ID of the node.
+     * @return the conversation node, whose body is empty if it has none.
+     */
+    public ConversationNode getNodeWithBody(Long id) {
+        ConversationNode node = getNodeById(id);
+        node.setBody(node.getBodyLength() > 0 ? bodyRepository.findBodyByNodeId(id).orElse("") : "");
+        return node;
+    }
+
+    /**
+     * Saves a conversation node, and its body if one was submitted with it.
      *
      * @param node the conversation node to save.
      */
+    @Transactional
     public void saveNode(ConversationNode node) {
         validateNodeTypeUniqueness(node);
 
-        if (repository.count() == 0 && node.getNodeType() != NodeType.NORMAL_NODE) {
+        if (node.getNodeType() != NodeType.NORMAL_NODE && !repository.existsAnyNode()) {
             node.setNodeType(NodeType.FIRST_NODE);
         }
 
         if (node.getId() != null) {
-            updateNodeResponses(node);
+            mergeStoredNode(node);
+        }
+        if (node.getBody() != null) {
+            node.setBodyLength(node.getBody().isBlank() ? 0 : node.getBody().length());
         }
 
         repository.save(node);
+        writeBody(node);
+        refreshGraphAfterCommit(List.of(node.getId()));
+        chatMetrics.countGraphEdit("save-node");
         logger.info("Saved node with ID: {}", node.getId());
     }
 
     /**
-     * Deletes all conversation nodes.
+     * Publishes the draft graph as a new immutable version, which new chats on every instance start on once the
+     * transaction has committed. The nodes, responses and bodies are copied with three set-based statements under
+     * repeatable read, so the version is a consistent snapshot even while other admins keep editing the draft.
+     *
+     * @return the published version.
      */
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public GraphVersion publishDraft() {
+        if (repository.findFirstIdByNodeType(NodeType.FIRST_NODE).isEmpty()) {
+            String errorMsg = "The draft has no first node to publish.";
+            logger.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        GraphVersion version = versionRepository.save(new GraphVersion(null, LocalDateTime.now(), 0));
+        Long versionId = version.getId();
+        version.setNodeCount(versionRepository.copyDraftNodes(versionId));
+        versionRepository.copyDraftResponses(versionId);
+        versionRepository.copyDraftBodies(versionId);
+        graphChanges.publish(GraphChange.published(versionId));
+        chatMetrics.countGraphEdit("publish");
+        logger.info("Published version {} of the conversation graph with {} nodes", versionId, version.getNodeCount());
+        return version;
+    }
+
+    /**
+     * Deletes all conversation nodes with their bodies, in one transaction.
+     */
+    @Transactional
     public void deleteAllNodes() {
+        bodyRepository.deleteAllInBatch();
         repository.deleteAll();
+        graphChanges.publish(GraphChange.reload());
+        chatMetrics.countGraphEdit("delete-all-nodes");
     }
 
     /**
-     * Deletes a conversation node by its ID.
+     * Deletes a conversation node by its ID. Responses leading to the node are redirected to the invalid node.
      *
      * @param id the ID of the node to delete.
      */
+    @Transactional
     public void deleteNode(Long id) {
         logger.info("Deleting node with ID: {}", id);
         validateNodeExistence(id);
@@ -105,20 +255,28 @@ public class AdminService {
             throw new IllegalArgumentException(errorMsg);
         }
 
-        updateResponsesForDeletedNode(id);
+        List<Long> changedIds = updateResponsesForDeletedNode(id);
+        if (node.getBodyLength() > 0) {
+            bodyRepository.deleteById(id);
+        }
         repository.deleteById(id);
+        changedIds.add(id);
+        refreshGraphAfterCommit(changedIds);
+        chatMetrics.countGraphEdit("delete-node");
         logger.info("Deleted node with ID: {}", id);
     }
 
     /**
-     * Saves responses for a conversation node.
+     * Saves responses for a conversation node. Only the responses that differ from the stored ones are written.
      *
      * @param id           the ID of the node.
      * @param responseKeys the response keys.
      * @param nextNodeIds  the IDs of the next nodes.
      */
+    @Transactional
     public void saveResponses(Long id, List<String> responseKeys, List<Long> nextNodeIds) {
         validateResponseKeyAndNodeIdSizes(responseKeys, nextNodeIds);
+        validateNextNodeExistence(nextNodeIds);
 
         ConversationNode node = repository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Invalid node Id: " + id));
@@ -126,32 +284,96 @@ public class AdminService {
         Map<String, Long> newResponses = new HashMap<>();
         mapResponseKeysToNodeIds(responseKeys, nextNodeIds, newResponses);
 
-        node.setResponses(newResponses);
-        repository.save(node);
+        Map<String, Long> currentResponses = node.getResponses();
+        for (String key : currentResponses.keySet()) {
+            if (!newResponses.containsKey(key)) {
+                repository.deleteResponse(id, key);
+            }
+        }
+        writeResponses(id, currentResponses, newResponses);
+        refreshGraphAfterCommit(List.of(id));
+        chatMetrics.countGraphEdit("save-responses");
         logger.info("Saved responses for node with ID: {}", id);
     }
 
     /**
-     * Adds responses to a conversation node.
+     * Adds responses to a conversation node. Only the responses that differ from the stored ones are written.
      *
      * @param id           the ID of the node.
      * @param responseKeys the response keys.
      * @param nextNodeIds  the IDs of the next nodes.
      */
+    @Transactional
     public void addResponses(Long id, List<String> responseKeys, List<Long> nextNodeIds) {
         validateResponseKeyAndNodeIdSizes(responseKeys, nextNodeIds);
+        validateNextNodeExistence(nextNodeIds);
 
         ConversationNode node = repository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Invalid node Id: " + id));
 
-        Map<String, Long> newResponses = node.getResponses();
+        Map<String, Long> newResponses = new HashMap<>();
         mapResponseKeysToNodeIds(responseKeys, nextNodeIds, newResponses);
 
-        node.setResponses(newResponses);
-        repository.save(node);
+        writeResponses(id, node.getResponses(), newResponses);
+        refreshGraphAfterCommit(List.of(id));
+        chatMetrics.countGraphEdit("add-responses");
         logger.info("Added new responses for node with ID: {}", id);
     }
 
+    /**
+     * Adds a single response to a conversation node.
+     *
+     * @param id         the ID of the node.
+     * @param key        the response key.
+     * @param nextNodeId the ID of the next node.
+     */
+    @Transactional
+    public void addResponse(Long id, String key, Long nextNodeId) {
+        String responseKey = validateResponseEdit(id, key, nextNodeId);
+        if (repository.insertResponse(id, responseKey, nextNodeId) == 0) {
+            throw new IllegalArgumentException("Node " + id + " already has a response: " + responseKey);
+        }
+        refreshGraphAfterCommit(List.of(id));
+        chatMetrics.countGraphEdit("add-response");
+        logger.info("Added response {} to node ID: {} leading to node ID: {}", responseKey, id, nextNodeId);
+    }
+
+    /**
+     * Points a single response of a conversation node to another node.
+     *
+     * @param id         the ID of the node.
+     * @param key        the response key.
+     * @param nextNodeId the ID of the new next node.
+     */
+    @Transactional
+    public void retargetResponse(Long id, String key, Long nextNodeId) {
+        String responseKey = validateResponseEdit(id, key, nextNodeId);
+        if (repository.updateResponse(id, responseKey, nextNodeId) == 0) {
+            throw new IllegalArgumentException("Node " + id + " has no response: " + responseKey);
+        }
+        refreshGraphAfterCommit(List.of(id));
+        chatMetrics.countGraphEdit("retarget-response");
+        logger.info("Retargeted response {} of node ID: {} to node ID: {}", responseKey, id, nextNodeId);
+    }
+
+    /**
+     * Removes a single response from a conversation node.
+     *
+     * @param id  the ID of the node.
+     * @param key the response key.
+     */
+    @Transactional
+    public void removeResponse(Long id, String key) {
+        validateNodeExistence(id);
+        String responseKey = key == null ? "" : key.trim();
+        if (repository.deleteResponse(id, responseKey) == 0) {
+            throw new IllegalArgumentException("Node " + id + " has no response: " + responseKey);
+        }
+        refreshGraphAfterCommit(List.of(id));
+        chatMetrics.countGraphEdit("remove-response");
+        logger.info("Removed response {} from node ID: {}", responseKey, id);
+    }
+
     /**
      * Validates the uniqueness of node types.
      *
@@ -168,28 +390,87 @@ public class AdminService {
     }
 
     /**
-     * Validates the uniqueness of a specific node type.
+     * Validates the uniqueness of a specific node type against the database.
      *
      * @param nodeType the type of node to validate.
      * @param nodeId   the ID of the node to validate against.
      */
     private void validateNodeTypeUniqueness(NodeType nodeType, Long nodeId) {
-        Optional<ConversationNode> existingNode = repository.findByNodeType(nodeType);
-        if (existingNode.isPresent() && !existingNode.get().getId().equals(nodeId)) {
-            throw new IllegalArgumentException("A " + nodeType.name().toLowerCase() + " node already exists with ID: " + existingNode.get().getId());
+        Optional<Long> existingId = repository.findFirstIdByNodeType(nodeType);
+        if (existingId.isPresent() && !existingId.get().equals(nodeId)) {
+            throw new IllegalArgumentException("A " + nodeType.name().toLowerCase() + " node already exists with ID: "
+                    + existingId.get());
         }
     }
 
     /**
-     * Updates the responses of a node if it exists.
+     * Keeps the stored responses of a node if it exists, and its body length when no body was submitted.
      *
      * @param node the node to update.
      */
-    private void updateNodeResponses(ConversationNode node) {
+    private void mergeStoredNode(ConversationNode node) {
         ConversationNode existingNode = repository.findById(node.getId()).orElse(null);
-        if (existingNode != null && !existingNode.getResponses().isEmpty()) {
+        if (existingNode == null) {
+            return;
+        }
+        if (!existingNode.getResponses().isEmpty()) {
             node.setResponses(existingNode.getResponses());
         }
+        if (node.getBody() == null) {
+            node.setBodyLength(existingNode.getBodyLength());
+        }
+    }
+
+    /**
+     * Writes the body submitted with a node: a blank body removes the stored one, no body leaves it as is.
+     *
+     * @param node the saved node.
+     */
+    private void writeBody(ConversationNode node) {
+        if (node.getBody() == null) {
+            return;
+        }
+        if (node.getBodyLength() == 0) {
+            bodyRepository.deleteById(node.getId());
+        } else {
+            bodyRepository.save(new ConversationNodeBody(node.getId(), node.getBody()));
+        }
+    }
+
+    /**
+     * Validates a single response edit.
+     *
+     * @param id         the ID of the node.
+     * @param key        the response key.
+     * @param nextNodeId the ID of the next node.
+     * @return the trimmed response key.
+     */
+    private String validateResponseEdit(Long id, String key, Long nextNodeId) {
+        if (key == null || key.isBlank()) {
+            throw new IllegalArgumentException("Response key must not be empty.");
+        }
+        if (nextNodeId == null || !repository.existsById(nextNodeId)) {
+            throw new IllegalArgumentException("Invalid next node Id: " + nextNodeId);
+        }
+        validateNodeExistence(id);
+        return key.trim();
+    }
+
+    /**
+     * Inserts the new responses and updates the ones whose next node changed, leaving the others untouched.
+     *
+     * @param id               the ID of the node.
+     * @param currentResponses the stored responses.
+     * @param newResponses     the responses to write.
+     */
+    private void writeResponses(Long id, Map<String, Long> currentResponses, Map<String, Long> newResponses) {
+        newResponses.forEach((key, nextNodeId) -> {
+            if (!currentResponses.containsKey(key)) {
+                repository.insertResponse(id, key, nextNodeId);
+            } else if (!Objects.equals(currentResponses.get(key), nextNodeId)) {
+                repository.updateResponse(id, key, nextNodeId);
+            }
+        });
     }
 
     /**
@@ -206,25 +487,59 @@ public class AdminService {
     }
 
     /**
-     * Updates the responses for a deleted node.
+     * Redirects the responses leading to a deleted node to the invalid node with a single UPDATE, in the
+     * transaction of the deletion.
      *
      * @param id the ID of the deleted node.
+     * @return the IDs of the rewritten nodes.
      */
-    private void updateResponsesForDeletedNode(Long id) {
-        List<ConversationNode> allNodes = repository.findAll();
-        ConversationNode invalidNode = allNodes.stream()
-                .filter(n -> NodeType.INVALID_NODE.equals(n.getNodeType()))
-                .findFirst()
-                .orElseGet(this::createDefaultInvalidNode);
-
-        for (ConversationNode n : allNodes) {
-            Map<String, Long> responses = n.getResponses();
-            if (responses.containsValue(id)) {
-                responses.replaceAll((k, v) -> v.equals(id) ? invalidNode.getId() : v);
-                repository.save(n);
-                logger.info("Updated node ID: {} to replace response pointing to deleted node ID: {}", n.getId(), id);
+    private List<Long> updateResponsesForDeletedNode(Long id) {
+        List<Long> changedIds = new ArrayList<>();
+        for (Long referrerId : repository.findReferrerIds(id)) {
+            if (!id.equals(referrerId)) {
+                changedIds.add(referrerId);
             }
         }
+        if (changedIds.isEmpty()) {
+            return changedIds;
+        }
+
+        Long invalidNodeId = repository.findFirstIdByNodeType(NodeType.INVALID_NODE)
+                .filter(invalidId -> !id.equals(invalidId))
+                .orElseGet(() -> createDefaultInvalidNode().getId());
+        int redirected = repository.redirectResponses(id, invalidNodeId);
+        changedIds.add(invalidNodeId);
+        logger.info("Redirected {} responses of {} nodes from deleted node ID: {} to invalid node ID: {}",
+                redirected, changedIds.size() - 1, id, invalidNodeId);
+        return changedIds;
+    }
+
+    /**
+     * Announces the given nodes to every instance, which refresh only them in their compiled draft once the current
+     * transaction has committed, so no draft graph ever holds uncommitted changes.
+     *
+     * @param nodeIds the IDs of the changed nodes.
+     */
+    private void refreshGraphAfterCommit(Collection<Long> nodeIds) {
+        graphChanges.publish(GraphChange.nodes(nodeIds));
+    }
+
+    /**
+     * Validates that every next node exists, with a single query. Next nodes are typed in by ID in the node picker,
+     * so they are not guaranteed to exist.
+     *
+     * @param nextNodeIds the next node IDs.
+     */
+    private void validateNextNodeExistence(List<Long> nextNodeIds) {
+        Set<Long> ids = new HashSet<>(nextNodeIds);
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (ids.contains(null) || repository.countByIdIn(ids) != ids.size()) {
+            String errorMsg = "Invalid next node Id in: " + nextNodeIds;
+            logger.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
     }
 
     /**
@@ -242,7 +557,7 @@ public class AdminService {
     }
 
     /**
-     * Maps response keys to node IDs.
+     * Maps response keys to node IDs. Keys are trimmed, as surrounding whitespace is ignored when matching.
      *
      * @param responseKeys the response keys.
      * @param nextNodeIds  the next node IDs.
@@ -250,7 +565,7 @@ public class AdminService {
      */
     private void mapResponseKeysToNodeIds(List<String> responseKeys, List<Long> nextNodeIds, Map<String, Long> newResponses) {
         for (int i = 0; i < responseKeys.size(); i++) {
-            newResponses.put(responseKeys.get(i), nextNodeIds.get(i));
+            newResponses.put(responseKeys.get(i).trim(), nextNodeIds.get(i));
             logger.info("Mapping response key: {} to next node ID: {}", responseKeys.get(i), nextNodeIds.get(i));
         }
     }
@@ -1,200 +1,486 @@
 package com.chat.bot.service;
 
 import com.chat.bot.constants.ChatMessages;
+import com.chat.bot.dto.ChatTurn;
 import com.chat.bot.entity.ChatTransaction;
 import com.chat.bot.entity.ConversationNode;
 import com.chat.bot.entity.ConversationNode.NodeType;
-import com.chat.bot.repository.ChatTransactionRepository;
-import com.chat.bot.repository.ConversationNodeRepository;
-import lombok.Getter;
+import com.chat.bot.graph.ConversationGraph;
+import com.chat.bot.graph.GraphNode;
+import com.chat.bot.graph.MessageBodyCache;
+import com.chat.bot.graph.PublishedGraphCache;
+import com.chat.bot.graph.ResponseIndex;
+import com.chat.bot.logging.TurnEventLogger;
+import com.chat.bot.metrics.ChatMetrics;
+import com.chat.bot.metrics.TurnOutcome;
+import com.chat.bot.session.ChatEntry;
+import com.chat.bot.session.ChatEntry.Sender;
+import com.chat.bot.session.ChatSessionNotFoundException;
+import com.chat.bot.session.ConversationHistory;
+import com.chat.bot.session.ConversationSession;
+import com.chat.bot.session.ConversationSessionStore;
+import com.chat.bot.session.SessionIdGenerator;
+import com.chat.bot.transcript.TranscriptWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.UUID;
 
 /**
  * Service class for managing chatbot operations.
+ * <p>
+ * The service itself is stateless: the state of every conversation lives in a {@link ConversationSession}
+ * held by the {@link ConversationSessionStore}, so concurrent chats never share or overwrite each other.
+ * Conversations are walked on the compiled {@link ConversationGraph} of the published version the session started
+ * on, so a turn does not touch the database unless it reaches a node whose long body is not in the
+ * {@link MessageBodyCache}, and publishing a new version never changes the graph under a running chat.
+ * A version lacking an invalid or end node falls back on a default one built once by the service, outside any graph;
+ * chats never write to the graph.
+ * Every message is both appended to the session's bounded {@link ConversationHistory} and written as a chat
+ * transaction, so history dropped from memory can be read back from the transcript.
  */
 @Service
 public class ChatbotService {
 
-
     /** Logger instance for logging. */
     private static final Logger logger = LoggerFactory.getLogger(ChatbotService.class);
 
-    /** Repository for conversation nodes. */
-    private final ConversationNodeRepository nodeRepository;
+    /** ID of the invalid node a session falls back on when its graph has none; never stored. */
+    static final long DEFAULT_INVALID_NODE_ID = -1L;
 
-    /** Repository for chat transactions. */
-    private final ChatTransactionRepository transactionRepository;
+    /** ID of the end node a session falls back on when its graph has none; never stored. */
+    static final long DEFAULT_END_NODE_ID = -2L;
 
-    /** The current node in the conversation. */
-    private ConversationNode currentNode;
+    /** Write-behind writer for chat transactions. */
+    private final TranscriptWriter transcriptWriter;
 
-    /**
-     *  Retrieves the conversation history.
-     */
-    @Getter
-    private List<String> conversationHistory;
+    /** Store holding the state of the active chat sessions. */
+    private final ConversationSessionStore sessionStore;
+
+    /** Cache of the published versions of the conversation graph. */
+    private final PublishedGraphCache graphCache;
+
+    /** Cache of the long message bodies of the nodes. */
+    private final MessageBodyCache messageBodyCache;
+
+    /** Allocator of session IDs. */
+    private final SessionIdGenerator sessionIdGenerator;
+
+    /** Meters recorded on every turn. */
+    private final ChatMetrics chatMetrics;
 
-    /** The last valid node in the conversation. */
-    private ConversationNode lastValidNode;
+    /** Logger of sampled per-turn events. */
+    private final TurnEventLogger turnEventLogger;
 
-    /** The session ID for the current chat session. */
-    private AtomicLong sessionId;
+    /** Reader of chat transcripts, for history no longer held in memory. */
+    private final TranscriptService transcriptService;
+
+    /** Number of history entries each session keeps in memory. */
+    private final int historyCapacity;
+
+    /** Invalid node used when the graph of a session has none. */
+    private final GraphNode defaultInvalidNode;
+
+    /** End node used when the graph of a session has none. */
+    private final GraphNode defaultEndNode;
 
     /**
      * Constructor for ChatbotService.
      *
-     * @param nodeRepository       the repository for conversation nodes.
-     * @param transactionRepository the repository for chat transactions.
+     * @param transcriptWriter   the write-behind writer for chat transactions.
+     * @param sessionStore       the store holding the active chat sessions.
+     * @param graphCache         the cache of the published versions of the conversation graph.
+     * @param messageBodyCache   the cache of the long message bodies of the nodes.
+     * @param sessionIdGenerator the allocator of session IDs.
+     * @param chatMetrics        the meters recorded on every turn.
+     * @param turnEventLogger    the logger of sampled per-turn events.
+     * @param transcriptService  the reader of chat transcripts.
+     * @param historyCapacity    the number of history entries each session keeps in memory.
      */
-    public ChatbotService(ConversationNodeRepository nodeRepository, ChatTransactionRepository transactionRepository) {
-        this.nodeRepository = nodeRepository;
-        this.transactionRepository = transactionRepository;
+    public ChatbotService(TranscriptWriter transcriptWriter, ConversationSessionStore sessionStore,
+                          PublishedGraphCache graphCache, MessageBodyCache messageBodyCache,
+                          SessionIdGenerator sessionIdGenerator, ChatMetrics chatMetrics,
+                          TurnEventLogger turnEventLogger, TranscriptService transcriptService,
+                          @Value("${chatbot.session.history-capacity:64}") int historyCapacity) {
+        this.transcriptWriter = transcriptWriter;
+        this.sessionStore = sessionStore;
+        this.graphCache = graphCache;
+        this.messageBodyCache = messageBodyCache;
+        this.sessionIdGenerator = sessionIdGenerator;
+        this.chatMetrics = chatMetrics;
+        this.turnEventLogger = turnEventLogger;
+        this.transcriptService = transcriptService;
+        this.historyCapacity = historyCapacity;
+        this.defaultInvalidNode = GraphNode.of(createDefaultInvalidNode());
+        this.defaultEndNode = GraphNode.of(createEndNode());
     }
+
     /**
      * Initializes a new chat session.
+     *
+     * @return the new session.
+     */
+    public ConversationSession initializeChat() {
+        ConversationSession session = new ConversationSession(UUID.randomUUID().toString(),
+                sessionIdGenerator.nextId(), historyCapacity);
+        session.setGraph(graphCache.current());
+        GraphNode firstNode = session.getGraph().findFirstNode().orElseGet(this::fallbackInvalidNode);
+        session.setCurrentNode(firstNode);
+        session.setLastValidNode(firstNode);
+        sessionStore.save(session);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Chat initialized with first node: {}", firstNode.getMessage());
+        }
+        record(session, Sender.CHATBOT, messageBodyCache.messageOf(firstNode));
+        return session;
+    }
+
+    /**
+     * Starts a new chat session and returns its first turn.
+     *
+     * @return the first turn, carrying the welcome message.
+     */
+    public ChatTurn startChat() {
+        ConversationSession session = initializeChat();
+        session.getLock().lock();
+        try {
+            return toTurn(session, chatbotMessages(session.getConversationHistory().entries()));
+        } finally {
+            session.getLock().unlock();
+        }
+    }
+
+    /**
+     * Handles the user's response and returns only the messages the chatbot sent in reply.
+     *
+     * @param sessionToken the token of the session.
+     * @param userResponse the user's response.
+     * @return the turn.
+     */
+    public ChatTurn respond(String sessionToken, String userResponse) {
+        ConversationSession session = getSession(sessionToken);
+        session.getLock().lock();
+        try {
+            ConversationHistory history = session.getConversationHistory();
+            long before = history.position();
+            handleTimedUserResponse(session, userResponse);
+            return toTurn(session, chatbotMessages(history.since(before)));
+        } finally {
+            session.getLock().unlock();
+        }
+    }
+
+    /**
+     * Ends a chat session, releasing its conversation state.
+     *
+     * @param sessionToken the token of the session.
+     */
+    public void endChat(String sessionToken) {
+        sessionStore.remove(sessionToken);
+    }
+
+    /**
+     * Finds an active chat session.
+     *
+     * @param sessionToken the token of the session.
+     * @return an Optional containing the session, or empty if it does not exist or has expired.
+     */
+    public Optional<ConversationSession> findSession(String sessionToken) {
+        return sessionStore.find(sessionToken);
+    }
+
+    /**
+     * Retrieves the conversation history of a chat session. Messages no longer held in memory are read back from
+     * the session's chat transactions, once the {@link TranscriptWriter} has written every message queued so far.
+     *
+     * @param sessionToken the token of the session.
+     * @return the messages exchanged so far, user messages prefixed with "You: ".
      */
-    public void initializeChat() {
-        sessionId = new AtomicLong(System.currentTimeMillis());
-        currentNode = nodeRepository.findByNodeType(NodeType.FIRST_NODE).orElseGet(this::createDefaultInvalidNode);
-        lastValidNode = currentNode;
-        conversationHistory = new ArrayList<>();
-        conversationHistory.add(currentNode.getMessage());
-        logger.info("Chat initialized with first node: {}", currentNode.getMessage());
-        logTransaction(currentNode.getMessage(), ChatMessages.CHATBOT.getMessage());
+    public List<String> getConversationHistory(String sessionToken) {
+        ConversationSession session = getSession(sessionToken);
+        List<ChatEntry> retained;
+        long dropped;
+        session.getLock().lock();
+        try {
+            ConversationHistory history = session.getConversationHistory();
+            retained = history.entries();
+            dropped = history.firstRetainedPosition();
+        } finally {
+            session.getLock().unlock();
+        }
+
+        List<String> messages = new ArrayList<>((int) Math.min(Integer.MAX_VALUE, dropped + retained.size()));
+        if (dropped > 0) {
+            transcriptWriter.flush();
+            transcriptService.readSession(session.getSessionId(), null, (int) Math.min(Integer.MAX_VALUE, dropped),
+                    transaction -> messages.add(toEntry(transaction).render()));
+        }
+        for (ChatEntry entry : retained) {
+            messages.add(entry.render());
+        }
+        return messages;
     }
 
     /**
      * Handles the user's response and updates the conversation accordingly.
      *
+     * @param sessionToken the token of the session.
+     * @param userResponse the user's response.
+     * @return the updated session.
+     */
+    public ConversationSession handleUserResponse(String sessionToken, String userResponse) {
+        ConversationSession session = getSession(sessionToken);
+        session.getLock().lock();
+        try {
+            handleTimedUserResponse(session, userResponse);
+        } finally {
+            session.getLock().unlock();
+        }
+        return session;
+    }
+
+    /**
+     * Handles the user's response within a locked session, records the latency of the turn and logs it if
+     * sampled.
+     *
+     * @param session      the session.
      * @param userResponse the user's response.
      */
-    public void handleUserResponse(String userResponse) {
-        logTransaction(userResponse, ChatMessages.USER.getMessage());
-        logger.info("User response: {}", userResponse);
-        Optional<Long> nextNodeId = currentNode.getResponses().entrySet().stream()
-                .filter(entry -> entry.getKey().equalsIgnoreCase(userResponse))
-                .map(Map.Entry::getValue)
-                .findFirst();
-
-        if (nextNodeId.isPresent()) {
-            currentNode = nodeRepository.findById(nextNodeId.get()).orElseThrow();
-            logger.info("Next node found: {}", currentNode.getMessage());
+    private void handleTimedUserResponse(ConversationSession session, String userResponse) {
+        long start = System.nanoTime();
+        Long fromNodeId = session.getCurrentNode().getId();
+        TurnOutcome outcome = handleUserResponse(session, userResponse);
+        long nanos = System.nanoTime() - start;
+        chatMetrics.recordTurn(outcome, nanos);
+        turnEventLogger.logTurn(session, fromNodeId, outcome, nanos);
+    }
+
+    /**
+     * Handles the user's response within a locked session.
+     *
+     * @param session      the session.
+     * @param userResponse the user's response.
+     * @return the outcome of the turn.
+     */
+    private TurnOutcome handleUserResponse(ConversationSession session, String userResponse) {
+        record(session, Sender.USER, userResponse);
+        boolean debug = logger.isDebugEnabled();
+        if (debug) {
+            logger.debug("User response: {}", userResponse);
+        }
+        long nextNodeId = session.getCurrentNode().findNextNodeId(userResponse);
+        Optional<GraphNode> nextNode = nextNodeId != ResponseIndex.NO_MATCH
+                ? session.getGraph().findNode(nextNodeId) : Optional.empty();
+        TurnOutcome outcome = TurnOutcome.VALID;
+
+        if (nextNode.isPresent()) {
+            GraphNode currentNode = nextNode.get();
+            session.setCurrentNode(currentNode);
+            if (debug) {
+                logger.debug("Next node found: {}", currentNode.getMessage());
+            }
             if (currentNode.getNodeType() == NodeType.END_NODE && currentNode.getResponses().isEmpty()) {
-                conversationHistory.add(currentNode.getMessage());
-                logTransaction(currentNode.getMessage(), ChatMessages.CHATBOT.getMessage());
-                logger.info("End node reached: {}", currentNode.getMessage());
-                return;
+                record(session, Sender.CHATBOT, messageBodyCache.messageOf(currentNode));
+                if (debug) {
+                    logger.debug("End node reached: {}", currentNode.getMessage());
+                }
+                return TurnOutcome.END;
             }
 
-            lastValidNode = currentNode;
-            conversationHistory.add(ChatMessages.YOU.getMessage() + userResponse);
+            session.setLastValidNode(currentNode);
 
         } else {
-            handleInvalidResponse(userResponse);
+            if (nextNodeId != ResponseIndex.NO_MATCH) {
+                logger.warn("Response of node {} leads to missing node {}",
+                        session.getCurrentNode().getId(), nextNodeId);
+            }
+            chatMetrics.countInvalidResponse(session.getCurrentNode().getNodeType());
+            handleInvalidResponse(session);
+            outcome = TurnOutcome.INVALID;
         }
 
-        conversationHistory.add(currentNode.getMessage());
-        logTransaction(currentNode.getMessage(), ChatMessages.CHATBOT.getMessage());
+        GraphNode currentNode = session.getCurrentNode();
+        record(session, Sender.CHATBOT, messageBodyCache.messageOf(currentNode));
 
         if (currentNode.getResponses().isEmpty()) {
-            handleEndOfChat();
+            handleEndOfChat(session);
+            return TurnOutcome.END;
         }
+        return outcome;
     }
 
     /**
      * Handles the case when the user's response is invalid.
      *
-     * @param userResponse the user's response.
+     * @param session the session.
      */
-    private void handleInvalidResponse(String userResponse) {
-        ConversationNode invalidNode = nodeRepository.findByNodeType(NodeType.INVALID_NODE)
-                .orElseThrow(() -> new IllegalStateException("No invalid node found"));
+    private void handleInvalidResponse(ConversationSession session) {
+        GraphNode invalidNode = session.getGraph().findInvalidNode().orElseGet(this::fallbackInvalidNode);
 
-        conversationHistory.add(ChatMessages.YOU.getMessage() + userResponse);
-        conversationHistory.add(invalidNode.getMessage());
-        currentNode = lastValidNode;
-        logger.info("Invalid response handled. Returning to last valid node.");
-        logTransaction(invalidNode.getMessage(), ChatMessages.CHATBOT.getMessage());
+        record(session, Sender.CHATBOT, messageBodyCache.messageOf(invalidNode));
+        session.setCurrentNode(session.getLastValidNode());
+        logger.debug("Invalid response handled. Returning to last valid node.");
     }
 
     /**
      * Handles the end of the chat when the current node has no responses.
+     *
+     * @param session the session.
      */
-    private void handleEndOfChat() {
-        List<ConversationNode> endNodes = nodeRepository.findAllByNodeType(NodeType.END_NODE);
-        Optional<ConversationNode> endNodeWithResponses = endNodes.stream()
-                .filter(node -> !node.getResponses().isEmpty())
-                .findFirst();
+    private void handleEndOfChat(ConversationSession session) {
+        ConversationGraph graph = session.getGraph();
+        Optional<GraphNode> endNodeWithResponses = graph.findRestartNode();
 
+        GraphNode currentNode;
         if (endNodeWithResponses.isPresent()) {
             currentNode = endNodeWithResponses.get();
-            lastValidNode = currentNode;
-            conversationHistory.add(currentNode.getMessage());
-            logger.info("Transitioned to end node with responses: {}", currentNode.getMessage());
-            logTransaction(currentNode.getMessage(), ChatMessages.CHATBOT.getMessage());
+            session.setLastValidNode(currentNode);
+            record(session, Sender.CHATBOT, messageBodyCache.messageOf(currentNode));
+            if (logger.isDebugEnabled()) {
+                logger.debug("Transitioned to end node with responses: {}", currentNode.getMessage());
+            }
         } else {
-            if (endNodes.isEmpty()) {
-                currentNode = createEndNode();
-                logger.info("No end node found, created a default end node: {}", currentNode.getMessage());
+            Optional<GraphNode> endNode = graph.findByNodeType(NodeType.END_NODE);
+            if (endNode.isEmpty()) {
+                currentNode = defaultEndNode;
+                logger.warn("No end node found, using a default end node: {}", currentNode.getMessage());
             } else {
-                currentNode = endNodes.stream().findFirst()
-                        .orElseThrow(() -> new IllegalStateException("No end node found"));
-                logger.info("Transitioned to final end node: {}", currentNode.getMessage());
+                currentNode = endNode.get();
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Transitioned to final end node: {}", currentNode.getMessage());
+                }
             }
-            conversationHistory.add(currentNode.getMessage());
-            logTransaction(currentNode.getMessage(), ChatMessages.CHATBOT.getMessage());
+            record(session, Sender.CHATBOT, messageBodyCache.messageOf(currentNode));
         }
+        session.setCurrentNode(currentNode);
     }
 
     /**
-     * Logs a chat transaction.
+     * Appends a message to the session's history and logs it as a chat transaction.
      *
+     * @param session the session the message belongs to.
+     * @param sender  the sender of the message.
+     * @param message the message content.
+     */
+    private void record(ConversationSession session, Sender sender, String message) {
+        session.getConversationHistory().add(sender, message);
+        logTransaction(session, message, sender == Sender.USER
+                ? ChatMessages.USER.getMessage() : ChatMessages.CHATBOT.getMessage());
+    }
+
+    /**
+     * Logs a chat transaction. The transaction is written asynchronously by the {@link TranscriptWriter}.
+     *
+     * @param session the session the message belongs to.
      * @param message the message content.
      * @param sender  the sender of the message.
      */
-    public void logTransaction(String message, String sender) {
+    public void logTransaction(ConversationSession session, String message, String sender) {
         ChatTransaction transaction = new ChatTransaction();
-        transaction.setSessionId(sessionId.get());
+        transaction.setSessionId(session.getSessionId());
         transaction.setMessage(message);
         transaction.setSender(sender);
         transaction.setTimestamp(LocalDateTime.now());
-        transactionRepository.save(transaction);
-        logger.info("Logged transaction: {} - {}", sender, message);
+        transcriptWriter.write(transaction);
+        if (logger.isTraceEnabled()) {
+            logger.trace("Logged transaction: {} - {}", sender, message);
+        }
     }
 
     /**
-     * Creates a default invalid node.
+     * Creates a default invalid node for a graph that has none. The node is not stored and belongs to no graph, so a
+     * chat never writes to the draft the admins edit nor to the published graph other chats share.
      *
-     * @return the created invalid node.
+     * @return the default invalid node.
      */
     public ConversationNode createDefaultInvalidNode() {
         ConversationNode invalidNode = new ConversationNode();
+        invalidNode.setId(DEFAULT_INVALID_NODE_ID);
         invalidNode.setMessage(ChatMessages.INVALID_MESSAGE.getMessage());
         invalidNode.setMessageName(ChatMessages.INVALID_MESSAGE_NAME.getMessage());
         invalidNode.setDeletable(false);
         invalidNode.setNodeType(NodeType.INVALID_NODE);
-        nodeRepository.save(invalidNode);
-        logger.info("Created default invalid node.");
         return invalidNode;
     }
 
+    /**
+     * Describes the state of a locked session after a turn.
+     *
+     * @param session  the session.
+     * @param messages the messages sent by the chatbot during the turn.
+     * @return the turn.
+     */
+    private ChatTurn toTurn(ConversationSession session, List<String> messages) {
+        GraphNode currentNode = session.getCurrentNode();
+        return new ChatTurn(session.getToken(), messages, currentNode.getOptions(), currentNode.getResponses().isEmpty());
+    }
+
+    /**
+     * Extracts the chatbot's messages from history entries.
+     *
+     * @param entries the entries.
+     * @return the messages sent by the chatbot, in order.
+     */
+    private static List<String> chatbotMessages(List<ChatEntry> entries) {
+        List<String> messages = new ArrayList<>(entries.size());
+        for (ChatEntry entry : entries) {
+            if (entry.sender() == Sender.CHATBOT) {
+                messages.add(entry.message());
+            }
+        }
+        return List.copyOf(messages);
+    }
+
+    /**
+     * Converts a chat transaction read back from the transcript into a history entry.
+     *
+     * @param transaction the transaction.
+     * @return the entry.
+     */
+    private static ChatEntry toEntry(ChatTransaction transaction) {
+        Sender sender = ChatMessages.USER.getMessage().equals(transaction.getSender()) ? Sender.USER : Sender.CHATBOT;
+        return new ChatEntry(sender, transaction.getMessage());
+    }
+
+    /**
+     * Looks up an active chat session.
+     *
+     * @param sessionToken the token of the session.
+     * @return the session.
+     */
+    private ConversationSession getSession(String sessionToken) {
+        return sessionStore.find(sessionToken)
+                .orElseThrow(() -> new ChatSessionNotFoundException(sessionToken));
+    }
+
+    /**
+     * Returns the default invalid node, for a graph that has none.
+     *
+     * @return the default invalid node.
+     */
+    private GraphNode fallbackInvalidNode() {
+        logger.warn("No invalid node found, using a default invalid node.");
+        return defaultInvalidNode;
+    }
+
+    /**
+     * Creates a default end node for a graph that has none. Like the default invalid node, it is not stored.
+     *
+     * @return the default end node.
+     */
     private ConversationNode createEndNode() {
         ConversationNode endNode = new ConversationNode();
+        endNode.setId(DEFAULT_END_NODE_ID);
         endNode.setMessage(ChatMessages.END_MESSAGE.getMessage());
         endNode.setMessageName(ChatMessages.END_MESSAGE_NAME.getMessage());
         endNode.setDeletable(false);
         endNode.setNodeType(NodeType.END_NODE);
-        nodeRepository.save(endNode);
-        logger.info("Created default invalid node.");
         return endNode;
     }
 }
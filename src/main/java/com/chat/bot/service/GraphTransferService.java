@@ -0,0 +1,396 @@
+package com.chat.bot.service;
+
+import com.chat.bot.dto.GraphImportResult;
+import com.chat.bot.entity.ConversationNode;
+import com.chat.bot.entity.ConversationNode.NodeType;
+import com.chat.bot.entity.ConversationNodeBody;
+import com.chat.bot.graph.GraphChange;
+import com.chat.bot.graph.GraphChangeChannel;
+import com.chat.bot.repository.ConversationNodeRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service class for exporting and importing the whole conversation graph as JSON.
+ * <p>
+ * The document has the form {@code {"nodes": [{"id", "message", "body", "messageName", "deletable", "nodeType",
+ * "responses": {"<key>": <id>}}]}}, the body being left out for nodes without one. Both directions go through
+ * Jackson's streaming API, so only one node is held at a time. IDs in the document are references within the
+ * document: imported nodes get new IDs and the responses are resolved against them once all nodes have been read,
+ * so a response may refer to a node further down the document. A response without a next node is written with a
+ * null ID and imported as such.
+ */
+@Service
+public class GraphTransferService {
+
+    /**
+     * Logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(GraphTransferService.class);
+
+    /**
+     * Reads every node with its body and responses, one row per response, grouped by node. The body is fetched by
+     * a scalar subselect on the first row of its node only, and only for nodes having one, so a long body is read
+     * and sent once rather than on every response row.
+     */
+    private static final String EXPORT_QUERY = "SELECT n.id, n.message, n.message_name, n.deletable, n.node_type, "
+            + "r.response_key, r.next_node_id, "
+            + "CASE WHEN n.body_length > 0 AND ROW_NUMBER() OVER (PARTITION BY n.id ORDER BY r.response_key) = 1 "
+            + "THEN (SELECT b.body FROM conversation_node_body b WHERE b.node_id = n.id) END AS body "
+            + "FROM conversation_node n LEFT JOIN conversation_node_responses r ON r.conversation_node_id = n.id "
+            + "ORDER BY n.id, r.response_key";
+
+    /**
+     * Inserts one response.
+     */
+    private static final String INSERT_RESPONSE = "INSERT INTO conversation_node_responses "
+            + "(conversation_node_id, response_key, next_node_id) VALUES (?, ?, ?)";
+
+    /**
+     * Repository for conversation nodes.
+     */
+    private final ConversationNodeRepository repository;
+
+    /**
+     * Entity manager persisting the imported nodes.
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * Access to the database for the export and the responses of the import.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Channel announcing graph changes to every instance.
+     */
+    private final GraphChangeChannel graphChanges;
+
+    /**
+     * JSON mapper providing the parsers and generators.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Number of rows written or fetched per round trip.
+     */
+    private final int batchSize;
+
+    /**
+     * Constructor for GraphTransferService.
+     *
+     * @param repository    the repository for conversation nodes.
+     * @param entityManager the entity manager persisting the imported nodes.
+     * @param jdbcTemplate  the access to the database.
+     * @param graphChanges  the channel announcing graph changes to every instance.
+     * @param objectMapper  the JSON mapper.
+     * @param batchSize     the number of rows written or fetched per round trip.
+     */
+    public GraphTransferService(ConversationNodeRepository repository, EntityManager entityManager,
+                                JdbcTemplate jdbcTemplate, GraphChangeChannel graphChanges, ObjectMapper objectMapper,
+                                @Value("${chatbot.graph.transfer-batch-size:500}") int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Graph transfer batch size must be positive.");
+        }
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.graphChanges = graphChanges;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Writes the whole graph as JSON, node by node as the rows are read.
+     *
+     * @param out the stream to write to.
+     * @throws IOException if writing fails.
+     */
+    @Transactional(readOnly = true)
+    public void exportGraph(OutputStream out) throws IOException {
+        logger.info("Exporting the conversation graph");
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("nodes");
+            NodeWriter writer = new NodeWriter(generator);
+            try {
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(EXPORT_QUERY);
+                    statement.setFetchSize(batchSize);
+                    return statement;
+                }, writer);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.finish();
+            generator.writeEndArray();
+            generator.writeEndObject();
+            logger.info("Exported {} nodes", writer.nodes);
+        }
+    }
+
+    /**
+     * Imports a graph document in a single transaction. Nodes are inserted in batches as they are read; the
+     * responses are inserted once all nodes are known, then the uniqueness of the first and invalid nodes is
+     * checked over the resulting graph. Any error rolls the whole import back.
+     *
+     * @param in      the stream to read the document from.
+     * @param replace whether the existing graph is deleted first.
+     * @return the number of imported nodes and responses.
+     * @throws IOException if reading fails.
+     */
+    @Transactional
+    public GraphImportResult importGraph(InputStream in, boolean replace) throws IOException {
+        logger.info("Importing a conversation graph, replacing the existing one: {}", replace);
+        if (replace) {
+            jdbcTemplate.update("DELETE FROM conversation_node_body");
+            jdbcTemplate.update("DELETE FROM conversation_node_responses");
+            jdbcTemplate.update("DELETE FROM conversation_node");
+        }
+
+        Map<Long, Long> ids = new HashMap<>();
+        List<PendingResponse> responses = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!"nodes".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                expect(value, JsonToken.START_ARRAY);
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    persistNode(readNode(parser), ids, responses);
+                    if (ids.size() % batchSize == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+                expect(parser.currentToken(), JsonToken.END_ARRAY);
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed graph document: " + e.getOriginalMessage());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        insertResponses(responses, ids);
+        validateNodeTypeUniqueness(NodeType.FIRST_NODE);
+        validateNodeTypeUniqueness(NodeType.INVALID_NODE);
+
+        graphChanges.publish(GraphChange.reload());
+        logger.info("Imported {} nodes and {} responses", ids.size(), responses.size());
+        return new GraphImportResult(ids.size(), responses.size());
+    }
+
+    /**
+     * Reads one node object, the parser being positioned on its start.
+     *
+     * @param parser the parser.
+     * @return the node, carrying its document ID and the document IDs of its responses.
+     * @throws IOException if reading fails.
+     */
+    private ConversationNode readNode(JsonParser parser) throws IOException {
+        ConversationNode node = new ConversationNode();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> node.setId(parser.getLongValue());
+                case "message" -> node.setMessage(parser.getValueAsString());
+                case "body" -> node.setBody(parser.getValueAsString());
+                case "messageName" -> node.setMessageName(parser.getValueAsString());
+                case "deletable" -> node.setDeletable(parser.getBooleanValue());
+                case "nodeType" -> node.setNodeType(NodeType.valueOf(parser.getText()));
+                case "responses" -> {
+                    expect(value, JsonToken.START_OBJECT);
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String key = parser.currentName().trim();
+                        JsonToken target = parser.nextToken();
+                        node.getResponses().put(key, target == JsonToken.VALUE_NULL ? null : parser.getLongValue());
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (node.getId() == null) {
+            throw new IllegalArgumentException("Every node of the graph document needs an id.");
+        }
+        return node;
+    }
+
+    /**
+     * Persists a node read from the document with its body, and keeps its responses for the second pass.
+     *
+     * @param node      the node read from the document.
+     * @param ids       the new IDs by document ID.
+     * @param responses the responses waiting for their targets to be resolved.
+     */
+    private void persistNode(ConversationNode node, Map<Long, Long> ids, List<PendingResponse> responses) {
+        Long documentId = node.getId();
+        if (ids.containsKey(documentId)) {
+            throw new IllegalArgumentException("Duplicate node id in graph document: " + documentId);
+        }
+        Map<String, Long> targets = node.getResponses();
+        node.setId(null);
+        node.setResponses(new HashMap<>());
+        boolean hasBody = node.getBody() != null && !node.getBody().isBlank();
+        node.setBodyLength(hasBody ? node.getBody().length() : 0);
+        entityManager.persist(node);
+        if (hasBody) {
+            entityManager.persist(new ConversationNodeBody(node.getId(), node.getBody()));
+        }
+        ids.put(documentId, node.getId());
+        targets.forEach((key, target) -> responses.add(new PendingResponse(node.getId(), key, target)));
+    }
+
+    /**
+     * Resolves the targets of the imported responses and inserts them in batches. Responses without a next node
+     * are inserted without one.
+     *
+     * @param responses the responses read from the document.
+     * @param ids       the new IDs by document ID.
+     */
+    private void insertResponses(List<PendingResponse> responses, Map<Long, Long> ids) {
+        List<Object[]> batch = new ArrayList<>(Math.min(batchSize, responses.size()));
+        for (PendingResponse response : responses) {
+            Long target = response.target() != null ? ids.get(response.target()) : null;
+            if (target == null && response.target() != null) {
+                throw new IllegalArgumentException("Response '" + response.key()
+                        + "' leads to a node missing from the graph document: " + response.target());
+            }
+            batch.add(new Object[]{response.nodeId(), response.key(), target});
+            if (batch.size() == batchSize) {
+                jdbcTemplate.batchUpdate(INSERT_RESPONSE, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_RESPONSE, batch);
+        }
+    }
+
+    /**
+     * Validates that the graph holds at most one node of a node type.
+     *
+     * @param nodeType the type of node to validate.
+     */
+    private void validateNodeTypeUniqueness(NodeType nodeType) {
+        if (repository.countByNodeType(nodeType) > 1) {
+            throw new IllegalArgumentException("The imported graph has more than one "
+                    + nodeType.name().toLowerCase() + " node.");
+        }
+    }
+
+    /**
+     * Checks the token the parser is on.
+     *
+     * @param actual   the current token.
+     * @param expected the expected token.
+     */
+    private static void expect(JsonToken actual, JsonToken expected) {
+        if (actual != expected) {
+            throw new IllegalArgumentException("Malformed graph document: expected " + expected + " but found " + actual);
+        }
+    }
+
+    /**
+     * Response of an imported node whose target is still a document ID.
+     *
+     * @param nodeId the new ID of the node.
+     * @param key    the response key.
+     * @param target the document ID of the next node, or null if the response has none.
+     */
+    private record PendingResponse(Long nodeId, String key, Long target) {
+    }
+
+    /**
+     * Writes the rows of the export query as node objects, closing a node when the next one starts.
+     */
+    private static final class NodeWriter implements RowCallbackHandler {
+
+        /** Generator writing the document. */
+        private final JsonGenerator generator;
+
+        /** ID of the node being written, or null before the first row. */
+        private Long currentId;
+
+        /** Number of nodes written. */
+        private int nodes;
+
+        NodeWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                long id = rs.getLong(1);
+                if (currentId == null || currentId != id) {
+                    finish();
+                    currentId = id;
+                    nodes++;
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", id);
+                    generator.writeStringField("message", rs.getString(2));
+                    String body = rs.getString(8);
+                    if (body != null) {
+                        generator.writeStringField("body", body);
+                    }
+                    generator.writeStringField("messageName", rs.getString(3));
+                    generator.writeBooleanField("deletable", rs.getBoolean(4));
+                    generator.writeStringField("nodeType", rs.getString(5));
+                    generator.writeObjectFieldStart("responses");
+                }
+                String key = rs.getString(6);
+                if (key != null) {
+                    long nextNodeId = rs.getLong(7);
+                    if (rs.wasNull()) {
+                        generator.writeNullField(key);
+                    } else {
+                        generator.writeNumberField(key, nextNodeId);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Closes the node being written, if any.
+         *
+         * @throws IOException if writing fails.
+         */
+        void finish() throws IOException {
+            if (currentId != null) {
+                generator.writeEndObject();
+                generator.writeEndObject();
+                currentId = null;
+            }
+        }
+    }
+}
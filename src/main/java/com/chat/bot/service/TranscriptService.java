@@ -0,0 +1,127 @@
+package com.chat.bot.service;
+
+import com.chat.bot.entity.ChatTransaction;
+import com.chat.bot.repository.ChatTransactionRepository;
+import com.chat.bot.transcript.TranscriptCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Service class for reading chat transcripts back.
+ * <p>
+ * Transcripts are read in (timestamp, id) order with keyset pagination and handed to the caller one
+ * transaction at a time, so at most one page of transactions is held in memory however long the transcript is.
+ */
+@Service
+public class TranscriptService {
+
+    /** Repository for chat transactions. */
+    private final ChatTransactionRepository repository;
+
+    /** Number of transactions fetched per query. */
+    private final int fetchSize;
+
+    /**
+     * Constructor for TranscriptService.
+     *
+     * @param repository the repository for chat transactions.
+     * @param fetchSize  the number of transactions fetched per query.
+     */
+    public TranscriptService(ChatTransactionRepository repository,
+                             @Value("${chatbot.transcript.fetch-size:500}") int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Transcript fetch size must be positive.");
+        }
+        this.repository = repository;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Reads the transcript of a session.
+     *
+     * @param sessionId the session ID.
+     * @param after     the position to read after, or null to read from the start.
+     * @param limit     the maximum number of transactions to read.
+     * @param sink      the consumer receiving the transactions in order.
+     * @return the position of the last transaction read if the limit was reached, or null if the transcript ended.
+     */
+    public TranscriptCursor readSession(long sessionId, TranscriptCursor after, int limit,
+                                        Consumer<ChatTransaction> sink) {
+        return read(after, limit, sink, (cursor, size) -> cursor == null
+                ? repository.findSessionPage(sessionId, size)
+                : repository.findSessionPageAfter(sessionId, cursor.timestamp(), cursor.id(), size));
+    }
+
+    /**
+     * Reads the transactions of all sessions within a time window.
+     *
+     * @param from  the start of the window, inclusive.
+     * @param to    the end of the window, exclusive.
+     * @param after the position to read after, or null to read from the start of the window.
+     * @param limit the maximum number of transactions to read.
+     * @param sink  the consumer receiving the transactions in order.
+     * @return the position of the last transaction read if the limit was reached, or null if the window ended.
+     */
+    public TranscriptCursor readWindow(LocalDateTime from, LocalDateTime to, TranscriptCursor after, int limit,
+                                       Consumer<ChatTransaction> sink) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("The start of the window must be before its end.");
+        }
+        return read(after, limit, sink, (cursor, size) -> cursor == null
+                ? repository.findWindowPage(from, to, size)
+                : repository.findWindowPageAfter(cursor.timestamp(), cursor.id(), to, size));
+    }
+
+    /**
+     * Pages through a transcript until the limit is reached or a page comes back short.
+     *
+     * @param after   the position to read after, or null to read from the start.
+     * @param limit   the maximum number of transactions to read.
+     * @param sink    the consumer receiving the transactions in order.
+     * @param fetcher the query fetching the page after a position.
+     * @return the position of the last transaction read if the limit was reached, or null if the transcript ended.
+     */
+    private TranscriptCursor read(TranscriptCursor after, int limit, Consumer<ChatTransaction> sink,
+                                  PageFetcher fetcher) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive.");
+        }
+        TranscriptCursor cursor = after;
+        int remaining = limit;
+        while (remaining > 0) {
+            int size = Math.min(fetchSize, remaining);
+            List<ChatTransaction> page = fetcher.fetch(cursor, size);
+            for (ChatTransaction transaction : page) {
+                sink.accept(transaction);
+            }
+            if (!page.isEmpty()) {
+                cursor = TranscriptCursor.of(page.get(page.size() - 1));
+            }
+            remaining -= page.size();
+            if (page.size() < size) {
+                return null;
+            }
+        }
+        return cursor;
+    }
+
+    /**
+     * Query fetching the page of transactions following a position.
+     */
+    @FunctionalInterface
+    private interface PageFetcher {
+
+        /**
+         * Fetches a page.
+         *
+         * @param after the position to read after, or null to read from the start.
+         * @param size  the maximum number of transactions.
+         * @return the transactions, ordered by timestamp and ID.
+         */
+        List<ChatTransaction> fetch(TranscriptCursor after, int size);
+    }
+}
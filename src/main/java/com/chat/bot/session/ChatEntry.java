@@ -0,0 +1,36 @@
+package com.chat.bot.session;
+
+import com.chat.bot.constants.ChatMessages;
+
+/**
+ * One message of a conversation history.
+ * <p>
+ * Chatbot messages refer to the message string of the node they came from rather than copying it, and user
+ * messages are kept as sent; the "You: " prefix is only added when the entry is rendered.
+ *
+ * @param sender  who sent the message.
+ * @param message the message, without any prefix.
+ */
+public record ChatEntry(Sender sender, String message) {
+
+    /**
+     * Sender of a message.
+     */
+    public enum Sender {
+
+        /** The chat visitor. */
+        USER,
+
+        /** The chatbot. */
+        CHATBOT
+    }
+
+    /**
+     * Renders the entry as shown in a transcript.
+     *
+     * @return the message, prefixed with "You: " if the user sent it.
+     */
+    public String render() {
+        return sender == Sender.USER ? ChatMessages.YOU.getMessage() + message : message;
+    }
+}
@@ -0,0 +1,16 @@
+package com.chat.bot.session;
+
+/**
+ * Thrown when a chat session token does not identify an active session.
+ */
+public class ChatSessionNotFoundException extends IllegalArgumentException {
+
+    /**
+     * Constructor for ChatSessionNotFoundException.
+     *
+     * @param sessionToken the token that was looked up.
+     */
+    public ChatSessionNotFoundException(String sessionToken) {
+        super("Unknown or expired chat session: " + sessionToken);
+    }
+}
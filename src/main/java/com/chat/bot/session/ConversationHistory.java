@@ -0,0 +1,98 @@
+package com.chat.bot.session;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rolling window over the most recent messages of a conversation.
+ * <p>
+ * Entries are kept in a fixed-size ring buffer, so a session takes the same memory however long it runs. Every
+ * entry has a position, counted from 0 since the start of the conversation; entries before
+ * {@link #firstRetainedPosition()} have been dropped and can only be read back from the chat transactions.
+ * Not thread-safe: callers hold the lock of the owning session.
+ */
+public class ConversationHistory {
+
+    /** Smallest capacity allowed: a single turn adds up to four entries, which must all still be retained. */
+    public static final int MIN_CAPACITY = 4;
+
+    /** Ring buffer of the retained entries. */
+    private final ChatEntry[] entries;
+
+    /** Number of entries added since the start of the conversation, which is the position of the next entry. */
+    private long position;
+
+    /**
+     * Constructor for ConversationHistory.
+     *
+     * @param capacity the number of entries retained.
+     */
+    public ConversationHistory(int capacity) {
+        if (capacity < MIN_CAPACITY) {
+            throw new IllegalArgumentException("History capacity must be at least " + MIN_CAPACITY + ": " + capacity);
+        }
+        this.entries = new ChatEntry[capacity];
+    }
+
+    /**
+     * Appends a message, dropping the oldest one if the window is full.
+     *
+     * @param sender  who sent the message.
+     * @param message the message, without any prefix.
+     */
+    public void add(ChatEntry.Sender sender, String message) {
+        entries[(int) (position % entries.length)] = new ChatEntry(sender, message);
+        position++;
+    }
+
+    /**
+     * Returns the position the next entry will get, which is the number of entries added so far.
+     *
+     * @return the position of the next entry.
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * Returns the position of the oldest retained entry.
+     *
+     * @return the position of the oldest retained entry, or {@link #position()} if the history is empty.
+     */
+    public long firstRetainedPosition() {
+        return position - size();
+    }
+
+    /**
+     * Returns the number of retained entries.
+     *
+     * @return the number of retained entries.
+     */
+    public int size() {
+        return (int) Math.min(position, entries.length);
+    }
+
+    /**
+     * Returns the retained entries from the given position on, oldest first.
+     *
+     * @param from the position of the first entry wanted.
+     * @return the entries, starting at the later of {@code from} and {@link #firstRetainedPosition()}.
+     */
+    public List<ChatEntry> since(long from) {
+        long start = Math.max(from, firstRetainedPosition());
+        List<ChatEntry> result = new ArrayList<>((int) Math.max(0, position - start));
+        for (long p = start; p < position; p++) {
+            result.add(entries[(int) (p % entries.length)]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the retained entries, oldest first.
+     *
+     * @return the retained entries.
+     */
+    public List<ChatEntry> entries() {
+        return since(0);
+    }
+}
@@ -0,0 +1,77 @@
+package com.chat.bot.session;
+
+import com.chat.bot.graph.ConversationGraph;
+import com.chat.bot.graph.GraphNode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Conversation state of a single chat visitor.
+ * <p>
+ * Every session owns its own lock, so turns of different visitors never contend with each other.
+ */
+@Getter
+public class ConversationSession {
+
+    /** Number of history entries retained when no capacity is given. */
+    public static final int DEFAULT_HISTORY_CAPACITY = 64;
+
+    /** Token identifying the session in the {@link ConversationSessionStore}. */
+    private final String token;
+
+    /** The session ID written to the chat transactions of this session. */
+    private final long sessionId;
+
+    /** Most recent messages exchanged in this session. */
+    private final ConversationHistory conversationHistory;
+
+    /** Lock guarding the mutable state of this session. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Published version of the graph the session walks, kept until the session ends. */
+    @Setter
+    private ConversationGraph graph = ConversationGraph.EMPTY;
+
+    /** The current node in the conversation. */
+    @Setter
+    private GraphNode currentNode;
+
+    /** The last valid node in the conversation. */
+    @Setter
+    private GraphNode lastValidNode;
+
+    /** Time of the last access, as reported by {@link System#nanoTime()}. */
+    private volatile long lastAccessedNanos = System.nanoTime();
+
+    /**
+     * Constructor for ConversationSession.
+     *
+     * @param token     the token identifying the session.
+     * @param sessionId the session ID used for chat transactions.
+     */
+    public ConversationSession(String token, long sessionId) {
+        this(token, sessionId, DEFAULT_HISTORY_CAPACITY);
+    }
+
+    /**
+     * Constructor for ConversationSession.
+     *
+     * @param token           the token identifying the session.
+     * @param sessionId       the session ID used for chat transactions.
+     * @param historyCapacity the number of history entries retained.
+     */
+    public ConversationSession(String token, long sessionId, int historyCapacity) {
+        this.token = token;
+        this.sessionId = sessionId;
+        this.conversationHistory = new ConversationHistory(historyCapacity);
+    }
+
+    /**
+     * Marks the session as accessed now.
+     */
+    public void touch() {
+        lastAccessedNanos = System.nanoTime();
+    }
+}
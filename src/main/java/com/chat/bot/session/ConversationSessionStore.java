@@ -0,0 +1,46 @@
+package com.chat.bot.session;
+
+import java.util.Optional;
+
+/**
+ * Storage for the conversation state of concurrent chat sessions, keyed by session token.
+ */
+public interface ConversationSessionStore {
+
+    /**
+     * Stores a session, replacing any session with the same token.
+     *
+     * @param session the session to store.
+     * @return the stored session.
+     */
+    ConversationSession save(ConversationSession session);
+
+    /**
+     * Finds a live session by its token and marks it as accessed.
+     *
+     * @param token the session token.
+     * @return an Optional containing the session, or empty if it does not exist or has expired.
+     */
+    Optional<ConversationSession> find(String token);
+
+    /**
+     * Removes a session.
+     *
+     * @param token the session token.
+     */
+    void remove(String token);
+
+    /**
+     * Returns the number of sessions currently held.
+     *
+     * @return the number of sessions.
+     */
+    int size();
+
+    /**
+     * Removes every session that has been idle for longer than the configured timeout.
+     *
+     * @return the number of evicted sessions.
+     */
+    int evictIdleSessions();
+}
@@ -0,0 +1,194 @@
+package com.chat.bot.session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link ConversationSessionStore} keeping sessions on the heap, in access-ordered segments.
+ * <p>
+ * The number of sessions is bounded exactly: each segment holds a fixed share of the capacity and, when full,
+ * evicts its least recently accessed session in constant time as part of the insert. Sessions are spread over the
+ * segments by token, each guarded by its own {@link ReentrantLock}, so turns of different visitors rarely contend;
+ * small stores use a single segment and thus evict in strict least-recently-used order. Idle sessions are only
+ * swept periodically, never on the insert path.
+ */
+@Component
+public class InMemoryConversationSessionStore implements ConversationSessionStore {
+
+    /** Logger instance for logging. */
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryConversationSessionStore.class);
+
+    /** Maximum number of segments. */
+    private static final int MAX_SEGMENTS = 16;
+
+    /** Minimum number of sessions per segment. */
+    private static final int MIN_SEGMENT_CAPACITY = 64;
+
+    /** Segments the sessions are spread over by token. */
+    private final Segment[] segments;
+
+    /** Idle time after which a session expires, in nanoseconds. */
+    private final long idleTimeoutNanos;
+
+    /**
+     * Constructor for InMemoryConversationSessionStore.
+     *
+     * @param maxSessions the maximum number of sessions held at once.
+     * @param idleTimeout the idle time after which a session expires.
+     */
+    public InMemoryConversationSessionStore(@Value("${chatbot.session.max-sessions:10000}") int maxSessions,
+                                            @Value("${chatbot.session.idle-timeout:PT30M}") Duration idleTimeout) {
+        if (maxSessions <= 0) {
+            throw new IllegalArgumentException("Maximum number of sessions must be positive.");
+        }
+        int segmentCount = Math.max(1, Math.min(MAX_SEGMENTS, maxSessions / MIN_SEGMENT_CAPACITY));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(maxSessions / segmentCount + (i < maxSessions % segmentCount ? 1 : 0));
+        }
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+    }
+
+    @Override
+    public ConversationSession save(ConversationSession session) {
+        Segment segment = segmentFor(session.getToken());
+        segment.lock.lock();
+        try {
+            session.touch();
+            segment.sessions.put(session.getToken(), session);
+        } finally {
+            segment.lock.unlock();
+        }
+        return session;
+    }
+
+    @Override
+    public Optional<ConversationSession> find(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        Segment segment = segmentFor(token);
+        segment.lock.lock();
+        try {
+            ConversationSession session = segment.sessions.get(token);
+            if (session == null) {
+                return Optional.empty();
+            }
+            if (isIdle(session, System.nanoTime())) {
+                segment.sessions.remove(token);
+                return Optional.empty();
+            }
+            session.touch();
+            return Optional.of(session);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(String token) {
+        Segment segment = segmentFor(token);
+        segment.lock.lock();
+        try {
+            segment.sessions.remove(token);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.sessions.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${chatbot.session.sweep-interval-ms:60000}")
+    public int evictIdleSessions() {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                int before = segment.sessions.size();
+                segment.sessions.values().removeIf(session -> isIdle(session, now));
+                evicted += before - segment.sessions.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        if (evicted > 0) {
+            logger.info("Evicted {} idle chat sessions", evicted);
+        }
+        return evicted;
+    }
+
+    /**
+     * Finds the segment holding a token.
+     *
+     * @param token the session token.
+     * @return the segment.
+     */
+    private Segment segmentFor(String token) {
+        int hash = token.hashCode();
+        return segments[Math.floorMod(hash ^ (hash >>> 16), segments.length)];
+    }
+
+    /**
+     * Checks whether a session has been idle for longer than the timeout.
+     *
+     * @param session the session to check.
+     * @param now     the current time in nanoseconds.
+     * @return true if the session has expired.
+     */
+    private boolean isIdle(ConversationSession session, long now) {
+        return now - session.getLastAccessedNanos() >= idleTimeoutNanos;
+    }
+
+    /**
+     * Share of the sessions, in access order, evicting its least recently accessed session once full.
+     */
+    private static final class Segment {
+
+        /** Lock guarding the sessions. */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /** Sessions keyed by token, least recently accessed first. */
+        private final Map<String, ConversationSession> sessions;
+
+        /**
+         * Constructor for Segment.
+         *
+         * @param capacity the maximum number of sessions in the segment.
+         */
+        private Segment(int capacity) {
+            this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ConversationSession> eldest) {
+                    if (size() <= capacity) {
+                        return false;
+                    }
+                    logger.warn("Session store full, evicted least recently used session");
+                    return true;
+                }
+            };
+        }
+    }
+}
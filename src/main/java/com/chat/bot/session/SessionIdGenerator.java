@@ -0,0 +1,127 @@
+package com.chat.bot.session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Allocates chat session IDs that are unique across threads and application instances without a database
+ * round trip.
+ * <p>
+ * An ID packs, from the most significant bit down, 41 bits of milliseconds since {@link #EPOCH}, a 10-bit
+ * node ID identifying the instance and a 12-bit counter within the millisecond. IDs are therefore positive,
+ * strictly increasing per instance and sortable by creation time across instances. When more than 4096 IDs
+ * are requested in one millisecond, or the clock goes backwards, the generator keeps counting on the last
+ * millisecond it issued instead of waiting for the clock.
+ * <p>
+ * The node ID is set by {@code chatbot.session.node-id}: 0 for a single instance, and a distinct value for every
+ * instance when several run, as two instances sharing a node ID would allocate the same IDs. The prod profile leaves
+ * it unset (-1), and the application does not start until each instance is given one.
+ */
+@Component
+public class SessionIdGenerator {
+
+    /** Logger instance for logging. */
+    private static final Logger logger = LoggerFactory.getLogger(SessionIdGenerator.class);
+
+    /** Start of the timestamp range, 2024-01-01T00:00:00Z in epoch milliseconds. */
+    public static final long EPOCH = 1_704_067_200_000L;
+
+    /** Number of bits holding the node ID. */
+    static final int NODE_BITS = 10;
+
+    /** Number of bits holding the counter. */
+    static final int SEQUENCE_BITS = 12;
+
+    /** Largest node ID. */
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    /** Largest counter value within a millisecond. */
+    static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    /** Node ID of this instance, already shifted into place. */
+    private final long nodeBits;
+
+    /** Source of the current time in epoch milliseconds. */
+    private final LongSupplier clock;
+
+    /** Last issued timestamp and counter, packed as {@code timestamp << SEQUENCE_BITS | counter}. */
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * Constructor for SessionIdGenerator.
+     *
+     * @param nodeId the node ID of this instance, unique among the running instances.
+     */
+    @Autowired
+    public SessionIdGenerator(@Value("${chatbot.session.node-id:-1}") int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor for SessionIdGenerator with a custom clock.
+     *
+     * @param nodeId the node ID of this instance.
+     * @param clock  the source of the current time in epoch milliseconds.
+     */
+    SessionIdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("chatbot.session.node-id must be set to a node ID between 0 and "
+                    + MAX_NODE_ID + ", unique among the running instances.");
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+        logger.info("Session IDs allocated with node ID {}", nodeId);
+    }
+
+    /**
+     * Allocates the next session ID.
+     *
+     * @return a unique, positive session ID.
+     */
+    public long nextId() {
+        while (true) {
+            long now = clock.getAsLong() - EPOCH;
+            long last = state.get();
+            long lastTimestamp = last >>> SEQUENCE_BITS;
+            long next;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else if ((last & MAX_SEQUENCE) < MAX_SEQUENCE) {
+                next = last + 1;
+            } else {
+                next = (lastTimestamp + 1) << SEQUENCE_BITS;
+            }
+            if (state.compareAndSet(last, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                return timestamp << (NODE_BITS + SEQUENCE_BITS) | nodeBits | (next & MAX_SEQUENCE);
+            }
+        }
+    }
+
+    /**
+     * Extracts the creation time of a session ID.
+     *
+     * @param sessionId the session ID.
+     * @return the instant the ID was allocated, to the millisecond.
+     */
+    public static Instant timestampOf(long sessionId) {
+        return Instant.ofEpochMilli((sessionId >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH);
+    }
+
+    /**
+     * Returns the smallest session ID that can be allocated at the given instant.
+     *
+     * @param instant the instant.
+     * @return the lower bound of the session IDs allocated from this instant on.
+     */
+    public static long lowestIdAt(Instant instant) {
+        return Math.max(0, instant.toEpochMilli() - EPOCH) << (NODE_BITS + SEQUENCE_BITS);
+    }
+}
@@ -0,0 +1,57 @@
+package com.chat.bot.transcript;
+
+import com.chat.bot.entity.ChatTransaction;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Position in a transcript, identifying the last transaction read in (timestamp, id) order.
+ *
+ * @param timestamp the timestamp of the transaction.
+ * @param id        the ID of the transaction.
+ */
+public record TranscriptCursor(LocalDateTime timestamp, long id) {
+
+    /** Separator between the timestamp and the ID in the encoded form. */
+    private static final char SEPARATOR = '_';
+
+    /**
+     * Creates the cursor pointing at a transaction.
+     *
+     * @param transaction the transaction.
+     * @return the cursor.
+     */
+    public static TranscriptCursor of(ChatTransaction transaction) {
+        return new TranscriptCursor(transaction.getTimestamp(), transaction.getId());
+    }
+
+    /**
+     * Parses an encoded cursor.
+     *
+     * @param value the encoded cursor, such as {@code 2025-06-01T12:00:00.123_42}.
+     * @return the cursor.
+     * @throws IllegalArgumentException if the value is not a valid cursor.
+     */
+    public static TranscriptCursor parse(String value) {
+        int separator = value.lastIndexOf(SEPARATOR);
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Invalid transcript cursor: " + value);
+        }
+        try {
+            return new TranscriptCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid transcript cursor: " + value, e);
+        }
+    }
+
+    /**
+     * Encodes the cursor for use in a URL.
+     *
+     * @return the encoded cursor.
+     */
+    public String encode() {
+        return timestamp.toString() + SEPARATOR + id;
+    }
+}
@@ -0,0 +1,495 @@
+package com.chat.bot.transcript;
+
+import com.chat.bot.entity.ChatTransaction;
+import com.chat.bot.repository.ChatTransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind pipeline for chat transactions.
+ * <p>
+ * Transactions are put on a bounded queue and written by a background thread in batches, flushed when
+ * a batch is full or when the flush interval has passed since its first transaction. When the queue stays
+ * full, the calling thread writes its transaction itself, which slows producers down to the database's pace.
+ * Pending transactions are flushed on shutdown. The background writer runs on a virtual thread when the
+ * application runs in virtual-thread mode ({@code spring.threads.virtual.enabled}).
+ * <p>
+ * {@link #flush()} is a barrier: it queues a marker behind the pending transactions and returns once the writer
+ * has passed it, so every transaction queued before the call has been written, including the batch the writer had
+ * in flight. A batch that fails is retried with a growing backoff, as fresh copies of its transactions, since the
+ * failed attempt may have assigned IDs to the entities before rolling back. When every attempt fails, the
+ * transactions are spilled to the {@value #SPILL_LOGGER} log, one line each, so they can be replayed once the
+ * database is back. As the spill holds message text, that logger writes to its own restricted file rather than the
+ * application log (see logback-spring.xml); the application log only names the sessions concerned.
+ */
+@Component
+public class TranscriptWriter {
+
+    /** Logger instance for logging. */
+    private static final Logger logger = LoggerFactory.getLogger(TranscriptWriter.class);
+
+    /** Name of the log transactions that could not be written are spilled to. */
+    public static final String SPILL_LOGGER = "com.chat.bot.transcript.spill";
+
+    /** Logger the transactions that could not be written are spilled to. */
+    private static final Logger spillLogger = LoggerFactory.getLogger(SPILL_LOGGER);
+
+    /** Marker queued by {@link #flush()}, compared by identity and never written. */
+    private static final ChatTransaction FLUSH_MARKER = new ChatTransaction();
+
+    /** Repository for chat transactions. */
+    private final ChatTransactionRepository repository;
+
+    /** Transactions waiting to be written. */
+    private final BlockingQueue<ChatTransaction> queue;
+
+    /** Maximum number of transactions written in one batch. */
+    private final int batchSize;
+
+    /** Maximum time a transaction waits for its batch to fill up, in nanoseconds. */
+    private final long flushIntervalNanos;
+
+    /** Maximum time a producer waits for room in the queue, in nanoseconds. */
+    private final long offerTimeoutNanos;
+
+    /** Number of times a batch is attempted before its transactions are spilled. */
+    private final int maxAttempts;
+
+    /** Backoff before the first retry of a batch, in nanoseconds, growing linearly with the attempts. */
+    private final long retryBackoffNanos;
+
+    /** Lock serializing the queuing of flush markers, so they are queued in ticket order. */
+    private final ReentrantLock ticketLock = new ReentrantLock();
+
+    /** Lock guarding the number of passed flush markers. */
+    private final ReentrantLock barrierLock = new ReentrantLock();
+
+    /** Signalled whenever flush markers have been passed. */
+    private final Condition markersPassed = barrierLock.newCondition();
+
+    /** Number of flush markers handed out, written under the ticket lock. */
+    private volatile long flushTickets;
+
+    /** Number of flush markers passed, written under the barrier lock. */
+    private volatile long passedMarkers;
+
+    /** Number of transactions written. */
+    private final AtomicLong writtenCount = new AtomicLong();
+
+    /** Number of transactions that could not be written and were spilled. */
+    private final AtomicLong failedCount = new AtomicLong();
+
+    /** Number of transactions written by producers because the queue was full. */
+    private final AtomicLong overflowCount = new AtomicLong();
+
+    /** Number of batches flushed. */
+    private final AtomicLong flushCount = new AtomicLong();
+
+    /** Total time spent flushing batches, in nanoseconds. */
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+
+    /** Duration of the last flush, in nanoseconds. */
+    private volatile long lastFlushNanos;
+
+    /** Whether the background writer runs on a virtual thread. */
+    private final boolean virtualThreads;
+
+    /** Whether the background writer accepts transactions. */
+    private volatile boolean running;
+
+    /** The background writer thread. */
+    private volatile Thread writerThread;
+
+    /**
+     * Constructor for TranscriptWriter.
+     *
+     * @param repository    the repository for chat transactions.
+     * @param queueCapacity the maximum number of transactions waiting to be written.
+     * @param batchSize     the maximum number of transactions written in one batch.
+     * @param flushInterval the maximum time a transaction waits for its batch to fill up.
+     * @param offerTimeout  the maximum time a producer waits for room in the queue.
+     * @param maxAttempts   the number of times a batch is attempted before its transactions are spilled.
+     * @param retryBackoff  the backoff before the first retry of a batch.
+     * @param virtualThreads whether the background writer runs on a virtual thread.
+     */
+    public TranscriptWriter(ChatTransactionRepository repository,
+                            @Value("${chatbot.transcript.queue-capacity:10000}") int queueCapacity,
+                            @Value("${chatbot.transcript.batch-size:50}") int batchSize,
+                            @Value("${chatbot.transcript.flush-interval:PT0.2S}") Duration flushInterval,
+                            @Value("${chatbot.transcript.offer-timeout:PT0.05S}") Duration offerTimeout,
+                            @Value("${chatbot.transcript.max-attempts:3}") int maxAttempts,
+                            @Value("${chatbot.transcript.retry-backoff:PT0.1S}") Duration retryBackoff,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (queueCapacity <= 0 || batchSize <= 0 || maxAttempts <= 0) {
+            throw new IllegalArgumentException(
+                    "Transcript queue capacity, batch size and maximum attempts must be positive.");
+        }
+        this.repository = repository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffNanos = retryBackoff.toNanos();
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Starts the background writer.
+     */
+    @PostConstruct
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true);
+        writerThread = builder.name("transcript-writer").start(this::drainLoop);
+        logger.info("Transcript writer started on a {} thread", virtualThreads ? "virtual" : "platform");
+    }
+
+    /**
+     * Stops accepting new transactions and flushes the pending ones.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drainQueue();
+        logger.info("Transcript writer stopped after writing {} transactions", writtenCount.get());
+    }
+
+    /**
+     * Queues a chat transaction for writing.
+     *
+     * @param transaction the transaction to write.
+     */
+    public void write(ChatTransaction transaction) {
+        if (running) {
+            try {
+                if (queue.offer(transaction, offerTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            overflowCount.incrementAndGet();
+            logger.warn("Transcript queue full, writing transaction synchronously");
+        }
+        writeBatch(List.of(transaction));
+    }
+
+    /**
+     * Waits until every transaction queued before the call has been written or spilled. When the background
+     * writer is not running, the queued transactions are written in the calling thread.
+     */
+    public void flush() {
+        Thread writer = writerThread;
+        if (writer == null || !writer.isAlive()) {
+            drainQueue();
+            return;
+        }
+        long ticket;
+        ticketLock.lock();
+        try {
+            ticket = ++flushTickets;
+            while (!queue.offer(FLUSH_MARKER, flushIntervalNanos, TimeUnit.NANOSECONDS)) {
+                if (!writer.isAlive()) {
+                    drainQueue();
+                    passMarkers(1);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            ticketLock.unlock();
+        }
+        awaitMarker(ticket, writer);
+    }
+
+    /**
+     * Returns the number of transactions waiting to be written.
+     *
+     * @return the queue depth.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the number of transactions written.
+     *
+     * @return the number of written transactions.
+     */
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    /**
+     * Returns the number of transactions that could not be written.
+     *
+     * @return the number of failed transactions.
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Returns the number of transactions written by producers because the queue was full.
+     *
+     * @return the number of overflowing transactions.
+     */
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    /**
+     * Returns the number of batches flushed.
+     *
+     * @return the number of flushes.
+     */
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    /**
+     * Returns the total time spent flushing batches.
+     *
+     * @return the total flush time in nanoseconds.
+     */
+    public long getTotalFlushNanos() {
+        return totalFlushNanos.get();
+    }
+
+    /**
+     * Returns the duration of the last flush.
+     *
+     * @return the last flush latency in nanoseconds.
+     */
+    public long getLastFlushNanos() {
+        return lastFlushNanos;
+    }
+
+    /**
+     * Waits until the writer has passed a flush marker, taking over the queue if the writer dies meanwhile.
+     *
+     * @param ticket the ticket of the marker.
+     * @param writer the background writer thread.
+     */
+    private void awaitMarker(long ticket, Thread writer) {
+        barrierLock.lock();
+        try {
+            while (passedMarkers < ticket) {
+                markersPassed.await(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (passedMarkers < ticket && !writer.isAlive()) {
+                    drainQueue();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            barrierLock.unlock();
+        }
+    }
+
+    /**
+     * Tells whether a flush is waiting for the writer, so it writes its batch without waiting for it to fill up.
+     *
+     * @return true if a flush marker was queued and not passed yet.
+     */
+    private boolean flushWaiting() {
+        return flushTickets > passedMarkers;
+    }
+
+    /**
+     * Records flush markers as passed and wakes up the flushes waiting for them.
+     *
+     * @param count the number of markers passed.
+     */
+    private void passMarkers(int count) {
+        barrierLock.lock();
+        try {
+            passedMarkers += count;
+            markersPassed.signalAll();
+        } finally {
+            barrierLock.unlock();
+        }
+    }
+
+    /**
+     * Writes all queued transactions in the calling thread, passing the flush markers among them.
+     */
+    private void drainQueue() {
+        List<ChatTransaction> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeDrained(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    /**
+     * Takes transactions off the queue and writes them in batches until stopped and drained.
+     */
+    private void drainLoop() {
+        List<ChatTransaction> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ChatTransaction first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize && !flushWaiting()) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    ChatTransaction next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+                writeDrained(batch);
+                drainQueue();
+                Thread.currentThread().interrupt();
+                return;
+            }
+            writeDrained(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    /**
+     * Writes a batch taken off the queue, then passes the flush markers it contained.
+     *
+     * @param batch the transactions and markers taken off the queue.
+     */
+    private void writeDrained(List<ChatTransaction> batch) {
+        int taken = batch.size();
+        batch.removeIf(transaction -> transaction == FLUSH_MARKER);
+        int markers = taken - batch.size();
+        writeBatch(batch);
+        if (markers > 0) {
+            passMarkers(markers);
+        }
+    }
+
+    /**
+     * Writes a batch of transactions, retrying it with a backoff and spilling it when every attempt fails, and
+     * records its latency.
+     *
+     * @param batch the transactions to write.
+     */
+    private void writeBatch(List<ChatTransaction> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            List<ChatTransaction> attempted = batch;
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    repository.saveAll(attempted);
+                    writtenCount.addAndGet(batch.size());
+                    return;
+                } catch (RuntimeException e) {
+                    if (attempt >= maxAttempts || !backOff(attempt)) {
+                        spill(batch, attempt, e);
+                        return;
+                    }
+                    logger.warn("Failed to write {} chat transactions (attempt {} of {}), retrying",
+                            batch.size(), attempt, maxAttempts, e);
+                    attempted = unsavedCopies(batch);
+                }
+            }
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            lastFlushNanos = elapsed;
+            totalFlushNanos.addAndGet(elapsed);
+            flushCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Waits before retrying a batch.
+     *
+     * @param attempt the number of the failed attempt.
+     * @return false if the thread was interrupted and the batch should not be retried.
+     */
+    private boolean backOff(int attempt) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(retryBackoffNanos * attempt);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Copies the transactions of a batch without their IDs, so a retry inserts them anew instead of merging
+     * entities a rolled back attempt has already given an ID.
+     *
+     * @param batch the transactions.
+     * @return the copies, in the same order.
+     */
+    private static List<ChatTransaction> unsavedCopies(List<ChatTransaction> batch) {
+        List<ChatTransaction> copies = new ArrayList<>(batch.size());
+        for (ChatTransaction transaction : batch) {
+            copies.add(new ChatTransaction(null, transaction.getSessionId(), transaction.getMessage(),
+                    transaction.getSender(), transaction.getTimestamp()));
+        }
+        return copies;
+    }
+
+    /**
+     * Spills the transactions of a batch that could not be written to the spill log, one tab-separated line
+     * each: session ID, timestamp, sender and message. The application log gets the sessions concerned, without
+     * any message text.
+     *
+     * @param batch    the transactions that could not be written.
+     * @param attempts the number of attempts made.
+     * @param error    the error of the last attempt.
+     */
+    private void spill(List<ChatTransaction> batch, int attempts, RuntimeException error) {
+        failedCount.addAndGet(batch.size());
+        Set<Long> sessionIds = new LinkedHashSet<>();
+        batch.forEach(transaction -> sessionIds.add(transaction.getSessionId()));
+        logger.error("Failed to write {} chat transactions of sessions {} after {} attempts, "
+                + "spilled them to the {} log", batch.size(), sessionIds, attempts, SPILL_LOGGER, error);
+        for (ChatTransaction transaction : batch) {
+            spillLogger.error("{}\t{}\t{}\t{}", transaction.getSessionId(), transaction.getTimestamp(),
+                    transaction.getSender(), transaction.getMessage());
+        }
+    }
+}
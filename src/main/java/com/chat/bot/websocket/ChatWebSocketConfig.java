@@ -0,0 +1,48 @@
+package com.chat.bot.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * Registers the chat WebSocket channel at {@code /ws/chat}.
+ * <p>
+ * Every open connection holds a chat session, so the session store must be able to hold a session per connection:
+ * otherwise new connections evict the sessions of idle but still open ones, whose next message then restarts the
+ * chat. A warning is logged at startup when the limits are sized apart.
+ */
+@Configuration
+@EnableWebSocket
+public class ChatWebSocketConfig implements WebSocketConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatWebSocketConfig.class);
+
+    /** Handler of the chat channel. */
+    private final ChatWebSocketHandler chatWebSocketHandler;
+
+    /**
+     * Constructor for ChatWebSocketConfig.
+     *
+     * @param chatWebSocketHandler the handler of the chat channel.
+     * @param maxConnections       the maximum number of connections the server accepts.
+     * @param maxSessions          the maximum number of chat sessions held at once.
+     */
+    public ChatWebSocketConfig(ChatWebSocketHandler chatWebSocketHandler,
+                               @Value("${server.tomcat.max-connections:8192}") int maxConnections,
+                               @Value("${chatbot.session.max-sessions:10000}") int maxSessions) {
+        this.chatWebSocketHandler = chatWebSocketHandler;
+        if (maxSessions < maxConnections) {
+            logger.warn("chatbot.session.max-sessions ({}) is below server.tomcat.max-connections ({}): sessions of "
+                    + "open chat connections may be evicted and restarted", maxSessions, maxConnections);
+        }
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(chatWebSocketHandler, "/ws/chat");
+    }
+}
@@ -0,0 +1,149 @@
+package com.chat.bot.websocket;
+
+import com.chat.bot.dto.ChatRequest;
+import com.chat.bot.dto.ChatTurn;
+import com.chat.bot.service.ChatbotService;
+import com.chat.bot.session.ChatSessionNotFoundException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.NativeWebSocketSession;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WebSocket channel for chatting over one long-lived connection.
+ * <p>
+ * A chat is started when the connection opens and its first turn is pushed. Every text message is a
+ * {@link ChatRequest}; the reply is the {@link ChatTurn} carrying only the chatbot's new messages, or an
+ * {@code {"error": ...}} object. If the chat session expired or was evicted meanwhile, the response is not
+ * delivered: a {@code {"restarted": true, "dropped": ...}} object carrying it is pushed, followed by the first turn
+ * of a new chat. The chat ends with the connection. An idle connection holds no thread and only a small message
+ * buffer, so tens of thousands of them fit in one instance.
+ */
+@Component
+public class ChatWebSocketHandler extends TextWebSocketHandler {
+
+    /** Attribute of the connection holding the token of its chat session. */
+    static final String TOKEN_ATTRIBUTE = "chatToken";
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatWebSocketHandler.class);
+
+    /** Chatbot service the turns are handled by. */
+    private final ChatbotService chatbotService;
+
+    /** Mapper for requests and turns. */
+    private final ObjectMapper objectMapper;
+
+    /** Largest text message accepted, which is also the size of each connection's message buffer. */
+    private final int maxMessageSize;
+
+    /** Time after which a connection without traffic is closed. */
+    private final Duration idleTimeout;
+
+    /** Number of open connections. */
+    private final AtomicInteger connections = new AtomicInteger();
+
+    /**
+     * Constructor for ChatWebSocketHandler.
+     *
+     * @param chatbotService the chatbot service the turns are handled by.
+     * @param objectMapper   the mapper for requests and turns.
+     * @param maxMessageSize the largest text message accepted, in bytes.
+     * @param idleTimeout    the time after which a connection without traffic is closed.
+     */
+    public ChatWebSocketHandler(ChatbotService chatbotService, ObjectMapper objectMapper,
+                                @Value("${chatbot.websocket.max-message-size:4096}") int maxMessageSize,
+                                @Value("${chatbot.websocket.idle-timeout:PT30M}") Duration idleTimeout) {
+        this.chatbotService = chatbotService;
+        this.objectMapper = objectMapper;
+        this.maxMessageSize = maxMessageSize;
+        this.idleTimeout = idleTimeout;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws IOException {
+        connections.incrementAndGet();
+        session.setTextMessageSizeLimit(maxMessageSize);
+        if (session instanceof NativeWebSocketSession nativeSession) {
+            jakarta.websocket.Session container = nativeSession.getNativeSession(jakarta.websocket.Session.class);
+            if (container != null) {
+                container.setMaxIdleTimeout(idleTimeout.toMillis());
+            }
+        }
+        startChat(session);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        ChatRequest request;
+        try {
+            request = objectMapper.readValue(message.getPayload(), ChatRequest.class);
+        } catch (JsonProcessingException e) {
+            sendError(session, "Malformed message.");
+            return;
+        }
+        if (request.getResponse() == null || request.getResponse().isBlank()) {
+            sendError(session, "Response must not be empty.");
+            return;
+        }
+
+        String token = (String) session.getAttributes().get(TOKEN_ATTRIBUTE);
+        try {
+            send(session, chatbotService.respond(token, request.getResponse()));
+        } catch (ChatSessionNotFoundException e) {
+            logger.info("Chat session {} of an open connection expired, starting a new one", token);
+            send(session, Map.of("restarted", true, "dropped", request.getResponse()));
+            startChat(session);
+        } catch (IllegalArgumentException e) {
+            sendError(session, e.getMessage());
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        connections.decrementAndGet();
+        String token = (String) session.getAttributes().remove(TOKEN_ATTRIBUTE);
+        if (token != null) {
+            chatbotService.endChat(token);
+        }
+    }
+
+    /**
+     * Returns the number of open connections.
+     *
+     * @return the number of connections.
+     */
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * Starts a chat for the connection and pushes its first turn.
+     *
+     * @param session the connection.
+     */
+    private void startChat(WebSocketSession session) throws IOException {
+        ChatTurn turn = chatbotService.startChat();
+        session.getAttributes().put(TOKEN_ATTRIBUTE, turn.getToken());
+        send(session, turn);
+    }
+
+    private void send(WebSocketSession session, Object payload) throws IOException {
+        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(payload)));
+    }
+
+    private void sendError(WebSocketSession session, String error) throws IOException {
+        send(session, Map.of("error", error));
+    }
+}
@@ -0,0 +1,17 @@
+-- PostgreSQL-only indexes, run after data.sql (see spring.sql.init.data-locations)
+
+-- Prefix search of the admin node picker; text_pattern_ops lets LIKE 'abc%' use the index whatever the collation.
+-- Messages are matched on their first 64 characters so long messages stay within the index entry size. The indexed
+-- expressions are exactly those of ConversationNodeRepository.searchOptions, which queries each one in its own branch
+-- of a UNION, as an OR of the two would not use either index.
+CREATE INDEX IF NOT EXISTS idx_conversation_node_name_search ON conversation_node (LOWER(message_name) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_conversation_node_message_search ON conversation_node (LOWER(LEFT(message, 64)) text_pattern_ops);
+
+-- At most one first node and one invalid node. Admin writes check this inside their transaction, but two concurrent
+-- writes can both pass the check; the index then fails the later commit instead of leaving a duplicate behind.
+CREATE UNIQUE INDEX IF NOT EXISTS idx_conversation_node_unique_type ON conversation_node (node_type)
+    WHERE node_type IN ('FIRST_NODE', 'INVALID_NODE');
+
+-- Node bodies over about 2 kB are compressed and moved out of line by TOAST; keep that explicit for the table.
+ALTER TABLE conversation_node_body ALTER COLUMN body SET STORAGE EXTENDED;
+ALTER TABLE graph_version_body ALTER COLUMN body SET STORAGE EXTENDED;
@@ -1,12 +1,26 @@
 -- Drop existing tables if they exist
+DROP TABLE IF EXISTS graph_version_body;
+DROP TABLE IF EXISTS graph_version_response;
+DROP TABLE IF EXISTS graph_version_node;
+DROP TABLE IF EXISTS graph_version;
+DROP TABLE IF EXISTS conversation_node_body;
 DROP TABLE IF EXISTS conversation_node_responses;
 DROP TABLE IF EXISTS conversation_node;
 DROP TABLE IF EXISTS chat_transaction;
+DROP SEQUENCE IF EXISTS conversation_node_seq;
+DROP SEQUENCE IF EXISTS chat_transaction_seq;
+DROP SEQUENCE IF EXISTS graph_version_seq;
+
+-- Create the ID sequences; the increment matches the allocationSize of the entities
+CREATE SEQUENCE IF NOT EXISTS conversation_node_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS chat_transaction_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS graph_version_seq START WITH 1 INCREMENT BY 1;
 
 -- Create conversation_node table if it doesn't exist
 CREATE TABLE IF NOT EXISTS conversation_node (
-                                                 id BIGSERIAL PRIMARY KEY,
+                                                 id BIGINT PRIMARY KEY,
                                                  message VARCHAR(255),
+                                                 body_length INTEGER DEFAULT 0 NOT NULL,
                                                  message_name VARCHAR(255),
                                                  deletable BOOLEAN DEFAULT TRUE,
                                                  node_type VARCHAR(50) DEFAULT 'NORMAL_NODE'
@@ -21,29 +35,76 @@ CREATE TABLE IF NOT EXISTS conversation_node_responses (
                                                            FOREIGN KEY (conversation_node_id) REFERENCES conversation_node(id)
 );
 
+-- Create conversation_node_body table if it doesn't exist; long bodies are kept out of the node rows
+CREATE TABLE IF NOT EXISTS conversation_node_body (
+                                                      node_id BIGINT PRIMARY KEY,
+                                                      body TEXT,
+                                                      FOREIGN KEY (node_id) REFERENCES conversation_node(id)
+);
+
 -- Create chat_transaction table if it doesn't exist
 CREATE TABLE IF NOT EXISTS chat_transaction (
-                                                id BIGSERIAL PRIMARY KEY,
+                                                id BIGINT PRIMARY KEY,
                                                 session_id BIGINT,
-                                                message VARCHAR(255),
+                                                message TEXT,
                                                 sender VARCHAR(50),
                                                 timestamp TIMESTAMP
 );
 
--- Reset the sequence for conversation_node
-ALTER SEQUENCE conversation_node_id_seq RESTART WITH 1;
+-- Create the published graph versions; the rows of a version are copied from the draft and never changed
+CREATE TABLE IF NOT EXISTS graph_version (
+                                             id BIGINT PRIMARY KEY,
+                                             published_at TIMESTAMP,
+                                             node_count INTEGER DEFAULT 0 NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS graph_version_node (
+                                                  version_id BIGINT,
+                                                  node_id BIGINT,
+                                                  message VARCHAR(255),
+                                                  body_length INTEGER DEFAULT 0 NOT NULL,
+                                                  message_name VARCHAR(255),
+                                                  deletable BOOLEAN,
+                                                  node_type VARCHAR(50),
+                                                  PRIMARY KEY (version_id, node_id),
+                                                  FOREIGN KEY (version_id) REFERENCES graph_version(id)
+);
+
+CREATE TABLE IF NOT EXISTS graph_version_response (
+                                                      version_id BIGINT,
+                                                      node_id BIGINT,
+                                                      response_key VARCHAR(255),
+                                                      next_node_id BIGINT,
+                                                      PRIMARY KEY (version_id, node_id, response_key),
+                                                      FOREIGN KEY (version_id, node_id) REFERENCES graph_version_node(version_id, node_id)
+);
+
+CREATE TABLE IF NOT EXISTS graph_version_body (
+                                                  version_id BIGINT,
+                                                  node_id BIGINT,
+                                                  body TEXT,
+                                                  PRIMARY KEY (version_id, node_id),
+                                                  FOREIGN KEY (version_id, node_id) REFERENCES graph_version_node(version_id, node_id)
+);
+
+-- Index edges by target node to find the nodes pointing at a node
+CREATE INDEX IF NOT EXISTS idx_conversation_node_responses_next_node ON conversation_node_responses (next_node_id);
+
+-- Index transcripts for keyset reads per session and per time window
+CREATE INDEX IF NOT EXISTS idx_chat_transaction_session ON chat_transaction (session_id, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_chat_transaction_timestamp ON chat_transaction (timestamp, id);
 
 -- Insert initial conversation nodes
-INSERT INTO conversation_node (message, message_name, deletable, node_type) VALUES
-                                                                                ('Hi! This is LISA. I have a great shift opportunity for you! Are you interested in hearing about it? Please respond "Yes" or "No"', '', FALSE, 'FIRST_NODE'),
-                                                                                ('I''m sorry, I didn''t understand your response. Return to last request', 'Invalid Message', TRUE, 'INVALID_NODE'),
-                                                                                ('Great the shift is at 1313 Mockingbird Ln at 2/15/2021 4:00pm-12:00am. We''ll see you there!', NULL, TRUE, 'NORMAL_NODE'),
-                                                                                ('Ok, thanks. Can you let me know why not? Respond 1: Too far Respond 2: Not available Respond 3: Other', '', TRUE, 'NORMAL_NODE'),
-                                                                                ('Thanks for letting me know. I''ll avoid offering shifts at this location in the future.', '', TRUE, 'NORMAL_NODE'),
-                                                                                ('Thanks for letting me know. I''ll avoid offering shifts at this time in the future.', '', TRUE, 'NORMAL_NODE'),
-                                                                                ('Ok. Thanks. I won''t offer shifts at this location or time in the future.', '', TRUE, 'NORMAL_NODE'),
-                                                                                ('Do you want to restart the chat? Please respond "Yes" or "No"','', TRUE, 'END_NODE'),
-                                                                                ('Thanks for chatting','', TRUE, 'END_NODE');
+INSERT INTO conversation_node (id, message, message_name, deletable, node_type) VALUES
+                                                                                (1, 'Hi! This is LISA. I have a great shift opportunity for you! Are you interested in hearing about it? Please respond "Yes" or "No"', '', FALSE, 'FIRST_NODE'),
+                                                                                (2, 'I''m sorry, I didn''t understand your response. Return to last request', 'Invalid Message', TRUE, 'INVALID_NODE'),
+                                                                                (3, 'Great the shift is at 1313 Mockingbird Ln at 2/15/2021 4:00pm-12:00am. We''ll see you there!', NULL, TRUE, 'NORMAL_NODE'),
+                                                                                (4, 'Ok, thanks. Can you let me know why not? Respond 1: Too far Respond 2: Not available Respond 3: Other', '', TRUE, 'NORMAL_NODE'),
+                                                                                (5, 'Thanks for letting me know. I''ll avoid offering shifts at this location in the future.', '', TRUE, 'NORMAL_NODE'),
+                                                                                (6, 'Thanks for letting me know. I''ll avoid offering shifts at this time in the future.', '', TRUE, 'NORMAL_NODE'),
+                                                                                (7, 'Ok. Thanks. I won''t offer shifts at this location or time in the future.', '', TRUE, 'NORMAL_NODE'),
+                                                                                (8, 'Do you want to restart the chat? Please respond "Yes" or "No"','', TRUE, 'END_NODE'),
+                                                                                (9, 'Thanks for chatting','', TRUE, 'END_NODE');
 
 
 -- Insert initial responses
@@ -56,3 +117,13 @@ INSERT INTO conversation_node_responses (conversation_node_id, response_key, nex
                                                                                                (8, 'yes', 1),
                                                                                                (8, 'no', 9);
 
+-- Continue ID allocation after the seeded nodes
+ALTER SEQUENCE conversation_node_seq RESTART WITH 10;
+
+-- Publish the seeded graph as the first version
+INSERT INTO graph_version (id, published_at, node_count) SELECT 1, CURRENT_TIMESTAMP, COUNT(*) FROM conversation_node;
+INSERT INTO graph_version_node (version_id, node_id, message, body_length, message_name, deletable, node_type)
+SELECT 1, id, message, body_length, message_name, deletable, node_type FROM conversation_node;
+INSERT INTO graph_version_response (version_id, node_id, response_key, next_node_id)
+SELECT 1, conversation_node_id, response_key, next_node_id FROM conversation_node_responses;
+ALTER SEQUENCE graph_version_seq RESTART WITH 2;
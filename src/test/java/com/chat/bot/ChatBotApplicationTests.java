@@ -3,7 +3,7 @@ package com.chat.bot;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "chatbot.session.node-id=0")
 class ChatBotApplicationTests {
 
 	@Test
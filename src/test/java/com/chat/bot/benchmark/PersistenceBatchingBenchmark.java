@@ -0,0 +1,277 @@
+package com.chat.bot.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the insert patterns Hibernate issues for IDENTITY IDs with those for pooled sequence IDs
+ * and JDBC batching, for chat transcripts and for a bulk import of conversation nodes, on H2.
+ * <p>
+ * Before: one INSERT per row, each followed by reading back the generated key (IDENTITY disables batching).
+ * After: one sequence call per block of {@link #ALLOCATION_SIZE} IDs and inserts sent in batches of
+ * {@link #BATCH_SIZE}, as configured in application.properties.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class PersistenceBatchingBenchmark {
+
+    /** Rows written per measured round. */
+    private static final int ROWS = 20_000;
+
+    /** Responses per imported node. */
+    private static final int RESPONSES_PER_NODE = 3;
+
+    /** Allocation size of the ID sequences. */
+    private static final int ALLOCATION_SIZE = 50;
+
+    /** Value of hibernate.jdbc.batch_size. */
+    private static final int BATCH_SIZE = 50;
+
+    /** Warm-up rounds before measuring. */
+    private static final int WARMUP_ROUNDS = 2;
+
+    /** Connection to the in-memory database. */
+    private Connection connection;
+
+    /**
+     * Opens a fresh in-memory database.
+     */
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:batching;DB_CLOSE_DELAY=-1", "sa", "");
+        connection.setAutoCommit(false);
+    }
+
+    /**
+     * Drops the in-memory database.
+     */
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    /**
+     * Measures transcript insert throughput.
+     */
+    @Test
+    void transcriptInsertThroughput() throws SQLException {
+        double before = measure("identity", this::insertTranscriptsWithIdentity);
+        double after = measure("sequence", this::insertTranscriptsWithSequence);
+        report("Transcript inserts", before, after);
+    }
+
+    /**
+     * Measures bulk node import throughput, counting nodes and their responses as rows.
+     */
+    @Test
+    void nodeImportThroughput() throws SQLException {
+        double before = measure("identity", this::importNodesWithIdentity);
+        double after = measure("sequence", this::importNodesWithSequence);
+        report("Node import", before, after);
+    }
+
+    /**
+     * Runs a workload on fresh tables and returns its throughput in rows per second.
+     */
+    private double measure(String idStrategy, Workload workload) throws SQLException {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            createSchema(idStrategy);
+            workload.run();
+        }
+        createSchema(idStrategy);
+        long start = System.nanoTime();
+        int rows = workload.run();
+        long elapsed = System.nanoTime() - start;
+        return rows / (elapsed / 1_000_000_000.0);
+    }
+
+    private void createSchema(String idStrategy) throws SQLException {
+        String id = idStrategy.equals("identity") ? "id BIGINT AUTO_INCREMENT PRIMARY KEY" : "id BIGINT PRIMARY KEY";
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute("CREATE SEQUENCE conversation_node_seq START WITH 1 INCREMENT BY " + ALLOCATION_SIZE);
+            statement.execute("CREATE SEQUENCE chat_transaction_seq START WITH 1 INCREMENT BY " + ALLOCATION_SIZE);
+            statement.execute("CREATE TABLE conversation_node (" + id + ", message VARCHAR(255), message_name VARCHAR(255), "
+                    + "deletable BOOLEAN, node_type VARCHAR(50))");
+            statement.execute("CREATE TABLE conversation_node_responses (conversation_node_id BIGINT, response_key VARCHAR(255), "
+                    + "next_node_id BIGINT, PRIMARY KEY (conversation_node_id, response_key))");
+            statement.execute("CREATE TABLE chat_transaction (" + id + ", session_id BIGINT, message VARCHAR(255), "
+                    + "sender VARCHAR(50), timestamp TIMESTAMP)");
+        }
+        connection.commit();
+    }
+
+    private int insertTranscriptsWithIdentity() throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO chat_transaction (session_id, message, sender, timestamp) VALUES (?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < ROWS; i++) {
+                bindTranscript(insert, 1, i);
+                insert.executeUpdate();
+                readGeneratedKey(insert);
+            }
+        }
+        connection.commit();
+        return ROWS;
+    }
+
+    private int insertTranscriptsWithSequence() throws SQLException {
+        SequenceBlock ids = new SequenceBlock("chat_transaction_seq");
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO chat_transaction (id, session_id, message, sender, timestamp) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                insert.setLong(1, ids.next());
+                bindTranscript(insert, 2, i);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        assertRowCount("chat_transaction", ROWS);
+        return ROWS;
+    }
+
+    private int importNodesWithIdentity() throws SQLException {
+        try (PreparedStatement insertNode = connection.prepareStatement(
+                "INSERT INTO conversation_node (message, message_name, deletable, node_type) VALUES (?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement insertResponse = connection.prepareStatement(
+                     "INSERT INTO conversation_node_responses (conversation_node_id, response_key, next_node_id) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                bindNode(insertNode, 1, i);
+                insertNode.executeUpdate();
+                long id = readGeneratedKey(insertNode);
+                for (int r = 0; r < RESPONSES_PER_NODE; r++) {
+                    bindResponse(insertResponse, id, r);
+                    insertResponse.executeUpdate();
+                }
+            }
+        }
+        connection.commit();
+        return ROWS * (1 + RESPONSES_PER_NODE);
+    }
+
+    private int importNodesWithSequence() throws SQLException {
+        SequenceBlock ids = new SequenceBlock("conversation_node_seq");
+        try (PreparedStatement insertNode = connection.prepareStatement(
+                "INSERT INTO conversation_node (id, message, message_name, deletable, node_type) VALUES (?, ?, ?, ?, ?)");
+             PreparedStatement insertResponse = connection.prepareStatement(
+                     "INSERT INTO conversation_node_responses (conversation_node_id, response_key, next_node_id) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                long id = ids.next();
+                insertNode.setLong(1, id);
+                bindNode(insertNode, 2, i);
+                insertNode.addBatch();
+                for (int r = 0; r < RESPONSES_PER_NODE; r++) {
+                    bindResponse(insertResponse, id, r);
+                    insertResponse.addBatch();
+                }
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insertNode.executeBatch();
+                    insertResponse.executeBatch();
+                }
+            }
+            insertNode.executeBatch();
+            insertResponse.executeBatch();
+        }
+        connection.commit();
+        assertRowCount("conversation_node_responses", ROWS * RESPONSES_PER_NODE);
+        return ROWS * (1 + RESPONSES_PER_NODE);
+    }
+
+    private static void bindTranscript(PreparedStatement insert, int first, int i) throws SQLException {
+        insert.setLong(first, i / 10);
+        insert.setString(first + 1, "Message " + i);
+        insert.setString(first + 2, i % 2 == 0 ? "User" : "Chatbot");
+        insert.setTimestamp(first + 3, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private static void bindNode(PreparedStatement insert, int first, int i) throws SQLException {
+        insert.setString(first, "Message " + i);
+        insert.setString(first + 1, "Node " + i);
+        insert.setBoolean(first + 2, true);
+        insert.setString(first + 3, "NORMAL_NODE");
+    }
+
+    private static void bindResponse(PreparedStatement insert, long nodeId, int r) throws SQLException {
+        insert.setLong(1, nodeId);
+        insert.setString(2, "option " + r);
+        insert.setLong(3, nodeId + r + 1);
+    }
+
+    private static long readGeneratedKey(PreparedStatement insert) throws SQLException {
+        try (ResultSet keys = insert.getGeneratedKeys()) {
+            keys.next();
+            return keys.getLong(1);
+        }
+    }
+
+    private void assertRowCount(String table, int expected) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet count = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            count.next();
+            assertEquals(expected, count.getInt(1));
+        }
+    }
+
+    private static void report(String name, double before, double after) {
+        System.out.printf("%s: identity %.0f rows/s, pooled sequence + batching %.0f rows/s (x%.2f)%n",
+                name, before, after, after / before);
+    }
+
+    /**
+     * Hands out IDs the way Hibernate's pooled-lo optimizer does: one sequence call per block.
+     */
+    private final class SequenceBlock {
+
+        private final String sequence;
+
+        private long next;
+
+        private long limit;
+
+        SequenceBlock(String sequence) {
+            this.sequence = sequence;
+        }
+
+        long next() throws SQLException {
+            if (next == limit) {
+                try (Statement statement = connection.createStatement();
+                     ResultSet value = statement.executeQuery("SELECT NEXT VALUE FOR " + sequence)) {
+                    value.next();
+                    next = value.getLong(1);
+                    limit = next + ALLOCATION_SIZE;
+                }
+            }
+            return next++;
+        }
+    }
+
+    /**
+     * A measured unit of work returning the number of rows it wrote.
+     */
+    @FunctionalInterface
+    private interface Workload {
+        int run() throws SQLException;
+    }
+}
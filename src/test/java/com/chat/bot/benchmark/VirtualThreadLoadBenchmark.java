@@ -0,0 +1,186 @@
+package com.chat.bot.benchmark;
+
+import com.chat.bot.ChatBotApplication;
+import com.chat.bot.support.H2TestProperties;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load test comparing chat request handling on Tomcat's platform-thread pool with virtual-thread mode.
+ * <p>
+ * For each mode the application is booted on an in-memory H2 database with the seeded conversation graph.
+ * Concurrent simulated users each start a chat over the JSON API, play scripted turns and read a page of
+ * transcripts, which goes to the database through the connection pool. The number of concurrent users is
+ * raised step by step; for each step the p99 and maximum request latency and the error count are reported.
+ * The highest step whose p99 stays within {@link #P99_BUDGET} without errors is the maximum number of
+ * concurrent sessions the mode sustained.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=VirtualThreadLoadBenchmark}.
+ */
+@Tag("benchmark")
+class VirtualThreadLoadBenchmark {
+
+    /** Concurrent users per step. */
+    private static final int[] CONCURRENCY_STEPS = {100, 400, 1600, 3200};
+
+    /** Scripted rounds per user; each round is three turns through the seeded graph. */
+    private static final int ROUNDS = 3;
+
+    /** Latency budget a step has to meet to count as sustained. */
+    private static final Duration P99_BUDGET = Duration.ofMillis(500);
+
+    /** Extracts the session token from a chat turn. */
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    /** Client shared by all simulated users. */
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    /**
+     * Runs the load steps in both modes and prints the comparison.
+     */
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        List<String> report = new ArrayList<>();
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            String mode = virtualThreads ? "virtual" : "platform";
+            try (ConfigurableApplicationContext context = boot(mode, virtualThreads)) {
+                String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                runStep(baseUrl, 50);
+                int sustained = 0;
+                for (int users : CONCURRENCY_STEPS) {
+                    StepResult result = runStep(baseUrl, users);
+                    report.add(String.format("%-8s users=%5d requests=%6d errors=%4d p99=%6.1fms max=%7.1fms",
+                            mode, users, result.requests(), result.errors(), result.p99Millis(), result.maxMillis()));
+                    if (result.errors() == 0 && result.p99Millis() <= P99_BUDGET.toMillis()) {
+                        sustained = users;
+                    }
+                }
+                report.add(String.format("%-8s max sustained concurrent sessions: %d", mode, sustained));
+            }
+        }
+        report.forEach(System.out::println);
+    }
+
+    /**
+     * Boots the application in the given mode.
+     */
+    private static ConfigurableApplicationContext boot(String mode, boolean virtualThreads) {
+        Map<String, Object> properties = H2TestProperties.forDatabase("load-" + mode);
+        properties.put("server.port", "0");
+        properties.put("spring.threads.virtual.enabled", String.valueOf(virtualThreads));
+        properties.put("spring.datasource.hikari.maximum-pool-size", "20");
+        properties.put("chatbot.session.max-sessions", "100000");
+        return new SpringApplicationBuilder(ChatBotApplication.class).properties(properties).run();
+    }
+
+    /**
+     * Runs one step with the given number of concurrent users.
+     */
+    private StepResult runStep(String baseUrl, int users) throws Exception {
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int u = 0; u < users; u++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    simulateUser(baseUrl, latencies, errors);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+        }
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        return new StepResult(sorted.length, errors.get(), percentile(sorted, 0.99) / 1e6,
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+    }
+
+    /**
+     * Plays one chat: start, scripted turns, then a transcript read.
+     */
+    private void simulateUser(String baseUrl, ConcurrentLinkedQueue<Long> latencies, AtomicInteger errors) {
+        try {
+            String turn = send(post(baseUrl + "/api/chat", ""), latencies, errors);
+            Matcher token = TOKEN.matcher(turn);
+            if (!token.find()) {
+                errors.incrementAndGet();
+                return;
+            }
+            String turnUrl = baseUrl + "/api/chat/" + token.group(1);
+            for (int round = 0; round < ROUNDS; round++) {
+                for (String response : List.of("no", "1", "yes")) {
+                    send(post(turnUrl, "{\"response\":\"" + response + "\"}"), latencies, errors);
+                }
+            }
+            LocalDateTime now = LocalDateTime.now();
+            send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/transcripts?limit=50&from=" + now.minusMinutes(1)
+                    + "&to=" + now.plusMinutes(1))).GET().build(), latencies, errors);
+        } catch (Exception e) {
+            errors.incrementAndGet();
+        }
+    }
+
+    private static HttpRequest post(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * Sends a request and records its latency.
+     */
+    private String send(HttpRequest request, ConcurrentLinkedQueue<Long> latencies, AtomicInteger errors)
+            throws Exception {
+        long begin = System.nanoTime();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        latencies.add(System.nanoTime() - begin);
+        if (response.statusCode() != 200) {
+            errors.incrementAndGet();
+        }
+        return response.body();
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Outcome of one load step.
+     */
+    private record StepResult(int requests, int errors, double p99Millis, double maxMillis) {
+    }
+}
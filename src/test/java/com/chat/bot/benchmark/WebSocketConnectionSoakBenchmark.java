@@ -0,0 +1,178 @@
+package com.chat.bot.benchmark;
+
+import com.chat.bot.ChatBotApplication;
+import com.chat.bot.session.ConversationSessionStore;
+import com.chat.bot.support.H2TestProperties;
+import com.chat.bot.websocket.ChatWebSocketHandler;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Soak test holding many idle chat WebSocket connections open against one instance.
+ * <p>
+ * The application is booted on an in-memory H2 database with the seeded conversation graph. Connections are
+ * opened in batches, each receiving its first turn, and then held idle for {@link #HOLD}. The report gives the
+ * open connection count seen by the server, the live thread count and the heap growth per connection, after
+ * which a sample of the connections play a turn to show that the idle ones do not slow the active ones down.
+ * Client and server share the JVM, so the heap figure is an upper bound for the server side.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=WebSocketConnectionSoakBenchmark [-Dsoak.connections=20000]}. Large
+ * counts need a file descriptor limit above twice the connection count.
+ */
+@Tag("benchmark")
+class WebSocketConnectionSoakBenchmark {
+
+    /** Connections held open. */
+    private static final int CONNECTIONS = Integer.getInteger("soak.connections", 10_000);
+
+    /** Connections opened concurrently. */
+    private static final int BATCH = 500;
+
+    /** Time the connections are held idle. */
+    private static final Duration HOLD = Duration.ofSeconds(Long.getLong("soak.hold-seconds", 60));
+
+    /** Connections playing a turn after the hold. */
+    private static final int ACTIVE_SAMPLE = 200;
+
+    /**
+     * Opens, holds, exercises and closes the connections, printing the report.
+     */
+    @Test
+    void holdIdleConnections() throws Exception {
+        Map<String, Object> properties = H2TestProperties.forDatabase("websocket-soak");
+        properties.put("server.port", "0");
+        properties.put("chatbot.session.max-sessions", String.valueOf(CONNECTIONS * 2));
+        try (ConfigurableApplicationContext context =
+                     new SpringApplicationBuilder(ChatBotApplication.class).properties(properties).run()) {
+            URI uri = URI.create("ws://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/ws/chat");
+            ChatWebSocketHandler handler = context.getBean(ChatWebSocketHandler.class);
+            ConversationSessionStore sessionStore = context.getBean(ConversationSessionStore.class);
+            HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+            System.gc();
+            long heapBefore = memory.getHeapMemoryUsage().getUsed();
+            int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+            long openStart = System.nanoTime();
+
+            List<Connection> connections = new ArrayList<>(CONNECTIONS);
+            for (int opened = 0; opened < CONNECTIONS; opened += BATCH) {
+                List<Connection> batch = new ArrayList<>();
+                for (int i = opened; i < Math.min(opened + BATCH, CONNECTIONS); i++) {
+                    batch.add(Connection.open(client, uri));
+                }
+                for (Connection connection : batch) {
+                    connection.awaitOpen();
+                    assertNotNull(connection.nextMessage(), "No first turn pushed");
+                }
+                connections.addAll(batch);
+            }
+            double openSeconds = (System.nanoTime() - openStart) / 1e9;
+
+            Thread.sleep(HOLD.toMillis());
+            System.gc();
+            long heapHeld = memory.getHeapMemoryUsage().getUsed();
+            int threadsHeld = ManagementFactory.getThreadMXBean().getThreadCount();
+            int serverConnections = handler.getConnectionCount();
+
+            long[] latencies = new long[ACTIVE_SAMPLE];
+            for (int i = 0; i < ACTIVE_SAMPLE; i++) {
+                Connection connection = connections.get(i * (CONNECTIONS / ACTIVE_SAMPLE));
+                long begin = System.nanoTime();
+                connection.send("{\"response\":\"no\"}");
+                assertNotNull(connection.nextMessage(), "No turn pushed");
+                latencies[i] = System.nanoTime() - begin;
+            }
+            Arrays.sort(latencies);
+
+            for (Connection connection : connections) {
+                connection.close();
+            }
+            long closeDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (handler.getConnectionCount() > 0 && System.nanoTime() < closeDeadline) {
+                Thread.sleep(100);
+            }
+
+            System.out.printf("connections=%d opened in %.1fs (%.0f/s)%n", CONNECTIONS, openSeconds, CONNECTIONS / openSeconds);
+            System.out.printf("held %ds: server connections=%d, threads %d -> %d, heap +%.1f MB (%.1f KB per connection)%n",
+                    HOLD.toSeconds(), serverConnections, threadsBefore, threadsHeld, (heapHeld - heapBefore) / 1e6,
+                    (heapHeld - heapBefore) / 1e3 / CONNECTIONS);
+            System.out.printf("turns on %d held connections: p50=%.2fms p99=%.2fms max=%.2fms%n", ACTIVE_SAMPLE,
+                    latencies[ACTIVE_SAMPLE / 2] / 1e6, latencies[(int) (ACTIVE_SAMPLE * 0.99) - 1] / 1e6,
+                    latencies[ACTIVE_SAMPLE - 1] / 1e6);
+            System.out.printf("after close: server connections=%d, sessions=%d%n",
+                    handler.getConnectionCount(), sessionStore.size());
+
+            assertEquals(CONNECTIONS, serverConnections);
+            assertEquals(0, handler.getConnectionCount());
+            assertEquals(0, sessionStore.size());
+        }
+    }
+
+    /**
+     * Client side of one chat connection, queueing the turns pushed by the server.
+     */
+    private static final class Connection implements WebSocket.Listener {
+
+        private final BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+
+        private final StringBuilder partial = new StringBuilder();
+
+        private CompletableFuture<WebSocket> socket;
+
+        static Connection open(HttpClient client, URI uri) {
+            Connection connection = new Connection();
+            connection.socket = client.newWebSocketBuilder().connectTimeout(Duration.ofSeconds(30))
+                    .buildAsync(uri, connection);
+            return connection;
+        }
+
+        void awaitOpen() throws Exception {
+            socket.get(30, TimeUnit.SECONDS);
+        }
+
+        String nextMessage() throws InterruptedException {
+            return messages.poll(30, TimeUnit.SECONDS);
+        }
+
+        void send(String text) throws Exception {
+            socket.get().sendText(text, true).get(30, TimeUnit.SECONDS);
+        }
+
+        void close() throws Exception {
+            socket.get().sendClose(WebSocket.NORMAL_CLOSURE, "").get(30, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                messages.add(partial.toString());
+                partial.setLength(0);
+            }
+            webSocket.request(1);
+            return null;
+        }
+    }
+}
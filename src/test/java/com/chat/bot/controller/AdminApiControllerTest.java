@@ -0,0 +1,169 @@
+package com.chat.bot.controller;
+
+import com.chat.bot.dto.GraphImportResult;
+import com.chat.bot.dto.NodeOption;
+import com.chat.bot.dto.ResponseEditRequest;
+import com.chat.bot.entity.GraphVersion;
+import com.chat.bot.service.AdminService;
+import com.chat.bot.service.GraphTransferService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the AdminApiController class.
+ */
+class AdminApiControllerTest {
+
+    /**
+     * GraphTransferService
+     */
+    @Mock
+    private GraphTransferService graphTransferService;
+
+    /**
+     * AdminService
+     */
+    @Mock
+    private AdminService adminService;
+
+    /**
+     * AdminApiController
+     */
+    @InjectMocks
+    private AdminApiController adminApiController;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Tests that the export streams the document written by the service.
+     */
+    @Test
+    void testExportGraph() throws Exception {
+        doAnswer(invocation -> {
+            invocation.getArgument(0, OutputStream.class).write("{\"nodes\":[]}".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(graphTransferService).exportGraph(any());
+
+        ResponseEntity<StreamingResponseBody> response = adminApiController.exportGraph();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals("{\"nodes\":[]}", out.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests that the request body is passed to the service and its result returned.
+     */
+    @Test
+    void testImportGraph() throws Exception {
+        InputStream body = new ByteArrayInputStream(new byte[0]);
+        GraphImportResult result = new GraphImportResult(3, 2);
+        when(graphTransferService.importGraph(body, true)).thenReturn(result);
+
+        assertSame(result, adminApiController.importGraph(true, body));
+    }
+
+    /**
+     * Tests that searches default to the configured limit and cap the requested one.
+     */
+    @Test
+    void testSearchNodes() {
+        List<NodeOption> options = List.of();
+        when(adminService.searchNodes(eq("gree"), anyInt())).thenReturn(options);
+
+        assertSame(options, adminApiController.searchNodes("gree", null));
+        assertSame(options, adminApiController.searchNodes("gree", 5000));
+
+        verify(adminService).searchNodes("gree", 20);
+        verify(adminService).searchNodes("gree", 100);
+    }
+
+    /**
+     * Tests that publishing the draft answers with the created version.
+     */
+    @Test
+    void testPublishDraft() {
+        GraphVersion version = new GraphVersion(2L, null, 9);
+        when(adminService.publishDraft()).thenReturn(version);
+
+        ResponseEntity<GraphVersion> response = adminApiController.publishDraft();
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertSame(version, response.getBody());
+    }
+
+    /**
+     * Tests that adding a response is passed to the service and answered with created.
+     */
+    @Test
+    void testAddResponse() {
+        ResponseEntity<Void> response = adminApiController.addResponse(1L, new ResponseEditRequest("yes", 2L));
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        verify(adminService).addResponse(1L, "yes", 2L);
+    }
+
+    /**
+     * Tests that retargeting a response takes the key from the path.
+     */
+    @Test
+    void testRetargetResponse() {
+        ResponseEntity<Void> response = adminApiController.retargetResponse(1L, "yes",
+                new ResponseEditRequest(null, 3L));
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(adminService).retargetResponse(1L, "yes", 3L);
+    }
+
+    /**
+     * Tests that removing a response is passed to the service.
+     */
+    @Test
+    void testRemoveResponse() {
+        ResponseEntity<Void> response = adminApiController.removeResponse(1L, "yes");
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(adminService).removeResponse(1L, "yes");
+    }
+
+    /**
+     * Tests that invalid requests are answered with a bad request.
+     */
+    @Test
+    void testHandleInvalidRequest() {
+        ResponseEntity<Map<String, String>> response =
+                adminApiController.handleInvalidRequest(new IllegalArgumentException("Malformed graph document"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Malformed graph document", response.getBody().get("error"));
+    }
+}
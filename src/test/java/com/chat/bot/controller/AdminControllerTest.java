@@ -3,6 +3,7 @@ package com.chat.bot.controller;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.chat.bot.dto.NodeSummary;
 import com.chat.bot.entity.ConversationNode;
 import com.chat.bot.service.AdminService;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +15,7 @@ import org.springframework.ui.Model;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Unit tests for the AdminController class.
@@ -47,21 +49,39 @@ class AdminControllerTest {
     }
 
     /**
-     * Tests listing all conversation nodes.
+     * Tests listing the last page of conversation nodes.
      */
     @Test
     void testListNodes() {
-        List<ConversationNode> nodes = new ArrayList<>();
-        when(adminService.getAllNodes()).thenReturn(nodes);
+        List<NodeSummary> nodes = new ArrayList<>();
+        when(adminService.getNodeSummaries(0L, 51)).thenReturn(nodes);
 
-        String viewName = adminController.listNodes(model);
+        String viewName = adminController.listNodes(0L, model);
 
         assertEquals("admin", viewName);
-        verify(adminService).getAllNodes();
+        verify(adminService).getNodeSummaries(0L, 51);
         verify(model).addAttribute("nodes", nodes);
         verifyNoMoreInteractions(adminService, model);
     }
 
+    /**
+     * Tests that a full page of conversation nodes links to the next page.
+     */
+    @Test
+    void testListNodes_NextPage() {
+        List<NodeSummary> nodes = new ArrayList<>();
+        for (long id = 101; id <= 151; id++) {
+            nodes.add(new NodeSummary(id, "Message", null, ConversationNode.NodeType.NORMAL_NODE, true, 0));
+        }
+        when(adminService.getNodeSummaries(100L, 51)).thenReturn(nodes);
+
+        String viewName = adminController.listNodes(100L, model);
+
+        assertEquals("admin", viewName);
+        verify(model).addAttribute("next", 150L);
+        verify(model).addAttribute("nodes", nodes.subList(0, 50));
+    }
+
     /**
      * Tests editing a conversation node.
      */
@@ -69,12 +89,12 @@ class AdminControllerTest {
     void testEditNode() {
         Long nodeId = 1L;
         ConversationNode node = new ConversationNode();
-        when(adminService.getNodeById(nodeId)).thenReturn(node);
+        when(adminService.getNodeWithBody(nodeId)).thenReturn(node);
 
         String viewName = adminController.editNode(nodeId, model);
 
         assertEquals("editNode", viewName);
-        verify(adminService).getNodeById(nodeId);
+        verify(adminService).getNodeWithBody(nodeId);
         verify(model).addAttribute("node", node);
         verifyNoMoreInteractions(adminService, model);
     }
@@ -200,17 +220,17 @@ class AdminControllerTest {
     void testEditResponses() {
         Long nodeId = 1L;
         ConversationNode node = new ConversationNode();
-        List<ConversationNode> allNodes = new ArrayList<>();
+        Map<Long, String> nextNodeNames = Map.of(2L, "Goodbye");
         when(adminService.getNodeById(nodeId)).thenReturn(node);
-        when(adminService.getAllNodes()).thenReturn(allNodes);
+        when(adminService.getNextNodeNames(node)).thenReturn(nextNodeNames);
 
         String viewName = adminController.editResponses(nodeId, model);
 
         assertEquals("editResponses", viewName);
         verify(adminService).getNodeById(nodeId);
-        verify(adminService).getAllNodes();
+        verify(adminService).getNextNodeNames(node);
         verify(model).addAttribute("node", node);
-        verify(model).addAttribute("allNodes", allNodes);
+        verify(model).addAttribute("nextNodeNames", nextNodeNames);
         verifyNoMoreInteractions(adminService, model);
     }
 
@@ -257,17 +277,13 @@ class AdminControllerTest {
     void testAddResponses() {
         Long nodeId = 1L;
         ConversationNode node = new ConversationNode();
-        List<ConversationNode> allNodes = new ArrayList<>();
         when(adminService.getNodeById(nodeId)).thenReturn(node);
-        when(adminService.getAllNodes()).thenReturn(allNodes);
 
         String viewName = adminController.addResponses(nodeId, model);
 
         assertEquals("addResponses", viewName);
         verify(adminService).getNodeById(nodeId);
-        verify(adminService).getAllNodes();
         verify(model).addAttribute("node", node);
-        verify(model).addAttribute("allNodes", allNodes);
         verifyNoMoreInteractions(adminService, model);
     }
 
@@ -307,6 +323,35 @@ class AdminControllerTest {
         verifyNoMoreInteractions(adminService, model);
     }
 
+    /**
+     * Tests publishing the draft successfully.
+     */
+    @Test
+    void testPublishDraft_Success() {
+        String viewName = adminController.publishDraft(model);
+
+        assertEquals("redirect:/admin", viewName);
+        verify(adminService).publishDraft();
+        verifyNoMoreInteractions(adminService, model);
+    }
+
+    /**
+     * Tests publishing a draft that cannot be published.
+     */
+    @Test
+    void testPublishDraft_IllegalArgumentException() {
+        String errorMessage = "The draft has no first node to publish.";
+
+        doThrow(new IllegalArgumentException(errorMessage)).when(adminService).publishDraft();
+
+        String viewName = adminController.publishDraft(model);
+
+        assertEquals("redirect:/error", viewName);
+        verify(adminService).publishDraft();
+        verify(model).addAttribute("error", errorMessage);
+        verifyNoMoreInteractions(adminService, model);
+    }
+
     /**
      * Tests deleting all conversation nodes successfully.
      */
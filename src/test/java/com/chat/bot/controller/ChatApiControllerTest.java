@@ -0,0 +1,107 @@
+package com.chat.bot.controller;
+
+import com.chat.bot.dto.ChatRequest;
+import com.chat.bot.dto.ChatTurn;
+import com.chat.bot.service.ChatbotService;
+import com.chat.bot.session.ChatSessionNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the ChatApiController class.
+ */
+class ChatApiControllerTest {
+
+    /**
+     * ChatbotService
+     */
+    @Mock
+    private ChatbotService chatbotService;
+
+    /**
+     * ChatApiController
+     */
+    @InjectMocks
+    private ChatApiController chatApiController;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Tests starting a chat.
+     */
+    @Test
+    void testStartChat() {
+        ChatTurn turn = new ChatTurn("token", List.of("Welcome"), List.of("yes"), false);
+        when(chatbotService.startChat()).thenReturn(turn);
+
+        assertSame(turn, chatApiController.startChat());
+    }
+
+    /**
+     * Tests that a response is passed to the service and its turn returned.
+     */
+    @Test
+    void testRespond() {
+        ChatTurn turn = new ChatTurn("token", List.of("Menu"), List.of("back"), false);
+        when(chatbotService.respond("token", "yes")).thenReturn(turn);
+
+        assertSame(turn, chatApiController.respond("token", new ChatRequest("yes")));
+    }
+
+    /**
+     * Tests that empty responses are rejected without reaching the service.
+     */
+    @Test
+    void testRespondEmpty() {
+        assertThrows(IllegalArgumentException.class, () -> chatApiController.respond("token", new ChatRequest(" ")));
+        assertThrows(IllegalArgumentException.class, () -> chatApiController.respond("token", new ChatRequest()));
+        verifyNoInteractions(chatbotService);
+    }
+
+    /**
+     * Tests that the history of a session is read from the service.
+     */
+    @Test
+    void testHistory() {
+        List<String> history = List.of("Welcome", "You: yes", "Menu");
+        when(chatbotService.getConversationHistory("token")).thenReturn(history);
+
+        assertSame(history, chatApiController.history("token"));
+    }
+
+    /**
+     * Tests that the history of an unknown session is not found.
+     */
+    @Test
+    void testHistoryUnknownSession() {
+        when(chatbotService.getConversationHistory("expired")).thenThrow(new ChatSessionNotFoundException("expired"));
+
+        assertThrows(ChatSessionNotFoundException.class, () -> chatApiController.history("expired"));
+    }
+
+    /**
+     * Tests the error responses.
+     */
+    @Test
+    void testErrorResponses() {
+        assertEquals(HttpStatus.NOT_FOUND,
+                chatApiController.handleMissingSession(new ChatSessionNotFoundException("token")).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                chatApiController.handleInvalidRequest(new IllegalArgumentException("bad")).getStatusCode());
+    }
+}
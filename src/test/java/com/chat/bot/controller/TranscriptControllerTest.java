@@ -0,0 +1,135 @@
+package com.chat.bot.controller;
+
+import com.chat.bot.entity.ChatTransaction;
+import com.chat.bot.service.TranscriptService;
+import com.chat.bot.transcript.TranscriptCursor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the TranscriptController class.
+ */
+class TranscriptControllerTest {
+
+    /**
+     * TranscriptService
+     */
+    @Mock
+    private TranscriptService transcriptService;
+
+    /**
+     * JSON mapper
+     */
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    /**
+     * TranscriptController
+     */
+    @InjectMocks
+    private TranscriptController transcriptController;
+
+    /**
+     * Sample transaction
+     */
+    private ChatTransaction transaction;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        transaction = new ChatTransaction(5L, 7L, "Hello", "User", LocalDateTime.of(2025, 6, 1, 12, 0));
+    }
+
+    /**
+     * Tests that a session transcript is streamed as JSON together with the next cursor.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSessionTranscript() throws Exception {
+        TranscriptCursor next = TranscriptCursor.of(transaction);
+        when(transcriptService.readSession(eq(7L), isNull(), eq(1000), any())).thenAnswer(invocation -> {
+            invocation.getArgument(3, Consumer.class).accept(transaction);
+            return next;
+        });
+
+        JsonNode body = render(transcriptController.sessionTranscript(7L, null, null));
+
+        assertEquals(1, body.get("transactions").size());
+        assertEquals("Hello", body.get("transactions").get(0).get("message").asText());
+        assertEquals(next.encode(), body.get("next").asText());
+    }
+
+    /**
+     * Tests that the cursor is parsed and the limit is capped.
+     */
+    @Test
+    void testSessionTranscriptWithCursor() throws Exception {
+        TranscriptCursor after = TranscriptCursor.of(transaction);
+        when(transcriptService.readSession(eq(7L), eq(after), eq(100000), any())).thenReturn(null);
+
+        JsonNode body = render(transcriptController.sessionTranscript(7L, after.encode(), Integer.MAX_VALUE));
+
+        assertEquals(0, body.get("transactions").size());
+        assertTrue(body.get("next").isNull());
+    }
+
+    /**
+     * Tests streaming a time window.
+     */
+    @Test
+    void testWindowTranscript() throws Exception {
+        LocalDateTime from = transaction.getTimestamp();
+        LocalDateTime to = from.plusHours(1);
+        when(transcriptService.readWindow(eq(from), eq(to), isNull(), eq(10), any())).thenReturn(null);
+
+        JsonNode body = render(transcriptController.windowTranscript(from, to, null, 10));
+
+        assertTrue(body.get("next").isNull());
+        verify(transcriptService).readWindow(eq(from), eq(to), isNull(), eq(10), any());
+    }
+
+    /**
+     * Tests that invalid parameters are rejected before anything is streamed.
+     */
+    @Test
+    void testInvalidParameters() {
+        LocalDateTime now = transaction.getTimestamp();
+        assertThrows(IllegalArgumentException.class, () -> transcriptController.sessionTranscript(7L, "bad", null));
+        assertThrows(IllegalArgumentException.class, () -> transcriptController.sessionTranscript(7L, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> transcriptController.windowTranscript(now, now, null, null));
+        assertEquals(HttpStatus.BAD_REQUEST,
+                transcriptController.handleInvalidRequest(new IllegalArgumentException("bad")).getStatusCode());
+        verifyNoInteractions(transcriptService);
+    }
+
+    private JsonNode render(ResponseEntity<StreamingResponseBody> response) throws Exception {
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return objectMapper.readTree(out.toByteArray());
+    }
+}
@@ -1,6 +1,8 @@
 package com.chat.bot.controller.functioanl;
 
+import com.chat.bot.dto.NodeSummary;
 import com.chat.bot.entity.ConversationNode;
+import com.chat.bot.entity.ConversationNode.NodeType;
 import com.chat.bot.service.AdminService;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
@@ -16,13 +18,16 @@ import java.util.Collections;
 import java.util.List;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 /**
  * Functional tests for the AdminController class.
  */
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "chatbot.session.node-id=0")
 @ActiveProfiles("test")
 public class AdminControllerTest {
 
@@ -51,16 +56,19 @@ public class AdminControllerTest {
      */
     @Test
     public void testListNodes() {
-        List<ConversationNode> nodes = Collections.singletonList(new ConversationNode());
-        when(adminService.getAllNodes()).thenReturn(nodes);
+        List<NodeSummary> nodes = Collections.singletonList(
+                new NodeSummary(1L, "Welcome", "Welcome", NodeType.FIRST_NODE, false, 2));
+        when(adminService.getNodeSummaries(anyLong(), anyInt())).thenReturn(nodes);
 
         given()
                 .when()
                 .get("/admin")
                 .then()
-                .statusCode(HttpStatus.OK.value());
+                .statusCode(HttpStatus.OK.value())
+                .body(containsString("/admin/responses/1"));
 
-        verify(adminService, times(1)).getAllNodes();
+        verify(adminService, times(1)).getNodeSummaries(0L, 51);
+        verify(adminService, never()).getAllNodes();
     }
 
     /**
@@ -69,7 +77,7 @@ public class AdminControllerTest {
     @Test
     public void testEditNode() {
         ConversationNode node = new ConversationNode();
-        when(adminService.getNodeById(1L)).thenReturn(node);
+        when(adminService.getNodeWithBody(1L)).thenReturn(node);
 
         given()
                 .when()
@@ -77,7 +85,7 @@ public class AdminControllerTest {
                 .then()
                 .statusCode(HttpStatus.OK.value());
 
-        verify(adminService, times(1)).getNodeById(1L);
+        verify(adminService, times(1)).getNodeWithBody(1L);
     }
 
     /**
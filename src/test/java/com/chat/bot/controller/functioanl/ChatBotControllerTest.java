@@ -1,7 +1,10 @@
 package com.chat.bot.controller.functioanl;
 
+import com.chat.bot.dto.ChatTurn;
 import com.chat.bot.service.ChatbotService;
+import com.chat.bot.session.ChatSessionNotFoundException;
 import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -13,12 +16,14 @@ import org.springframework.test.context.ActiveProfiles;
 import java.util.List;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.Mockito.*;
 
 /**
- * Functional tests for the ChatBotController class.
+ * Functional tests for the ChatBotController and ChatApiController classes.
  */
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "chatbot.session.node-id=0")
 @ActiveProfiles("test")
 public class ChatBotControllerTest {
 
@@ -37,20 +42,83 @@ public class ChatBotControllerTest {
     }
 
     /**
-     * Tests the start of a new chat session.
+     * Tests that the chat page is served without starting a chat.
      */
     @Test
-    public void testStartChat() {
-        List<String> messages = List.of("Hello, how can I help you?");
-        when(chatbotService.getConversationHistory()).thenReturn(messages);
-
+    public void testChatPage() {
         given()
                 .when()
                 .get("/chatbot")
                 .then()
                 .statusCode(HttpStatus.OK.value());
 
-        verify(chatbotService, times(1)).initializeChat();
-        verify(chatbotService, times(1)).getConversationHistory();
+        verifyNoInteractions(chatbotService);
+    }
+
+    /**
+     * Tests the start of a new chat session over the API.
+     */
+    @Test
+    public void testStartChat() {
+        when(chatbotService.startChat()).thenReturn(new ChatTurn("token", List.of("Hello, how can I help you?"), List.of("Yes"), false));
+
+        given()
+                .when()
+                .post("/api/chat")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("token", equalTo("token"))
+                .body("messages", contains("Hello, how can I help you?"))
+                .body("options", contains("Yes"))
+                .body("ended", equalTo(false));
+    }
+
+    /**
+     * Tests that a turn returns only the new messages.
+     */
+    @Test
+    public void testRespond() {
+        when(chatbotService.respond("token", "Yes")).thenReturn(new ChatTurn("token", List.of("Great!"), List.of(), true));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"response\": \"Yes\"}")
+                .when()
+                .post("/api/chat/token")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("messages", contains("Great!"))
+                .body("ended", equalTo(true));
+    }
+
+    /**
+     * Tests that a turn on an expired session is answered with 404.
+     */
+    @Test
+    public void testRespondExpiredSession() {
+        when(chatbotService.respond("gone", "Yes")).thenThrow(new ChatSessionNotFoundException("gone"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"response\": \"Yes\"}")
+                .when()
+                .post("/api/chat/gone")
+                .then()
+                .statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+    /**
+     * Tests that the history of a session is returned over the API.
+     */
+    @Test
+    public void testHistory() {
+        when(chatbotService.getConversationHistory("token")).thenReturn(List.of("Hello", "You: Yes", "Great!"));
+
+        given()
+                .when()
+                .get("/api/chat/token/history")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("$", contains("Hello", "You: Yes", "Great!"));
     }
 }
@@ -0,0 +1,144 @@
+package com.chat.bot.graph;
+
+import com.chat.bot.entity.ConversationNode;
+import com.chat.bot.entity.ConversationNode.NodeType;
+import com.chat.bot.repository.ConversationNodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the ConversationGraphCache class.
+ */
+class ConversationGraphCacheTest {
+
+    /**
+     * Mocked repository for conversation nodes.
+     */
+    @Mock
+    private ConversationNodeRepository repository;
+
+    /**
+     * Cache under test.
+     */
+    @InjectMocks
+    private ConversationGraphCache graphCache;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Tests that the graph is compiled once and indexed by ID and type.
+     */
+    @Test
+    void testCurrentCompilesOnce() {
+        when(repository.findAllWithResponses()).thenReturn(List.of(
+                node(1L, NodeType.FIRST_NODE, Map.of("yes", 2L)),
+                node(2L, NodeType.END_NODE, Map.of())));
+
+        ConversationGraph graph = graphCache.current();
+
+        assertSame(graph, graphCache.current());
+        assertEquals(2, graph.size());
+        assertEquals(1L, graph.findByNodeType(NodeType.FIRST_NODE).orElseThrow().getId());
+        assertEquals(2L, graph.findNode(1L).orElseThrow().findNextNodeId("YES"));
+        assertEquals(1, graph.findAllByNodeType(NodeType.END_NODE).size());
+        assertTrue(graph.findByNodeType(NodeType.INVALID_NODE).isEmpty());
+        verify(repository, times(1)).findAllWithResponses();
+    }
+
+    /**
+     * Tests that the special nodes are resolved when the graph is compiled and follow node changes.
+     */
+    @Test
+    void testSpecialNodes() {
+        when(repository.findAllWithResponses()).thenReturn(List.of(
+                node(5L, NodeType.FIRST_NODE, Map.of()),
+                node(6L, NodeType.INVALID_NODE, Map.of()),
+                node(7L, NodeType.END_NODE, Map.of()),
+                node(8L, NodeType.END_NODE, Map.of("yes", 5L))));
+
+        ConversationGraph graph = graphCache.current();
+
+        assertEquals(5L, graph.findFirstNode().orElseThrow().getId());
+        assertEquals(6L, graph.findInvalidNode().orElseThrow().getId());
+        assertEquals(8L, graph.findRestartNode().orElseThrow().getId());
+
+        when(repository.findAllWithResponsesByIdIn(List.of(6L, 8L))).thenReturn(List.of(node(8L, NodeType.END_NODE, Map.of())));
+        ConversationGraph after = graphCache.refreshNodes(List.of(6L, 8L));
+
+        assertEquals(5L, after.findFirstNode().orElseThrow().getId());
+        assertTrue(after.findInvalidNode().isEmpty());
+        assertTrue(after.findRestartNode().isEmpty());
+        assertTrue(ConversationGraph.EMPTY.findFirstNode().isEmpty());
+    }
+
+    /**
+     * Tests that refreshing nodes replaces changed nodes, drops deleted ones and keeps the rest.
+     */
+    @Test
+    void testRefreshNodes() {
+        ConversationNode first = node(1L, NodeType.FIRST_NODE, Map.of("yes", 2L));
+        when(repository.findAllWithResponses()).thenReturn(List.of(first, node(2L, NodeType.NORMAL_NODE, Map.of()),
+                node(3L, NodeType.NORMAL_NODE, Map.of())));
+        ConversationGraph before = graphCache.current();
+
+        when(repository.findAllWithResponsesByIdIn(List.of(1L, 3L))).thenReturn(List.of(node(1L, NodeType.FIRST_NODE, Map.of("yes", 2L, "maybe", 2L))));
+        ConversationGraph after = graphCache.refreshNodes(List.of(1L, 3L));
+
+        assertNotSame(before, after);
+        assertSame(after, graphCache.current());
+        assertEquals(2L, after.findNode(1L).orElseThrow().findNextNodeId("Maybe"));
+        assertEquals(ResponseIndex.NO_MATCH, before.findNode(1L).orElseThrow().findNextNodeId("Maybe"));
+        assertTrue(after.findNode(3L).isEmpty());
+        assertSame(before.findNode(2L).orElseThrow(), after.findNode(2L).orElseThrow());
+        verify(repository, times(1)).findAllWithResponses();
+    }
+
+    /**
+     * Tests that refreshing nodes keeps the nodes of each type ordered by ID, moves retyped nodes between types and
+     * shares the lists of the types left untouched.
+     */
+    @Test
+    void testRefreshNodesKeepsTypesOrdered() {
+        when(repository.findAllWithResponses()).thenReturn(List.of(node(1L, NodeType.FIRST_NODE, Map.of()),
+                node(2L, NodeType.NORMAL_NODE, Map.of()), node(4L, NodeType.NORMAL_NODE, Map.of()),
+                node(6L, NodeType.END_NODE, Map.of())));
+        ConversationGraph before = graphCache.current();
+
+        when(repository.findAllWithResponsesByIdIn(List.of(3L, 5L, 6L))).thenReturn(List.of(
+                node(5L, NodeType.NORMAL_NODE, Map.of()), node(3L, NodeType.NORMAL_NODE, Map.of()),
+                node(6L, NodeType.NORMAL_NODE, Map.of())));
+        ConversationGraph after = graphCache.refreshNodes(List.of(3L, 5L, 6L));
+
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L), after.findAllByNodeType(NodeType.NORMAL_NODE).stream()
+                .map(GraphNode::getId).toList());
+        assertTrue(after.findAllByNodeType(NodeType.END_NODE).isEmpty());
+        assertSame(before.findAllByNodeType(NodeType.FIRST_NODE), after.findAllByNodeType(NodeType.FIRST_NODE));
+        assertEquals(List.of(2L, 4L), before.findAllByNodeType(NodeType.NORMAL_NODE).stream()
+                .map(GraphNode::getId).toList());
+    }
+
+    private static ConversationNode node(Long id, NodeType nodeType, Map<String, Long> responses) {
+        ConversationNode node = new ConversationNode();
+        node.setId(id);
+        node.setMessage("Message " + id);
+        node.setNodeType(nodeType);
+        node.setResponses(new HashMap<>(responses));
+        return node;
+    }
+}
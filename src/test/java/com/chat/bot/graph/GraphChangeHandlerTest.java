@@ -0,0 +1,118 @@
+package com.chat.bot.graph;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the GraphChangeHandler class and the encoding of graph changes.
+ */
+class GraphChangeHandlerTest {
+
+    /**
+     * Mocked cache of the compiled draft graph.
+     */
+    @Mock
+    private ConversationGraphCache draftCache;
+
+    /**
+     * Mocked cache of the published graph versions.
+     */
+    @Mock
+    private PublishedGraphCache publishedGraphCache;
+
+    /**
+     * Handler under test.
+     */
+    @InjectMocks
+    private GraphChangeHandler handler;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(draftCache.isLoaded()).thenReturn(true);
+    }
+
+    /**
+     * Tests that changed nodes are refreshed one by one rather than reloading the draft.
+     */
+    @Test
+    void testApplyNodesRefreshesOnlyThem() {
+        handler.apply(GraphChange.nodes(List.of(4L, 9L)));
+
+        verify(draftCache).refreshNodes(List.of(4L, 9L));
+        verify(draftCache, never()).reload();
+        verifyNoInteractions(publishedGraphCache);
+        assertEquals(1, handler.getAppliedCount());
+    }
+
+    /**
+     * Tests that a draft never loaded on this instance is left alone.
+     */
+    @Test
+    void testApplyToUnloadedDraftDoesNothing() {
+        when(draftCache.isLoaded()).thenReturn(false);
+
+        handler.apply(GraphChange.nodes(List.of(4L)));
+        handler.apply(GraphChange.reload());
+
+        verify(draftCache, never()).refreshNodes(any());
+        verify(draftCache, never()).reload();
+    }
+
+    /**
+     * Tests that a published version is adopted without touching the draft.
+     */
+    @Test
+    void testApplyPublishedAdoptsVersion() {
+        handler.apply(GraphChange.published(7L));
+
+        verify(publishedGraphCache).adopt(7L);
+        verify(draftCache, never()).refreshNodes(any());
+    }
+
+    /**
+     * Tests that a resync reloads the draft and adopts the latest version.
+     */
+    @Test
+    void testResync() {
+        handler.resync();
+
+        verify(draftCache).reload();
+        verify(publishedGraphCache).adoptLatest();
+    }
+
+    /**
+     * Tests that changes survive their encoding as notification payloads.
+     */
+    @Test
+    void testEncodeDecode() {
+        assertEquals("N:1,22,333", GraphChange.nodes(List.of(1L, 22L, 333L)).encode());
+        assertEquals("R", GraphChange.reload().encode());
+        assertEquals("P:7", GraphChange.published(7L).encode());
+
+        for (GraphChange change : List.of(GraphChange.nodes(List.of(1L, 22L)), GraphChange.nodes(List.of()),
+                GraphChange.reload(), GraphChange.published(7L))) {
+            assertEquals(change, GraphChange.decode(change.encode()));
+        }
+    }
+
+    /**
+     * Tests that an unreadable payload is taken as a reload rather than ignored.
+     */
+    @Test
+    void testDecodeUnreadablePayload() {
+        assertEquals(GraphChange.reload(), GraphChange.decode("N:1,x"));
+        assertEquals(GraphChange.reload(), GraphChange.decode("?"));
+    }
+}
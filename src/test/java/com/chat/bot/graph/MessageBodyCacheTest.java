@@ -0,0 +1,115 @@
+package com.chat.bot.graph;
+
+import com.chat.bot.entity.ConversationNode;
+import com.chat.bot.repository.GraphVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the MessageBodyCache class.
+ */
+class MessageBodyCacheTest {
+
+    /**
+     * Mocked repository for the published graph versions.
+     */
+    @Mock
+    private GraphVersionRepository repository;
+
+    /**
+     * Cache under test, holding two bodies.
+     */
+    private MessageBodyCache bodyCache;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bodyCache = new MessageBodyCache(repository, 2);
+        when(repository.findBody(anyLong(), anyLong()))
+                .thenAnswer(invocation -> Optional.of("Body of " + invocation.getArgument(1)));
+    }
+
+    /**
+     * Tests that nodes without a body send their message without reading the database.
+     */
+    @Test
+    void testMessageOfNodeWithoutBody() {
+        assertEquals("Hi", bodyCache.messageOf(node(1L, 1L, "Hi", 0)));
+        verifyNoInteractions(repository);
+    }
+
+    /**
+     * Tests that a body is read once per version, even for another instance of the node.
+     */
+    @Test
+    void testBodyIsCached() {
+        assertEquals("Body of 1", bodyCache.messageOf(node(1L, 1L, "Summary", 9)));
+        assertEquals("Body of 1", bodyCache.messageOf(node(1L, 1L, "Summary", 9)));
+
+        verify(repository, times(1)).findBody(1L, 1L);
+        assertEquals(1, bodyCache.size());
+        assertEquals(1, bodyCache.getLoadCount());
+    }
+
+    /**
+     * Tests that each published version of a node has its own body.
+     */
+    @Test
+    void testNewVersionReadsItsOwnBody() {
+        when(repository.findBody(2L, 1L)).thenReturn(Optional.of("Edited body"));
+
+        assertEquals("Body of 1", bodyCache.bodyOf(node(1L, 1L, "Summary", 9)));
+        assertEquals("Edited body", bodyCache.bodyOf(node(2L, 1L, "Summary", 11)));
+        assertEquals("Body of 1", bodyCache.bodyOf(node(1L, 1L, "Summary", 9)));
+        assertEquals(2, bodyCache.size());
+    }
+
+    /**
+     * Tests that the least recently used body is evicted once the cache is full.
+     */
+    @Test
+    void testLeastRecentlyUsedBodyIsEvicted() {
+        GraphNode first = node(1L, 1L, "One", 9);
+        GraphNode second = node(1L, 2L, "Two", 9);
+        GraphNode third = node(1L, 3L, "Three", 9);
+
+        bodyCache.bodyOf(first);
+        bodyCache.bodyOf(second);
+        bodyCache.bodyOf(first);
+        bodyCache.bodyOf(third);
+        bodyCache.bodyOf(first);
+        bodyCache.bodyOf(second);
+
+        assertEquals(2, bodyCache.size());
+        verify(repository, times(1)).findBody(1L, 1L);
+        verify(repository, times(2)).findBody(1L, 2L);
+    }
+
+    /**
+     * Tests that a node whose body row is missing falls back to its message.
+     */
+    @Test
+    void testMissingBodyFallsBackToMessage() {
+        when(repository.findBody(1L, 1L)).thenReturn(Optional.empty());
+
+        assertEquals("Summary", bodyCache.messageOf(node(1L, 1L, "Summary", 9)));
+    }
+
+    private static GraphNode node(long version, Long id, String message, int bodyLength) {
+        ConversationNode node = new ConversationNode();
+        node.setId(id);
+        node.setMessage(message);
+        node.setBodyLength(bodyLength);
+        return GraphNode.of(node, version);
+    }
+}
@@ -0,0 +1,114 @@
+package com.chat.bot.graph;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the PostgresGraphChangeChannel class, without starting its listener.
+ */
+class PostgresGraphChangeChannelTest {
+
+    /**
+     * Mocked access to the database.
+     */
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Mocked applier of the changes.
+     */
+    @Mock
+    private GraphChangeHandler handler;
+
+    /**
+     * Channel under test.
+     */
+    private PostgresGraphChangeChannel channel;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        channel = new PostgresGraphChangeChannel(jdbcTemplate, new DataSourceProperties(), handler,
+                Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(5), false);
+    }
+
+    /**
+     * Tests that a change is sent with pg_notify and applied locally, but not applied again when it comes back.
+     */
+    @Test
+    void testPublishNotifiesAndSkipsOwnNotification() {
+        GraphChange change = GraphChange.nodes(List.of(1L, 2L));
+
+        channel.publish(change);
+
+        String payload = sentPayload();
+        assertTrue(payload.endsWith("|N:1,2"));
+        verify(handler, times(1)).apply(change);
+
+        channel.receive(payload);
+
+        verify(handler, times(1)).apply(change);
+        assertEquals(0, channel.getReceivedCount());
+    }
+
+    /**
+     * Tests that a change from another instance is applied.
+     */
+    @Test
+    void testReceiveFromOtherInstance() {
+        channel.receive("other-instance|P:3");
+
+        verify(handler).apply(GraphChange.published(3L));
+        assertEquals(1, channel.getReceivedCount());
+    }
+
+    /**
+     * Tests that a change too large for a notification is sent as a reload.
+     */
+    @Test
+    void testOversizedChangeIsSentAsReload() {
+        List<Long> nodeIds = LongStream.rangeClosed(1_000_000L, 1_002_000L).boxed().toList();
+
+        channel.publish(GraphChange.nodes(nodeIds));
+
+        assertTrue(sentPayload().endsWith("|R"));
+        verify(handler).apply(GraphChange.nodes(nodeIds));
+    }
+
+    /**
+     * Tests that the reconnection delay doubles after each failed attempt, up to its maximum.
+     */
+    @Test
+    void testReconnectionBacksOff() {
+        assertEquals(Duration.ofSeconds(1), channel.backoff(1));
+        assertEquals(Duration.ofSeconds(2), channel.backoff(2));
+        assertEquals(Duration.ofSeconds(4), channel.backoff(3));
+        assertEquals(Duration.ofSeconds(5), channel.backoff(4));
+        assertEquals(Duration.ofSeconds(5), channel.backoff(100));
+    }
+
+    private String sentPayload() {
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate).query(eq("SELECT pg_notify(?, ?)"), any(ResultSetExtractor.class),
+                eq(PostgresGraphChangeChannel.CHANNEL), payload.capture());
+        return (String) payload.getValue();
+    }
+}
@@ -0,0 +1,123 @@
+package com.chat.bot.graph;
+
+import com.chat.bot.entity.ConversationNode;
+import com.chat.bot.entity.ConversationNode.NodeType;
+import com.chat.bot.entity.GraphVersion;
+import com.chat.bot.repository.GraphVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the PublishedGraphCache class.
+ */
+class PublishedGraphCacheTest {
+
+    /**
+     * Mocked repository for the published graph versions.
+     */
+    @Mock
+    private GraphVersionRepository repository;
+
+    /**
+     * Cache under test, keeping two versions by ID.
+     */
+    private PublishedGraphCache graphCache;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        graphCache = new PublishedGraphCache(repository, 2);
+        when(repository.loadNodes(anyLong())).thenAnswer(invocation -> List.of(firstNode()));
+    }
+
+    /**
+     * Tests that the latest version is compiled once and tagged with its version.
+     */
+    @Test
+    void testCurrentCompilesLatestVersionOnce() {
+        when(repository.findTopByOrderByIdDesc()).thenReturn(Optional.of(new GraphVersion(3L, null, 1)));
+
+        ConversationGraph graph = graphCache.current();
+
+        assertSame(graph, graphCache.current());
+        assertEquals(3L, graph.getVersion());
+        assertEquals(3L, graph.findFirstNode().orElseThrow().getVersion());
+        assertEquals(3L, graphCache.currentVersion());
+        verify(repository, times(1)).findTopByOrderByIdDesc();
+        verify(repository, times(1)).loadNodes(3L);
+    }
+
+    /**
+     * Tests that nothing published yields an empty graph.
+     */
+    @Test
+    void testCurrentWithoutPublishedVersion() {
+        when(repository.findTopByOrderByIdDesc()).thenReturn(Optional.empty());
+
+        assertSame(ConversationGraph.EMPTY, graphCache.current());
+        assertEquals(0L, graphCache.currentVersion());
+        verify(repository, never()).loadNodes(anyLong());
+    }
+
+    /**
+     * Tests that adopting a version makes it current, while a graph handed out earlier is left untouched.
+     */
+    @Test
+    void testAdoptNewVersion() {
+        when(repository.findTopByOrderByIdDesc()).thenReturn(Optional.of(new GraphVersion(1L, null, 1)));
+        ConversationGraph previous = graphCache.current();
+
+        ConversationGraph adopted = graphCache.adopt(2L);
+
+        assertSame(adopted, graphCache.current());
+        assertEquals(2L, adopted.getVersion());
+        assertEquals(1L, previous.getVersion());
+        assertSame(previous, graphCache.version(1L));
+    }
+
+    /**
+     * Tests that adopting an older version does not replace a later current one.
+     */
+    @Test
+    void testAdoptOlderVersionKeepsLatest() {
+        ConversationGraph latest = graphCache.adopt(5L);
+
+        graphCache.adopt(4L);
+
+        assertSame(latest, graphCache.current());
+        verify(repository, never()).findTopByOrderByIdDesc();
+    }
+
+    /**
+     * Tests that versions beyond the capacity are compiled again when asked for by ID.
+     */
+    @Test
+    void testLeastRecentlyUsedVersionIsEvicted() {
+        graphCache.version(1L);
+        graphCache.version(2L);
+        graphCache.version(3L);
+        graphCache.version(1L);
+
+        verify(repository, times(2)).loadNodes(1L);
+        verify(repository, times(1)).loadNodes(2L);
+    }
+
+    private static ConversationNode firstNode() {
+        ConversationNode node = new ConversationNode();
+        node.setId(1L);
+        node.setMessage("Welcome");
+        node.setNodeType(NodeType.FIRST_NODE);
+        return node;
+    }
+}
@@ -0,0 +1,75 @@
+package com.chat.bot.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ResponseIndex class.
+ */
+class ResponseIndexTest {
+
+    /**
+     * Tests that keys match regardless of case and surrounding whitespace.
+     */
+    @Test
+    void testFindIgnoresCaseAndWhitespace() {
+        ResponseIndex index = ResponseIndex.of(Map.of("Yes", 2L, " no ", 3L));
+
+        assertEquals(2L, index.find("yes"));
+        assertEquals(2L, index.find("  YES\t"));
+        assertEquals(3L, index.find("No"));
+        assertEquals(ResponseIndex.NO_MATCH, index.find("maybe"));
+        assertEquals(ResponseIndex.NO_MATCH, index.find(""));
+        assertEquals(ResponseIndex.NO_MATCH, index.find(null));
+    }
+
+    /**
+     * Tests that an empty index never matches.
+     */
+    @Test
+    void testEmptyIndex() {
+        assertEquals(0, ResponseIndex.of(Map.of()).size());
+        assertEquals(ResponseIndex.NO_MATCH, ResponseIndex.of(null).find("yes"));
+    }
+
+    /**
+     * Tests that the first of two keys differing only in case wins, and entries without a target are skipped.
+     */
+    @Test
+    void testDuplicateAndIncompleteKeys() {
+        Map<String, Long> responses = new LinkedHashMap<>();
+        responses.put("Menu", 1L);
+        responses.put("MENU", 2L);
+        responses.put("dangling", null);
+
+        ResponseIndex index = ResponseIndex.of(responses);
+
+        assertEquals(1, index.size());
+        assertEquals(1L, index.find("menu"));
+        assertEquals(ResponseIndex.NO_MATCH, index.find("dangling"));
+    }
+
+    /**
+     * Tests lookups on a node with many options.
+     */
+    @Test
+    void testManyOptions() {
+        Map<String, Long> responses = new HashMap<>();
+        for (long i = 0; i < 1000; i++) {
+            responses.put("Option " + i, i);
+        }
+
+        ResponseIndex index = ResponseIndex.of(responses);
+
+        assertEquals(1000, index.size());
+        for (long i = 0; i < 1000; i++) {
+            assertEquals(i, index.find("option " + i));
+        }
+        assertEquals(ResponseIndex.NO_MATCH, index.find("option 1000"));
+    }
+}
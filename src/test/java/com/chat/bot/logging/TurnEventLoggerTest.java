@@ -0,0 +1,108 @@
+package com.chat.bot.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.chat.bot.entity.ConversationNode;
+import com.chat.bot.entity.ConversationNode.NodeType;
+import com.chat.bot.graph.GraphNode;
+import com.chat.bot.metrics.TurnOutcome;
+import com.chat.bot.session.ConversationSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TurnEventLogger class.
+ */
+class TurnEventLoggerTest {
+
+    /**
+     * Logger the events are written to.
+     */
+    private Logger logger;
+
+    /**
+     * Appender collecting the events.
+     */
+    private ListAppender<ILoggingEvent> appender;
+
+    /**
+     * Session the turns are logged for.
+     */
+    private ConversationSession session;
+
+    /**
+     * Attaches a collecting appender to the turn logger and builds a session sitting on node 4.
+     */
+    @BeforeEach
+    void setUp() {
+        logger = (Logger) LoggerFactory.getLogger(TurnEventLogger.LOGGER_NAME);
+        appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+
+        ConversationNode node = new ConversationNode();
+        node.setId(4L);
+        node.setMessage("Next node message");
+        node.setNodeType(NodeType.NORMAL_NODE);
+        node.setResponses(new HashMap<>());
+        session = new ConversationSession("token", 42L);
+        session.setCurrentNode(GraphNode.of(node));
+    }
+
+    /**
+     * Detaches the collecting appender.
+     */
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    /**
+     * Tests that a sampled turn is logged as key/value pairs without the user's text.
+     */
+    @Test
+    void testLogsEveryTurnAtFullRate() {
+        new TurnEventLogger(1).logTurn(session, 1L, TurnOutcome.VALID, 12_345);
+
+        assertEquals(1, appender.list.size());
+        Map<String, Object> fields = appender.list.get(0).getKeyValuePairs().stream()
+                .collect(Collectors.toMap(pair -> pair.key, pair -> pair.value));
+        assertEquals(42L, fields.get("sessionId"));
+        assertEquals(1L, fields.get("fromNode"));
+        assertEquals(4L, fields.get("toNode"));
+        assertEquals("valid", fields.get("outcome"));
+        assertEquals(12L, fields.get("latencyMicros"));
+    }
+
+    /**
+     * Tests that no turn is logged at a zero rate.
+     */
+    @Test
+    void testLogsNothingAtZeroRate() {
+        TurnEventLogger turnEventLogger = new TurnEventLogger(0);
+
+        for (int i = 0; i < 1000; i++) {
+            turnEventLogger.logTurn(session, 1L, TurnOutcome.INVALID, 1000);
+        }
+
+        assertTrue(appender.list.isEmpty());
+    }
+
+    /**
+     * Tests that a rate outside [0, 1] is rejected.
+     */
+    @Test
+    void testRejectsInvalidRate() {
+        assertThrows(IllegalArgumentException.class, () -> new TurnEventLogger(1.5));
+        assertThrows(IllegalArgumentException.class, () -> new TurnEventLogger(-0.1));
+    }
+}
@@ -0,0 +1,93 @@
+package com.chat.bot.service;
+
+import com.chat.bot.ChatBotApplication;
+import com.chat.bot.graph.ConversationGraph;
+import com.chat.bot.graph.ConversationGraphCache;
+import com.chat.bot.graph.ResponseIndex;
+import com.chat.bot.support.H2TestProperties;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that response edits made through the AdminService reach the compiled draft graph, on the seeded graph of
+ * an in-memory H2 database. The draft is refreshed right after each commit, still inside the persistence context
+ * of the edit, so the graph only shows the edit if the native response statements left no stale node behind.
+ */
+class AdminServiceResponseEditTest {
+
+    /**
+     * Application booted on H2.
+     */
+    private static ConfigurableApplicationContext context;
+
+    /**
+     * Service under test.
+     */
+    private static AdminService adminService;
+
+    /**
+     * Cache of the compiled draft graph.
+     */
+    private static ConversationGraphCache graphCache;
+
+    /**
+     * Boots the application and loads the draft graph, so edits are applied to it.
+     */
+    @BeforeAll
+    static void setUp() {
+        Map<String, Object> properties = H2TestProperties.forDatabase("admin-response-edit");
+        properties.put("server.port", "0");
+        context = new SpringApplicationBuilder(ChatBotApplication.class).properties(properties).run();
+        adminService = context.getBean(AdminService.class);
+        graphCache = context.getBean(ConversationGraphCache.class);
+        graphCache.current();
+    }
+
+    /**
+     * Shuts the application down.
+     */
+    @AfterAll
+    static void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Tests that adding, retargeting and removing single responses are reflected in the refreshed graph.
+     */
+    @Test
+    void testSingleResponseEditsRefreshTheGraph() {
+        adminService.addResponse(4L, "4", 9L);
+        assertEquals(9L, nextNodeId(4L, "4"));
+
+        adminService.retargetResponse(4L, "4", 8L);
+        assertEquals(8L, nextNodeId(4L, "4"));
+
+        adminService.removeResponse(4L, "4");
+        assertEquals(ResponseIndex.NO_MATCH, nextNodeId(4L, "4"));
+    }
+
+    /**
+     * Tests that saving the responses of a node loaded in the same transaction is reflected in the refreshed graph.
+     */
+    @Test
+    void testSavedResponsesRefreshTheGraph() {
+        adminService.saveResponses(8L, List.of("yes", "later"), List.of(3L, 9L));
+
+        ConversationGraph graph = graphCache.current();
+        assertEquals(3L, graph.findNode(8L).orElseThrow().findNextNodeId("yes"));
+        assertEquals(9L, graph.findNode(8L).orElseThrow().findNextNodeId("later"));
+        assertEquals(ResponseIndex.NO_MATCH, graph.findNode(8L).orElseThrow().findNextNodeId("no"));
+    }
+
+    private static long nextNodeId(Long nodeId, String response) {
+        return graphCache.current().findNode(nodeId).orElseThrow().findNextNodeId(response);
+    }
+}
@@ -1,21 +1,34 @@
 package com.chat.bot.service;
 
 import com.chat.bot.constants.ChatMessages;
+import com.chat.bot.dto.NodeOption;
+import com.chat.bot.dto.NodeSummary;
 import com.chat.bot.entity.ConversationNode;
 import com.chat.bot.entity.ConversationNode.NodeType;
+import com.chat.bot.entity.ConversationNodeBody;
+import com.chat.bot.entity.GraphVersion;
+import com.chat.bot.graph.GraphChange;
+import com.chat.bot.graph.GraphChangeChannel;
+import com.chat.bot.metrics.ChatMetrics;
+import com.chat.bot.repository.ConversationNodeBodyRepository;
 import com.chat.bot.repository.ConversationNodeRepository;
+import com.chat.bot.repository.GraphVersionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,6 +44,30 @@ class AdminServiceTest {
     @Mock
     private ConversationNodeRepository repository;
 
+    /**
+     * Mocked meters of the chat engine.
+     */
+    @Mock
+    private ChatMetrics chatMetrics;
+
+    /**
+     * Mocked repository for the bodies of conversation nodes.
+     */
+    @Mock
+    private ConversationNodeBodyRepository bodyRepository;
+
+    /**
+     * Mocked repository for the published graph versions.
+     */
+    @Mock
+    private GraphVersionRepository versionRepository;
+
+    /**
+     * Mocked channel announcing graph changes to every instance.
+     */
+    @Mock
+    private GraphChangeChannel graphChanges;
+
     /**
      * Service instance under test.
      */
@@ -55,6 +92,7 @@ class AdminServiceTest {
         invalidNode.setDeletable(false);
         invalidNode.setNodeType(NodeType.INVALID_NODE);
 
+        when(repository.findFirstIdByNodeType(NodeType.INVALID_NODE)).thenReturn(Optional.of(999L));
         when(repository.save(any(ConversationNode.class))).thenAnswer(invocation -> {
             ConversationNode node = invocation.getArgument(0);
             if (node.getId() == null) {
@@ -76,6 +114,50 @@ class AdminServiceTest {
         verify(repository, times(1)).findAll();
     }
 
+    /**
+     * Tests that the node listing is read a page at a time from the summary projection, without loading the nodes.
+     */
+    @Test
+    void testGetNodeSummaries() {
+        List<NodeSummary> summaries = List.of(new NodeSummary(1L, "Welcome", "Welcome", NodeType.FIRST_NODE, false, 2));
+        when(repository.findSummariesAfter(0L, PageRequest.ofSize(51))).thenReturn(summaries);
+
+        assertSame(summaries, adminService.getNodeSummaries(0L, 51));
+        verify(repository, never()).findAll();
+    }
+
+    /**
+     * Tests that the search query is turned into an escaped, lower-case prefix pattern.
+     */
+    @Test
+    void testSearchNodes() {
+        List<NodeOption> options = List.of();
+        when(repository.searchOptions(anyString(), eq(20))).thenReturn(options);
+
+        assertSame(options, adminService.searchNodes("  Gree", 20));
+        adminService.searchNodes("100%_\\", 20);
+
+        verify(repository).searchOptions("gree%", 20);
+        verify(repository).searchOptions("100\\%\\_\\\\%", 20);
+    }
+
+    /**
+     * Tests that the names of the next nodes are fetched in one query for the distinct targets.
+     */
+    @Test
+    void testGetNextNodeNames() {
+        ConversationNode node = new ConversationNode();
+        node.setResponses(Map.of("yes", 2L, "ok", 2L, "no", 3L));
+        NodeOption goodbye = mock(NodeOption.class);
+        when(goodbye.getId()).thenReturn(2L);
+        when(goodbye.getName()).thenReturn("Goodbye");
+        when(repository.findOptionsByIds(Set.of(2L, 3L))).thenReturn(List.of(goodbye));
+
+        assertEquals(Map.of(2L, "Goodbye"), adminService.getNextNodeNames(node));
+        assertTrue(adminService.getNextNodeNames(new ConversationNode()).isEmpty());
+        verify(repository, times(1)).findOptionsByIds(any());
+    }
+
     /**
      * Tests the retrieval of a conversation node by its ID.
      */
@@ -107,10 +189,87 @@ class AdminServiceTest {
         ConversationNode node = new ConversationNode();
         node.setNodeType(NodeType.NORMAL_NODE);
 
-        when(repository.count()).thenReturn(1L);
         adminService.saveNode(node);
 
         verify(repository, times(1)).save(node);
+        verify(repository, never()).existsAnyNode();
+        verify(repository, never()).count();
+        verify(graphChanges, times(1)).publish(GraphChange.nodes(Collections.singletonList(node.getId())));
+        verify(graphChanges, never()).publish(GraphChange.reload());
+        verify(chatMetrics).countGraphEdit("save-node");
+    }
+
+    /**
+     * Tests that a body submitted with a node is stored apart and its length recorded on the node.
+     */
+    @Test
+    void testSaveNodeWritesBody() {
+        ConversationNode node = new ConversationNode();
+        node.setMessage("Shift offer");
+        node.setBody("Long offer ".repeat(100));
+
+        adminService.saveNode(node);
+
+        assertEquals(1100, node.getBodyLength());
+        verify(repository).save(node);
+        verify(bodyRepository).save(new ConversationNodeBody(node.getId(), node.getBody()));
+    }
+
+    /**
+     * Tests that a blank body removes the stored one, and that no body leaves it as is.
+     */
+    @Test
+    void testSaveNodeRemovesOrKeepsBody() {
+        ConversationNode stored = new ConversationNode();
+        stored.setId(1L);
+        stored.setBodyLength(500);
+        when(repository.findById(1L)).thenReturn(Optional.of(stored));
+
+        ConversationNode kept = new ConversationNode();
+        kept.setId(1L);
+        adminService.saveNode(kept);
+        assertEquals(500, kept.getBodyLength());
+        verifyNoInteractions(bodyRepository);
+
+        ConversationNode cleared = new ConversationNode();
+        cleared.setId(1L);
+        cleared.setBody("  ");
+        adminService.saveNode(cleared);
+        assertEquals(0, cleared.getBodyLength());
+        verify(bodyRepository).deleteById(1L);
+        verify(bodyRepository, never()).save(any());
+    }
+
+    /**
+     * Tests that the body is only read for nodes having one.
+     */
+    @Test
+    void testGetNodeWithBody() {
+        ConversationNode withBody = new ConversationNode();
+        withBody.setBodyLength(4);
+        ConversationNode withoutBody = new ConversationNode();
+        when(repository.findById(1L)).thenReturn(Optional.of(withBody));
+        when(repository.findById(2L)).thenReturn(Optional.of(withoutBody));
+        when(bodyRepository.findBodyByNodeId(1L)).thenReturn(Optional.of("Body"));
+
+        assertEquals("Body", adminService.getNodeWithBody(1L).getBody());
+        assertEquals("", adminService.getNodeWithBody(2L).getBody());
+        verify(bodyRepository, never()).findBodyByNodeId(2L);
+    }
+
+    /**
+     * Tests that a non-normal node saved into an empty graph becomes the first node.
+     */
+    @Test
+    void testSaveNodeMakesEndNodeFirstInEmptyGraph() {
+        ConversationNode node = new ConversationNode();
+        node.setNodeType(NodeType.END_NODE);
+
+        when(repository.existsAnyNode()).thenReturn(false);
+        adminService.saveNode(node);
+
+        assertEquals(NodeType.FIRST_NODE, node.getNodeType());
+        verify(repository, never()).count();
     }
 
     /**
@@ -121,7 +280,7 @@ class AdminServiceTest {
         ConversationNode node = new ConversationNode();
         node.setNodeType(NodeType.FIRST_NODE);
 
-        when(repository.count()).thenReturn(0L);
+        when(repository.existsAnyNode()).thenReturn(false);
         adminService.saveNode(node);
 
         assertEquals(NodeType.FIRST_NODE, node.getNodeType());
@@ -135,7 +294,48 @@ class AdminServiceTest {
     void testDeleteAllNodes() {
         adminService.deleteAllNodes();
 
+        verify(bodyRepository, times(1)).deleteAllInBatch();
         verify(repository, times(1)).deleteAll();
+        verify(graphChanges, times(1)).publish(GraphChange.reload());
+    }
+
+    /**
+     * Tests that publishing copies the draft into a new version and makes it current, without touching the draft.
+     */
+    @Test
+    void testPublishDraft() {
+        when(repository.findFirstIdByNodeType(NodeType.FIRST_NODE)).thenReturn(Optional.of(1L));
+        when(versionRepository.save(any(GraphVersion.class))).thenAnswer(invocation -> {
+            GraphVersion version = invocation.getArgument(0);
+            version.setId(7L);
+            return version;
+        });
+        when(versionRepository.copyDraftNodes(7L)).thenReturn(2);
+
+        GraphVersion version = adminService.publishDraft();
+
+        assertEquals(7L, version.getId());
+        assertEquals(2, version.getNodeCount());
+        assertNotNull(version.getPublishedAt());
+        InOrder inOrder = inOrder(versionRepository, graphChanges);
+        inOrder.verify(versionRepository).copyDraftNodes(7L);
+        inOrder.verify(versionRepository).copyDraftResponses(7L);
+        inOrder.verify(versionRepository).copyDraftBodies(7L);
+        inOrder.verify(graphChanges).publish(GraphChange.published(7L));
+        verify(repository, never()).save(any());
+        verify(chatMetrics).countGraphEdit("publish");
+    }
+
+    /**
+     * Tests that a draft without a first node is not published.
+     */
+    @Test
+    void testPublishDraftRequiresFirstNode() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> adminService.publishDraft());
+
+        assertEquals("The draft has no first node to publish.", exception.getMessage());
+        verifyNoInteractions(versionRepository, graphChanges);
     }
 
     /**
@@ -152,6 +352,10 @@ class AdminServiceTest {
         adminService.deleteNode(1L);
 
         verify(repository, times(1)).deleteById(1L);
+        verify(repository, never()).findAll();
+        verify(repository, never()).findFirstIdByNodeType(any());
+        verify(graphChanges, times(1)).publish(GraphChange.nodes(List.of(1L)));
+        verify(graphChanges, never()).publish(GraphChange.reload());
     }
 
     /**
@@ -167,6 +371,7 @@ class AdminServiceTest {
 
         assertThrows(IllegalArgumentException.class, () -> adminService.deleteNode(1L));
         verify(repository, times(0)).deleteById(1L);
+        verifyNoInteractions(graphChanges);
     }
 
     /**
@@ -181,7 +386,7 @@ class AdminServiceTest {
     }
 
     /**
-     * Tests that responses are updated correctly when a node is deleted.
+     * Tests that the responses pointing at a deleted node are redirected to the invalid node in one statement.
      */
     @Test
     void testDeleteNodeUpdatesResponsesForDeletedNode() {
@@ -189,67 +394,196 @@ class AdminServiceTest {
         node1.setId(1L);
         node1.setDeletable(true);
 
-        ConversationNode node2 = new ConversationNode();
-        node2.setId(2L);
-        Map<String, Long> responses = new HashMap<>();
-        responses.put("response", 1L);
-        node2.setResponses(responses);
-
-        invalidNode.setId(999L);
-        when(repository.findByNodeType(NodeType.INVALID_NODE)).thenReturn(Optional.of(invalidNode));
-
         when(repository.findById(1L)).thenReturn(Optional.of(node1));
         when(repository.existsById(1L)).thenReturn(true);
-        when(repository.findAll()).thenReturn(Arrays.asList(node1, node2));
+        when(repository.findReferrerIds(1L)).thenReturn(List.of(1L, 2L, 3L));
+        when(repository.redirectResponses(1L, 999L)).thenReturn(3);
 
         adminService.deleteNode(1L);
 
-        ArgumentCaptor<ConversationNode> nodeCaptor = ArgumentCaptor.forClass(ConversationNode.class);
-        verify(repository, times(2)).save(nodeCaptor.capture());
+        InOrder inOrder = inOrder(repository);
+        inOrder.verify(repository).redirectResponses(1L, 999L);
+        inOrder.verify(repository).deleteById(1L);
+        verify(repository, never()).findAll();
+        verify(repository, never()).saveAll(anyList());
+        verify(graphChanges).publish(GraphChange.nodes(List.of(2L, 3L, 999L, 1L)));
+    }
+
+    /**
+     * Tests that deleting the invalid node redirects its inbound responses to a new default invalid node.
+     */
+    @Test
+    void testDeleteInvalidNodeCreatesDefaultInvalidNode() {
+        invalidNode.setDeletable(true);
+
+        when(repository.findById(999L)).thenReturn(Optional.of(invalidNode));
+        when(repository.existsById(999L)).thenReturn(true);
+        when(repository.findReferrerIds(999L)).thenReturn(List.of(2L));
+        when(repository.save(any(ConversationNode.class))).thenAnswer(invocation -> {
+            ConversationNode created = invocation.getArgument(0);
+            created.setId(1000L);
+            return created;
+        });
+
+        adminService.deleteNode(999L);
 
-        ConversationNode updatedNode = nodeCaptor.getAllValues().get(1);
-        assertEquals(node2.getId(), updatedNode.getId());
-        assertEquals(node2.getResponses().get("response"), updatedNode.getResponses().get("response"));
+        ArgumentCaptor<ConversationNode> created = ArgumentCaptor.forClass(ConversationNode.class);
+        verify(repository).save(created.capture());
+        assertEquals(NodeType.INVALID_NODE, created.getValue().getNodeType());
+        assertFalse(created.getValue().isDeletable());
+        verify(repository).redirectResponses(999L, 1000L);
+        verify(graphChanges).publish(GraphChange.nodes(List.of(2L, 1000L, 999L)));
     }
 
     /**
-     * Tests the saving of responses for a conversation node.
+     * Tests that saving responses writes only the rows that changed.
      */
     @Test
     void testSaveResponses() {
         ConversationNode node = new ConversationNode();
         node.setId(1L);
+        node.setResponses(new HashMap<>(Map.of("yes", 2L, "no", 4L, "later", 5L)));
         when(repository.findById(1L)).thenReturn(Optional.of(node));
+        when(repository.countByIdIn(Set.of(2L, 3L, 6L))).thenReturn(3L);
 
-        adminService.saveResponses(1L, Arrays.asList("yes", "no"), Arrays.asList(2L, 3L));
-
-        ArgumentCaptor<ConversationNode> nodeCaptor = ArgumentCaptor.forClass(ConversationNode.class);
-        verify(repository, times(1)).save(nodeCaptor.capture());
+        adminService.saveResponses(1L, Arrays.asList("yes", " no ", "maybe"), Arrays.asList(2L, 3L, 6L));
 
-        Map<String, Long> responses = nodeCaptor.getValue().getResponses();
-        assertEquals(2, responses.size());
-        assertEquals(2L, responses.get("yes"));
-        assertEquals(3L, responses.get("no"));
+        verify(repository).deleteResponse(1L, "later");
+        verify(repository).updateResponse(1L, "no", 3L);
+        verify(repository).insertResponse(1L, "maybe", 6L);
+        verify(repository, never()).updateResponse(eq(1L), eq("yes"), any());
+        verify(repository, never()).insertResponse(eq(1L), eq("yes"), any());
+        verify(repository, never()).save(any());
+        verify(graphChanges, times(1)).publish(GraphChange.nodes(List.of(1L)));
     }
 
     /**
-     * Tests the addition of responses to a conversation node.
+     * Tests that adding responses inserts the new keys and updates the existing ones that changed.
      */
     @Test
     void testAddResponses() {
         ConversationNode node = new ConversationNode();
         node.setId(1L);
+        node.setResponses(new HashMap<>(Map.of("yes", 2L, "no", 3L)));
         when(repository.findById(1L)).thenReturn(Optional.of(node));
+        when(repository.countByIdIn(Set.of(4L, 5L, 7L))).thenReturn(3L);
 
-        adminService.addResponses(1L, Arrays.asList("maybe", "never"), Arrays.asList(4L, 5L));
+        adminService.addResponses(1L, Arrays.asList("maybe", "never", "yes"), Arrays.asList(4L, 5L, 7L));
 
-        ArgumentCaptor<ConversationNode> nodeCaptor = ArgumentCaptor.forClass(ConversationNode.class);
-        verify(repository, times(1)).save(nodeCaptor.capture());
+        verify(repository).insertResponse(1L, "maybe", 4L);
+        verify(repository).insertResponse(1L, "never", 5L);
+        verify(repository).updateResponse(1L, "yes", 7L);
+        verify(repository, never()).deleteResponse(any(), any());
+        verify(repository, never()).save(any());
+        verify(graphChanges, times(1)).publish(GraphChange.nodes(List.of(1L)));
+    }
 
-        Map<String, Long> responses = nodeCaptor.getValue().getResponses();
-        assertEquals(2, responses.size());
-        assertEquals(4L, responses.get("maybe"));
-        assertEquals(5L, responses.get("never"));
+    /**
+     * Tests that responses leading to nodes that do not exist are rejected before anything is written.
+     */
+    @Test
+    void testSaveResponsesRejectsUnknownNextNode() {
+        when(repository.countByIdIn(Set.of(2L, 9L))).thenReturn(1L);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> adminService.saveResponses(1L, Arrays.asList("yes", "no"), Arrays.asList(2L, 9L)));
+        assertThrows(IllegalArgumentException.class,
+                () -> adminService.addResponses(1L, Arrays.asList("yes", "no"), Arrays.asList(2L, 9L)));
+        verify(repository, never()).findById(any());
+        verifyNoInteractions(graphChanges, chatMetrics);
+    }
+
+    /**
+     * Tests adding a single response.
+     */
+    @Test
+    void testAddResponse() {
+        when(repository.existsById(1L)).thenReturn(true);
+        when(repository.existsById(2L)).thenReturn(true);
+        when(repository.insertResponse(1L, "yes", 2L)).thenReturn(1);
+
+        adminService.addResponse(1L, " yes ", 2L);
+
+        verify(repository).insertResponse(1L, "yes", 2L);
+        verify(graphChanges).publish(GraphChange.nodes(List.of(1L)));
+    }
+
+    /**
+     * Tests that adding a response with an existing key fails.
+     */
+    @Test
+    void testAddResponseRejectsExistingKey() {
+        when(repository.existsById(1L)).thenReturn(true);
+        when(repository.existsById(2L)).thenReturn(true);
+        when(repository.insertResponse(1L, "yes", 2L)).thenReturn(0);
+
+        assertThrows(IllegalArgumentException.class, () -> adminService.addResponse(1L, "yes", 2L));
+        verifyNoInteractions(graphChanges, chatMetrics);
+    }
+
+    /**
+     * Tests that a response cannot lead to a node that does not exist.
+     */
+    @Test
+    void testAddResponseRejectsUnknownNextNode() {
+        when(repository.existsById(1L)).thenReturn(true);
+        when(repository.existsById(2L)).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> adminService.addResponse(1L, "yes", 2L));
+        assertThrows(IllegalArgumentException.class, () -> adminService.addResponse(1L, " ", 1L));
+        verify(repository, never()).insertResponse(any(), any(), any());
+    }
+
+    /**
+     * Tests retargeting a single response.
+     */
+    @Test
+    void testRetargetResponse() {
+        when(repository.existsById(1L)).thenReturn(true);
+        when(repository.existsById(3L)).thenReturn(true);
+        when(repository.updateResponse(1L, "yes", 3L)).thenReturn(1);
+
+        adminService.retargetResponse(1L, "yes", 3L);
+
+        verify(repository).updateResponse(1L, "yes", 3L);
+        verify(graphChanges).publish(GraphChange.nodes(List.of(1L)));
+    }
+
+    /**
+     * Tests that retargeting a missing response fails.
+     */
+    @Test
+    void testRetargetResponseRejectsMissingKey() {
+        when(repository.existsById(1L)).thenReturn(true);
+        when(repository.existsById(3L)).thenReturn(true);
+
+        assertThrows(IllegalArgumentException.class, () -> adminService.retargetResponse(1L, "yes", 3L));
+        verifyNoInteractions(graphChanges);
+    }
+
+    /**
+     * Tests removing a single response.
+     */
+    @Test
+    void testRemoveResponse() {
+        when(repository.existsById(1L)).thenReturn(true);
+        when(repository.deleteResponse(1L, "yes")).thenReturn(1);
+
+        adminService.removeResponse(1L, "yes");
+
+        verify(repository).deleteResponse(1L, "yes");
+        verify(graphChanges).publish(GraphChange.nodes(List.of(1L)));
+    }
+
+    /**
+     * Tests that removing a missing response fails.
+     */
+    @Test
+    void testRemoveResponseRejectsMissingKey() {
+        when(repository.existsById(1L)).thenReturn(true);
+
+        assertThrows(IllegalArgumentException.class, () -> adminService.removeResponse(1L, "yes"));
+        verifyNoInteractions(graphChanges);
     }
 
     /**
@@ -261,10 +595,25 @@ class AdminServiceTest {
         node.setId(1L);
         node.setNodeType(NodeType.FIRST_NODE);
 
-        ConversationNode existingNode = new ConversationNode();
-        existingNode.setId(2L);
-        when(repository.findByNodeType(NodeType.FIRST_NODE)).thenReturn(Optional.of(existingNode));
+        when(repository.findFirstIdByNodeType(NodeType.FIRST_NODE)).thenReturn(Optional.of(2L));
 
         assertThrows(IllegalArgumentException.class, () -> adminService.saveNode(node));
+        verify(repository, never()).findByNodeType(any());
+    }
+
+    /**
+     * Tests that a second invalid node is rejected and that the invalid node itself can be saved.
+     */
+    @Test
+    void testValidateInvalidNodeUniqueness() {
+        ConversationNode node = new ConversationNode();
+        node.setNodeType(NodeType.INVALID_NODE);
+
+        assertThrows(IllegalArgumentException.class, () -> adminService.saveNode(node));
+
+        when(repository.existsAnyNode()).thenReturn(true);
+        adminService.saveNode(invalidNode);
+        verify(repository).save(invalidNode);
+        verify(repository, never()).findByNodeType(any());
     }
 }
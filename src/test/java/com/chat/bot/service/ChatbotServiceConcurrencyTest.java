@@ -0,0 +1,211 @@
+package com.chat.bot.service;
+
+import com.chat.bot.entity.ChatTransaction;
+import com.chat.bot.entity.ConversationNode;
+import com.chat.bot.entity.ConversationNode.NodeType;
+import com.chat.bot.entity.GraphVersion;
+import com.chat.bot.graph.MessageBodyCache;
+import com.chat.bot.graph.PublishedGraphCache;
+import com.chat.bot.logging.TurnEventLogger;
+import com.chat.bot.metrics.ChatMetrics;
+import com.chat.bot.repository.GraphVersionRepository;
+import com.chat.bot.session.ConversationSession;
+import com.chat.bot.session.InMemoryConversationSessionStore;
+import com.chat.bot.session.SessionIdGenerator;
+import com.chat.bot.transcript.TranscriptWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Load test running many chat sessions through ChatbotService in parallel.
+ */
+class ChatbotServiceConcurrencyTest {
+
+    /**
+     * Number of sessions driven in parallel.
+     */
+    private static final int SESSIONS = 500;
+
+    /**
+     * Number of scripted rounds per session.
+     */
+    private static final int ROUNDS = 10;
+
+    /**
+     * Number of worker threads.
+     */
+    private static final int THREADS = 32;
+
+    /**
+     * Mocked repository for the published graph versions.
+     */
+    @Mock
+    private GraphVersionRepository versionRepository;
+
+    /**
+     * Mocked writer for chat transactions.
+     */
+    @Mock
+    private TranscriptWriter transcriptWriter;
+
+    /**
+     * Mocked reader of chat transcripts.
+     */
+    @Mock
+    private TranscriptService transcriptService;
+
+    /**
+     * Service instance under test.
+     */
+    private ChatbotService chatbotService;
+
+    /**
+     * Messages handed to the transcript writer, grouped by session ID.
+     */
+    private Map<Long, Queue<String>> writtenTranscripts;
+
+    /**
+     * Sets up a small conversation graph: first node -> menu node -> back to the first node.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        ConversationNode firstNode = node(1L, "Welcome", NodeType.FIRST_NODE, Map.of("yes", 2L));
+        ConversationNode menuNode = node(2L, "Menu", NodeType.NORMAL_NODE, Map.of("back", 1L));
+        ConversationNode invalidNode = node(3L, "Invalid", NodeType.INVALID_NODE, Map.of());
+
+        when(versionRepository.findTopByOrderByIdDesc()).thenReturn(Optional.of(new GraphVersion(1L, null, 3)));
+        when(versionRepository.loadNodes(1L)).thenReturn(List.of(firstNode, menuNode, invalidNode));
+
+        writtenTranscripts = new ConcurrentHashMap<>();
+        doAnswer(invocation -> {
+            ChatTransaction transaction = invocation.getArgument(0);
+            writtenTranscripts.computeIfAbsent(transaction.getSessionId(), id -> new ConcurrentLinkedQueue<>())
+                    .add(transaction.getSender() + ": " + transaction.getMessage());
+            return null;
+        }).when(transcriptWriter).write(any());
+
+        chatbotService = new ChatbotService(transcriptWriter,
+                new InMemoryConversationSessionStore(SESSIONS, Duration.ofMinutes(5)),
+                new PublishedGraphCache(versionRepository, 4), new MessageBodyCache(versionRepository, 16),
+                new SessionIdGenerator(0), new ChatMetrics(new SimpleMeterRegistry()), new TurnEventLogger(0),
+                transcriptService, ConversationSession.DEFAULT_HISTORY_CAPACITY);
+    }
+
+    /**
+     * Drives every session concurrently and checks that each transcript only contains its own turns, in order.
+     */
+    @Test
+    void testParallelSessionsKeepTheirOwnTranscripts() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ConversationSession>> futures = new ArrayList<>();
+        for (int s = 0; s < SESSIONS; s++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ConversationSession session = chatbotService.initializeChat();
+                for (int round = 0; round < ROUNDS; round++) {
+                    chatbotService.handleUserResponse(session.getToken(), "yes");
+                    chatbotService.handleUserResponse(session.getToken(), noise(session, round));
+                    chatbotService.handleUserResponse(session.getToken(), "back");
+                }
+                return session;
+            }));
+        }
+        start.countDown();
+
+        Map<String, List<String>> transcripts = new HashMap<>();
+        Map<Long, String> tokensBySessionId = new HashMap<>();
+        for (Future<ConversationSession> future : futures) {
+            ConversationSession session = future.get(60, TimeUnit.SECONDS);
+            String token = session.getToken();
+            transcripts.put(token, chatbotService.getConversationHistory(token));
+            tokensBySessionId.put(session.getSessionId(), token);
+        }
+        executor.shutdown();
+
+        assertEquals(SESSIONS, transcripts.size());
+        transcripts.forEach((token, history) -> assertEquals(expectedTranscript(token), history));
+
+        assertEquals(SESSIONS, tokensBySessionId.size(), "Session IDs must be unique");
+        assertEquals(tokensBySessionId.keySet(), writtenTranscripts.keySet());
+        tokensBySessionId.forEach((sessionId, token) ->
+                assertEquals(expectedWrittenTranscript(token), List.copyOf(writtenTranscripts.get(sessionId))));
+    }
+
+    /**
+     * Builds the transcript a session must end up with.
+     *
+     * @param token the session token.
+     * @return the expected transcript.
+     */
+    private static List<String> expectedTranscript(String token) {
+        List<String> expected = new ArrayList<>();
+        expected.add("Welcome");
+        for (int round = 0; round < ROUNDS; round++) {
+            expected.add("You: yes");
+            expected.add("Menu");
+            expected.add("You: " + noise(token, round));
+            expected.add("Invalid");
+            expected.add("Menu");
+            expected.add("You: back");
+            expected.add("Welcome");
+        }
+        return expected;
+    }
+
+    /**
+     * Builds the chat transactions a session must have written, as "sender: message".
+     *
+     * @param token the session token.
+     * @return the expected chat transactions.
+     */
+    private static List<String> expectedWrittenTranscript(String token) {
+        List<String> expected = new ArrayList<>();
+        for (String message : expectedTranscript(token)) {
+            expected.add(message.startsWith("You: ") ? "User: " + message.substring(5) : "Chatbot: " + message);
+        }
+        return expected;
+    }
+
+    private static String noise(ConversationSession session, int round) {
+        return noise(session.getToken(), round);
+    }
+
+    private static String noise(String token, int round) {
+        return token + "#" + round;
+    }
+
+    private static ConversationNode node(Long id, String message, NodeType nodeType, Map<String, Long> responses) {
+        ConversationNode node = new ConversationNode();
+        node.setId(id);
+        node.setMessage(message);
+        node.setNodeType(nodeType);
+        node.setResponses(new HashMap<>(responses));
+        return node;
+    }
+}
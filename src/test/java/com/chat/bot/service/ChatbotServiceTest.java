@@ -1,19 +1,34 @@
 package com.chat.bot.service;
 
 import com.chat.bot.constants.ChatMessages;
+import com.chat.bot.dto.ChatTurn;
+import com.chat.bot.entity.ChatTransaction;
 import com.chat.bot.entity.ConversationNode;
 import com.chat.bot.entity.ConversationNode.NodeType;
-import com.chat.bot.repository.ChatTransactionRepository;
-import com.chat.bot.repository.ConversationNodeRepository;
+import com.chat.bot.entity.GraphVersion;
+import com.chat.bot.graph.MessageBodyCache;
+import com.chat.bot.graph.PublishedGraphCache;
+import com.chat.bot.logging.TurnEventLogger;
+import com.chat.bot.metrics.ChatMetrics;
+import com.chat.bot.metrics.TurnOutcome;
+import com.chat.bot.repository.GraphVersionRepository;
+import com.chat.bot.session.ChatSessionNotFoundException;
+import com.chat.bot.session.ConversationHistory;
+import com.chat.bot.session.ConversationSession;
+import com.chat.bot.session.InMemoryConversationSessionStore;
+import com.chat.bot.session.SessionIdGenerator;
+import com.chat.bot.transcript.TranscriptWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -23,23 +38,43 @@ import static org.junit.jupiter.api.Assertions.*;
 class ChatbotServiceTest {
 
     /**
-     * Mocked repository for conversation nodes.
+     * Mocked repository for the published graph versions.
      */
     @Mock
-    private ConversationNodeRepository nodeRepository;
+    private GraphVersionRepository versionRepository;
 
     /**
-     * Mocked repository for chat transactions.
+     * Mocked writer for chat transactions.
      */
     @Mock
-    private ChatTransactionRepository transactionRepository;
+    private TranscriptWriter transcriptWriter;
+
+    /**
+     * Mocked reader of chat transcripts.
+     */
+    @Mock
+    private TranscriptService transcriptService;
+
+    /**
+     * Registry the service records its meters in.
+     */
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * Cache of the published graph versions.
+     */
+    private PublishedGraphCache publishedGraphCache;
 
     /**
      * Service instance
      */
-    @InjectMocks
     private ChatbotService chatbotService;
 
+    /**
+     * Nodes of the published version 1, returned by the repository when the graph is compiled.
+     */
+    private List<ConversationNode> nodes;
+
     /**
      * Sample conversation node representing the first node.
      */
@@ -61,6 +96,13 @@ class ChatbotServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        publishedGraphCache = new PublishedGraphCache(versionRepository, 4);
+        chatbotService = new ChatbotService(transcriptWriter,
+                new InMemoryConversationSessionStore(100, Duration.ofMinutes(5)),
+                publishedGraphCache, new MessageBodyCache(versionRepository, 16),
+                new SessionIdGenerator(0), new ChatMetrics(meterRegistry),
+                new TurnEventLogger(0), transcriptService, ConversationSession.DEFAULT_HISTORY_CAPACITY);
 
         firstNode = new ConversationNode();
         firstNode.setId(1L);
@@ -78,9 +120,9 @@ class ChatbotServiceTest {
         endNode.setMessage("End message");
         endNode.setNodeType(NodeType.END_NODE);
 
-        when(nodeRepository.findByNodeType(NodeType.FIRST_NODE)).thenReturn(Optional.of(firstNode));
-        when(nodeRepository.findByNodeType(NodeType.INVALID_NODE)).thenReturn(Optional.of(invalidNode));
-        when(nodeRepository.findByNodeType(NodeType.END_NODE)).thenReturn(Optional.of(endNode));
+        nodes = new ArrayList<>(List.of(firstNode, invalidNode));
+        when(versionRepository.findTopByOrderByIdDesc()).thenReturn(Optional.of(new GraphVersion(1L, null, 2)));
+        when(versionRepository.loadNodes(1L)).thenAnswer(invocation -> new ArrayList<>(nodes));
     }
 
     /**
@@ -88,9 +130,28 @@ class ChatbotServiceTest {
      */
     @Test
     void testInitializeChat() {
-        chatbotService.initializeChat();
-        verify(nodeRepository).findByNodeType(NodeType.FIRST_NODE);
-        assertEquals(firstNode.getMessage(), chatbotService.getConversationHistory().get(0));
+        ConversationSession session = chatbotService.initializeChat();
+        verify(versionRepository).loadNodes(1L);
+        assertEquals(1L, session.getGraph().getVersion());
+        assertEquals(firstNode.getMessage(), chatbotService.getConversationHistory(session.getToken()).get(0));
+    }
+
+    /**
+     * Tests that a node with a body sends the body, read once and then served from the cache.
+     */
+    @Test
+    void testInitializeChatSendsBody() {
+        firstNode.setMessage("Shift offer");
+        firstNode.setBodyLength(5000);
+        String body = "x".repeat(5000);
+        when(versionRepository.findBody(1L, 1L)).thenReturn(Optional.of(body));
+
+        ConversationSession first = chatbotService.initializeChat();
+        ConversationSession second = chatbotService.initializeChat();
+
+        assertEquals(body, chatbotService.getConversationHistory(first.getToken()).get(0));
+        assertEquals(body, chatbotService.getConversationHistory(second.getToken()).get(0));
+        verify(versionRepository, times(1)).findBody(1L, 1L);
     }
 
     /**
@@ -98,10 +159,9 @@ class ChatbotServiceTest {
      */
     @Test
     void testHandleUserResponseInvalid() {
-        chatbotService.initializeChat();
-        chatbotService.handleUserResponse("invalid");
-        verify(nodeRepository, times(1)).findByNodeType(NodeType.INVALID_NODE);
-        assertTrue(chatbotService.getConversationHistory().contains("Invalid response"));
+        ConversationSession session = chatbotService.initializeChat();
+        chatbotService.handleUserResponse(session.getToken(), "invalid");
+        assertTrue(chatbotService.getConversationHistory(session.getToken()).contains("Invalid response"));
     }
 
     /**
@@ -109,12 +169,9 @@ class ChatbotServiceTest {
      */
     @Test
     void testHandleEndOfChatNoResponses() {
-        when(nodeRepository.findAllByNodeType(NodeType.END_NODE)).thenReturn(new ArrayList<>());
-        when(nodeRepository.save(any())).thenReturn(endNode); // Mock the save method to return the end node
-        chatbotService.initializeChat();
-        firstNode.setResponses(new HashMap<>());
-        chatbotService.handleUserResponse("whatever");
-        assertTrue(chatbotService.getConversationHistory().contains("Thanks for chatting!!"));
+        ConversationSession session = chatbotService.initializeChat();
+        chatbotService.handleUserResponse(session.getToken(), "whatever");
+        assertTrue(chatbotService.getConversationHistory(session.getToken()).contains("Thanks for chatting!!"));
     }
 
     /**
@@ -124,10 +181,10 @@ class ChatbotServiceTest {
     void testLogTransaction() {
         String message = "Test message";
         String sender = "User";
-        chatbotService.initializeChat();
-        chatbotService.logTransaction(message, sender);
+        ConversationSession session = chatbotService.initializeChat();
+        chatbotService.logTransaction(session, message, sender);
 
-        verify(transactionRepository).save(argThat(transaction ->
+        verify(transcriptWriter).write(argThat(transaction ->
                 transaction.getMessage().equals(message) &&
                         transaction.getSender().equals(sender) &&
                         transaction.getSessionId() != null &&
@@ -140,12 +197,32 @@ class ChatbotServiceTest {
      */
     @Test
     void testHandleEndOfChatNoEndNodeFound() {
-        when(nodeRepository.findAllByNodeType(NodeType.END_NODE)).thenReturn(new ArrayList<>());
-        chatbotService.initializeChat();
-        firstNode.setResponses(new HashMap<>());
-        chatbotService.handleUserResponse("whatever");
-        verify(nodeRepository).save(any(ConversationNode.class));
-        assertTrue(chatbotService.getConversationHistory().contains("Thanks for chatting!!"));
+        ConversationSession session = chatbotService.initializeChat();
+        chatbotService.handleUserResponse(session.getToken(), "whatever");
+
+        assertEquals(ChatbotService.DEFAULT_END_NODE_ID, session.getCurrentNode().getId());
+        assertTrue(chatbotService.getConversationHistory(session.getToken()).contains("Thanks for chatting!!"));
+        assertSame(publishedGraphCache.current(), session.getGraph());
+        assertTrue(session.getGraph().findByNodeType(NodeType.END_NODE).isEmpty());
+    }
+
+    /**
+     * Tests that a graph without an invalid node answers invalid responses with a default node, while the session
+     * keeps walking the shared published graph.
+     */
+    @Test
+    void testHandleUserResponseInvalidWithoutInvalidNode() {
+        nodes.remove(invalidNode);
+        firstNode.getResponses().put("again", firstNode.getId());
+        ConversationSession session = chatbotService.initializeChat();
+
+        chatbotService.handleUserResponse(session.getToken(), "invalid");
+
+        assertEquals(firstNode.getId(), session.getCurrentNode().getId());
+        assertTrue(chatbotService.getConversationHistory(session.getToken())
+                .contains(ChatMessages.INVALID_MESSAGE.getMessage()));
+        assertSame(publishedGraphCache.current(), session.getGraph());
+        assertTrue(session.getGraph().findInvalidNode().isEmpty());
     }
 
     /**
@@ -155,20 +232,54 @@ class ChatbotServiceTest {
     void testHandleUserResponseNextNodeFound() {
         String userResponse = "Hi";
         ConversationNode nextNode = new ConversationNode();
-        nextNode.setId(2L);
+        nextNode.setId(4L);
         nextNode.setMessage("Next node message");
         nextNode.setNodeType(NodeType.NORMAL_NODE);
+        nodes.add(nextNode);
 
         firstNode.getResponses().put(userResponse, nextNode.getId());
 
-        chatbotService.initializeChat();
-        when(nodeRepository.findById(nextNode.getId())).thenReturn(Optional.of(nextNode));
+        ConversationSession session = chatbotService.initializeChat();
 
-        chatbotService.handleUserResponse(userResponse);
+        chatbotService.handleUserResponse(session.getToken(), userResponse);
 
-        verify(nodeRepository).findById(nextNode.getId());
-        assertTrue(chatbotService.getConversationHistory().contains("You: " + userResponse));
-        assertTrue(chatbotService.getConversationHistory().contains("Next node message"));
+        assertTrue(chatbotService.getConversationHistory(session.getToken()).contains("You: " + userResponse));
+        assertTrue(chatbotService.getConversationHistory(session.getToken()).contains("Next node message"));
+    }
+
+    /**
+     * Tests that a response leading to a node missing from the graph is handled as an invalid response.
+     */
+    @Test
+    void testHandleUserResponseMissingNextNode() {
+        firstNode.getResponses().put("Hi", 99L);
+
+        ConversationSession session = chatbotService.initializeChat();
+        chatbotService.handleUserResponse(session.getToken(), "Hi");
+
+        assertEquals(firstNode.getId(), session.getCurrentNode().getId());
+        assertTrue(chatbotService.getConversationHistory(session.getToken()).contains("Invalid response"));
+        assertEquals(1.0, meterRegistry.get(ChatMetrics.INVALID_RESPONSES)
+                .tag("nodeType", "FIRST_NODE").counter().count());
+    }
+
+    /**
+     * Tests that matching a response ignores case.
+     */
+    @Test
+    void testHandleUserResponseIgnoresCase() {
+        ConversationNode nextNode = new ConversationNode();
+        nextNode.setId(4L);
+        nextNode.setMessage("Next node message");
+        nextNode.setNodeType(NodeType.NORMAL_NODE);
+        nextNode.setResponses(new HashMap<>(Map.of("back", 1L)));
+        nodes.add(nextNode);
+        firstNode.getResponses().put("Yes", nextNode.getId());
+
+        ConversationSession session = chatbotService.initializeChat();
+        chatbotService.handleUserResponse(session.getToken(), "yES");
+
+        assertEquals(nextNode.getId(), session.getCurrentNode().getId());
     }
 
     /**
@@ -178,15 +289,14 @@ class ChatbotServiceTest {
     void testHandleUserResponseEndNodeReached() {
         String userResponse = "Hi";
         endNode.setResponses(new HashMap<>());
+        nodes.add(endNode);
         firstNode.getResponses().put(userResponse, endNode.getId());
 
-        chatbotService.initializeChat();
-        when(nodeRepository.findById(endNode.getId())).thenReturn(Optional.of(endNode));
+        ConversationSession session = chatbotService.initializeChat();
 
-        chatbotService.handleUserResponse(userResponse);
+        chatbotService.handleUserResponse(session.getToken(), userResponse);
 
-        verify(nodeRepository).findById(endNode.getId());
-        assertTrue(chatbotService.getConversationHistory().contains(endNode.getMessage()));
+        assertTrue(chatbotService.getConversationHistory(session.getToken()).contains(endNode.getMessage()));
     }
 
     /**
@@ -199,13 +309,11 @@ class ChatbotServiceTest {
         endNodeWithResponses.setMessage("End node with responses");
         endNodeWithResponses.setNodeType(NodeType.END_NODE);
         endNodeWithResponses.setResponses(Map.of("key", 5L));
+        nodes.add(endNodeWithResponses);
 
-        when(nodeRepository.findAllByNodeType(NodeType.END_NODE)).thenReturn(List.of(endNodeWithResponses));
-
-        chatbotService.initializeChat();
-        firstNode.setResponses(new HashMap<>());
-        chatbotService.handleUserResponse("whatever");
-        assertTrue(chatbotService.getConversationHistory().contains(endNodeWithResponses.getMessage()));
+        ConversationSession session = chatbotService.initializeChat();
+        chatbotService.handleUserResponse(session.getToken(), "whatever");
+        assertTrue(chatbotService.getConversationHistory(session.getToken()).contains(endNodeWithResponses.getMessage()));
     }
 
     /**
@@ -217,25 +325,62 @@ class ChatbotServiceTest {
         finalEndNode.setId(5L);
         finalEndNode.setMessage("Final end node message");
         finalEndNode.setNodeType(NodeType.END_NODE);
+        nodes.add(finalEndNode);
 
-        when(nodeRepository.findAllByNodeType(NodeType.END_NODE)).thenReturn(List.of(finalEndNode));
+        ConversationSession session = chatbotService.initializeChat();
+        chatbotService.handleUserResponse(session.getToken(), "whatever");
 
-        chatbotService.initializeChat();
-        firstNode.setResponses(new HashMap<>());
-        chatbotService.handleUserResponse("whatever");
+        assertTrue(chatbotService.getConversationHistory(session.getToken()).contains(finalEndNode.getMessage()));
+    }
 
-        assertTrue(chatbotService.getConversationHistory().contains(finalEndNode.getMessage()));
+    /**
+     * Tests that the graph is compiled once and reused by later turns and sessions.
+     */
+    @Test
+    void testGraphIsLoadedOnce() {
+        firstNode.getResponses().put("again", firstNode.getId());
+
+        ConversationSession first = chatbotService.initializeChat();
+        chatbotService.handleUserResponse(first.getToken(), "again");
+        chatbotService.handleUserResponse(first.getToken(), "nope");
+        ConversationSession second = chatbotService.initializeChat();
+        chatbotService.handleUserResponse(second.getToken(), "again");
+
+        verify(versionRepository, times(1)).loadNodes(1L);
     }
 
     /**
-     * Tests creating a default invalid node.
+     * Tests that a running chat keeps the version it started on while new chats start on a newly published one.
      */
     @Test
-    void testCreateDefaultInvalidNode() {
-        ConversationNode savedNode = new ConversationNode();
-        savedNode.setId(1L);
-        when(nodeRepository.save(any(ConversationNode.class))).thenReturn(savedNode);
+    void testSessionKeepsItsVersion() {
+        firstNode.getResponses().put("yes", endNode.getId());
+        nodes.add(endNode);
+        ConversationSession running = chatbotService.initializeChat();
+
+        ConversationNode republishedFirst = new ConversationNode();
+        republishedFirst.setId(1L);
+        republishedFirst.setMessage("Republished first message");
+        republishedFirst.setNodeType(NodeType.FIRST_NODE);
+        republishedFirst.setResponses(new HashMap<>(Map.of("no", 2L)));
+        when(versionRepository.loadNodes(2L)).thenReturn(List.of(republishedFirst, invalidNode));
+        publishedGraphCache.adopt(2L);
+
+        ConversationSession started = chatbotService.initializeChat();
+        chatbotService.handleUserResponse(running.getToken(), "yes");
+
+        assertEquals(1L, running.getGraph().getVersion());
+        assertTrue(chatbotService.getConversationHistory(running.getToken()).contains("End message"));
+        assertEquals(2L, started.getGraph().getVersion());
+        assertEquals("Republished first message", chatbotService.getConversationHistory(started.getToken()).get(0));
+        verify(versionRepository, times(1)).loadNodes(1L);
+    }
 
+    /**
+     * Tests creating a default invalid node, which is never stored.
+     */
+    @Test
+    void testCreateDefaultInvalidNode() {
         ConversationNode invalidNode = chatbotService.createDefaultInvalidNode();
 
         assertNotNull(invalidNode);
@@ -243,6 +388,170 @@ class ChatbotServiceTest {
         assertEquals(ChatMessages.INVALID_MESSAGE_NAME.getMessage(), invalidNode.getMessageName());
         assertFalse(invalidNode.isDeletable());
         assertEquals(ConversationNode.NodeType.INVALID_NODE, invalidNode.getNodeType());
-        verify(nodeRepository, times(1)).save(any(ConversationNode.class));
+        assertEquals(ChatbotService.DEFAULT_INVALID_NODE_ID, invalidNode.getId());
+    }
+
+    /**
+     * Tests that a response for an unknown session is rejected.
+     */
+    @Test
+    void testHandleUserResponseUnknownSession() {
+        assertThrows(IllegalArgumentException.class, () -> chatbotService.handleUserResponse("unknown", "yes"));
+        verifyNoInteractions(transcriptWriter);
+    }
+
+    /**
+     * Tests that two sessions keep separate conversation histories.
+     */
+    @Test
+    void testSessionsAreIsolated() {
+        ConversationSession first = chatbotService.initializeChat();
+        ConversationSession second = chatbotService.initializeChat();
+
+        chatbotService.handleUserResponse(first.getToken(), "invalid");
+
+        assertTrue(chatbotService.getConversationHistory(first.getToken()).contains("You: invalid"));
+        assertEquals(List.of(firstNode.getMessage()), chatbotService.getConversationHistory(second.getToken()));
+    }
+
+    /**
+     * Tests that starting a chat returns the welcome message and the available options.
+     */
+    @Test
+    void testStartChat() {
+        firstNode.getResponses().put("Yes", 4L);
+
+        ChatTurn turn = chatbotService.startChat();
+
+        assertNotNull(turn.getToken());
+        assertEquals(List.of(firstNode.getMessage()), turn.getMessages());
+        assertEquals(List.of("Yes"), turn.getOptions());
+        assertFalse(turn.isEnded());
+    }
+
+    /**
+     * Tests that a turn returns only the chatbot's new messages, without the user's echo or earlier messages.
+     */
+    @Test
+    void testRespondReturnsOnlyNewMessages() {
+        ConversationNode nextNode = new ConversationNode();
+        nextNode.setId(4L);
+        nextNode.setMessage("Next node message");
+        nextNode.setNodeType(NodeType.NORMAL_NODE);
+        nextNode.setResponses(new HashMap<>(Map.of("back", 1L)));
+        nodes.add(nextNode);
+        firstNode.getResponses().put("Yes", nextNode.getId());
+        String token = chatbotService.startChat().getToken();
+
+        ChatTurn valid = chatbotService.respond(token, "Yes");
+        ChatTurn invalid = chatbotService.respond(token, "nope");
+
+        assertEquals(List.of("Next node message"), valid.getMessages());
+        assertEquals(List.of("back"), valid.getOptions());
+        assertEquals(List.of("Invalid response", "Next node message"), invalid.getMessages());
+        assertFalse(invalid.isEnded());
+    }
+
+    /**
+     * Tests that reaching an end node without responses ends the conversation.
+     */
+    @Test
+    void testRespondEndsConversation() {
+        endNode.setResponses(new HashMap<>());
+        nodes.add(endNode);
+        firstNode.getResponses().put("Bye", endNode.getId());
+        String token = chatbotService.startChat().getToken();
+
+        ChatTurn turn = chatbotService.respond(token, "Bye");
+
+        assertEquals(List.of(endNode.getMessage()), turn.getMessages());
+        assertTrue(turn.getOptions().isEmpty());
+        assertTrue(turn.isEnded());
+    }
+
+    /**
+     * Tests that a turn on an unknown session is rejected.
+     */
+    @Test
+    void testRespondUnknownSession() {
+        assertThrows(ChatSessionNotFoundException.class, () -> chatbotService.respond("unknown", "yes"));
+    }
+
+    /**
+     * Tests that an ended chat no longer accepts turns.
+     */
+    @Test
+    void testEndChat() {
+        String token = chatbotService.startChat().getToken();
+
+        chatbotService.endChat(token);
+
+        assertTrue(chatbotService.findSession(token).isEmpty());
+        assertThrows(ChatSessionNotFoundException.class, () -> chatbotService.respond(token, "yes"));
+    }
+
+    /**
+     * Tests that history dropped from the in-memory window is read back from the session's transcript.
+     */
+    @Test
+    void testOlderHistoryIsReadFromTranscript() {
+        ChatbotService boundedService = new ChatbotService(transcriptWriter,
+                new InMemoryConversationSessionStore(100, Duration.ofMinutes(5)),
+                publishedGraphCache, new MessageBodyCache(versionRepository, 16),
+                new SessionIdGenerator(0), new ChatMetrics(meterRegistry),
+                new TurnEventLogger(0), transcriptService, ConversationHistory.MIN_CAPACITY);
+        firstNode.getResponses().put("again", firstNode.getId());
+        ConversationSession session = boundedService.initializeChat();
+        for (int i = 0; i < 3; i++) {
+            boundedService.handleUserResponse(session.getToken(), "again");
+        }
+        doAnswer(invocation -> {
+            Consumer<ChatTransaction> sink = invocation.getArgument(3);
+            sink.accept(transaction("Chatbot", "First node message"));
+            sink.accept(transaction("User", "again"));
+            sink.accept(transaction("Chatbot", "First node message"));
+            return null;
+        }).when(transcriptService).readSession(eq(session.getSessionId()), isNull(), eq(3), any());
+
+        List<String> history = boundedService.getConversationHistory(session.getToken());
+
+        assertEquals(List.of("First node message", "You: again", "First node message", "You: again",
+                "First node message", "You: again", "First node message"), history);
+        verify(transcriptWriter).flush();
+    }
+
+    /**
+     * Tests that history held entirely in memory is not read from the transcript.
+     */
+    @Test
+    void testRecentHistoryIsReadFromMemory() {
+        ConversationSession session = chatbotService.initializeChat();
+        chatbotService.handleUserResponse(session.getToken(), "invalid");
+
+        chatbotService.getConversationHistory(session.getToken());
+
+        verifyNoInteractions(transcriptService);
+    }
+
+    /**
+     * Tests that turns are timed by outcome and that invalid responses are counted against the type of their node.
+     */
+    @Test
+    void testTurnsAreMetered() {
+        String token = chatbotService.startChat().getToken();
+
+        chatbotService.respond(token, "nope");
+
+        assertEquals(1, meterRegistry.get(ChatMetrics.TURN_TIMER).tag("outcome", TurnOutcome.END.tag()).timer().count());
+        assertEquals(0, meterRegistry.get(ChatMetrics.TURN_TIMER).tag("outcome", TurnOutcome.VALID.tag()).timer().count());
+        assertEquals(1.0, meterRegistry.get(ChatMetrics.INVALID_RESPONSES)
+                .tag("nodeType", "FIRST_NODE").counter().count());
+    }
+
+    private static ChatTransaction transaction(String sender, String message) {
+        ChatTransaction transaction = new ChatTransaction();
+        transaction.setSender(sender);
+        transaction.setMessage(message);
+        return transaction;
     }
 }
@@ -0,0 +1,316 @@
+package com.chat.bot.service;
+
+import com.chat.bot.dto.GraphImportResult;
+import com.chat.bot.entity.ConversationNode;
+import com.chat.bot.entity.ConversationNode.NodeType;
+import com.chat.bot.entity.ConversationNodeBody;
+import com.chat.bot.graph.GraphChange;
+import com.chat.bot.graph.GraphChangeChannel;
+import com.chat.bot.repository.ConversationNodeRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the GraphTransferService class.
+ */
+class GraphTransferServiceTest {
+
+    /**
+     * Mocked repository for conversation nodes.
+     */
+    @Mock
+    private ConversationNodeRepository repository;
+
+    /**
+     * Mocked entity manager.
+     */
+    @Mock
+    private EntityManager entityManager;
+
+    /**
+     * Mocked access to the database.
+     */
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Mocked channel announcing graph changes to every instance.
+     */
+    @Mock
+    private GraphChangeChannel graphChanges;
+
+    /**
+     * JSON mapper
+     */
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Service instance, writing two rows per batch.
+     */
+    private GraphTransferService graphTransferService;
+
+    /**
+     * Rows inserted into the responses table.
+     */
+    private List<Object[]> insertedResponses;
+
+    /**
+     * Sets up the test environment before each test. Persisted nodes get IDs from 100 on.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        graphTransferService = new GraphTransferService(repository, entityManager, jdbcTemplate, graphChanges,
+                objectMapper, 2);
+
+        AtomicLong nextId = new AtomicLong(100);
+        doAnswer(invocation -> {
+            invocation.getArgument(0, ConversationNode.class).setId(nextId.getAndIncrement());
+            return null;
+        }).when(entityManager).persist(any(ConversationNode.class));
+
+        insertedResponses = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            insertedResponses.addAll(rows);
+            return new int[rows.size()];
+        });
+    }
+
+    /**
+     * Tests that responses referring to nodes further down the document are resolved to the new IDs.
+     */
+    @Test
+    void testImportResolvesForwardReferences() throws Exception {
+        GraphImportResult result = graphTransferService.importGraph(json("""
+                {"nodes": [
+                  {"id": 10, "message": "Hi", "nodeType": "FIRST_NODE", "deletable": false,
+                   "responses": {"yes": 30, " no ": 20}},
+                  {"id": 20, "message": "Bye", "nodeType": "END_NODE", "responses": {}},
+                  {"id": 30, "message": "Great", "ignored": {"nested": [1, 2]}}
+                ]}"""), false);
+
+        assertEquals(new GraphImportResult(3, 2), result);
+        ArgumentCaptor<ConversationNode> persisted = ArgumentCaptor.forClass(ConversationNode.class);
+        verify(entityManager, times(3)).persist(persisted.capture());
+        ConversationNode first = persisted.getAllValues().get(0);
+        assertEquals(NodeType.FIRST_NODE, first.getNodeType());
+        assertFalse(first.isDeletable());
+        assertTrue(first.getResponses().isEmpty());
+        assertEquals(NodeType.NORMAL_NODE, persisted.getAllValues().get(2).getNodeType());
+
+        assertEquals(2, insertedResponses.size());
+        assertTrue(insertedResponses.stream().anyMatch(row -> List.of(row).equals(List.of(100L, "yes", 102L))));
+        assertTrue(insertedResponses.stream().anyMatch(row -> List.of(row).equals(List.of(100L, "no", 101L))));
+        verify(entityManager, atLeast(2)).flush();
+        verify(jdbcTemplate, never()).update(anyString());
+        verify(graphChanges).publish(GraphChange.reload());
+    }
+
+    /**
+     * Tests that bodies are stored apart from their nodes, under the new IDs.
+     */
+    @Test
+    void testImportStoresBodies() throws Exception {
+        graphTransferService.importGraph(json("""
+                {"nodes": [
+                  {"id": 10, "message": "Offer", "body": "A long offer", "nodeType": "FIRST_NODE"},
+                  {"id": 20, "message": "Bye", "body": " "}
+                ]}"""), false);
+
+        ArgumentCaptor<Object> persisted = ArgumentCaptor.forClass(Object.class);
+        verify(entityManager, times(3)).persist(persisted.capture());
+        assertEquals(12, ((ConversationNode) persisted.getAllValues().get(0)).getBodyLength());
+        assertEquals(new ConversationNodeBody(100L, "A long offer"), persisted.getAllValues().get(1));
+        assertEquals(0, ((ConversationNode) persisted.getAllValues().get(2)).getBodyLength());
+    }
+
+    /**
+     * Tests that the existing graph is deleted first when replacing it.
+     */
+    @Test
+    void testImportReplacesExistingGraph() throws Exception {
+        graphTransferService.importGraph(json("{\"nodes\": []}"), true);
+
+        verify(jdbcTemplate).update("DELETE FROM conversation_node_body");
+        verify(jdbcTemplate).update("DELETE FROM conversation_node_responses");
+        verify(jdbcTemplate).update("DELETE FROM conversation_node");
+        verify(graphChanges).publish(GraphChange.reload());
+    }
+
+    /**
+     * Tests that a response leading to a node missing from the document fails the import.
+     */
+    @Test
+    void testImportRejectsDanglingResponse() {
+        InputStream document = json("{\"nodes\": [{\"id\": 1, \"responses\": {\"yes\": 2}}]}");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> graphTransferService.importGraph(document, false));
+        assertTrue(e.getMessage().contains("missing from the graph document: 2"));
+        verifyNoInteractions(graphChanges);
+    }
+
+    /**
+     * Tests that duplicate document IDs fail the import.
+     */
+    @Test
+    void testImportRejectsDuplicateIds() {
+        InputStream document = json("{\"nodes\": [{\"id\": 1}, {\"id\": 1}]}");
+
+        assertThrows(IllegalArgumentException.class, () -> graphTransferService.importGraph(document, false));
+        verifyNoInteractions(graphChanges);
+    }
+
+    /**
+     * Tests that the uniqueness of the first node is checked over the resulting graph.
+     */
+    @Test
+    void testImportRejectsSecondFirstNode() {
+        when(repository.countByNodeType(NodeType.FIRST_NODE)).thenReturn(2L);
+        InputStream document = json("{\"nodes\": [{\"id\": 1, \"nodeType\": \"FIRST_NODE\"}]}");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> graphTransferService.importGraph(document, false));
+        assertTrue(e.getMessage().contains("first_node"));
+        verifyNoInteractions(graphChanges);
+    }
+
+    /**
+     * Tests that malformed documents are reported as invalid arguments.
+     */
+    @Test
+    void testImportRejectsMalformedDocument() {
+        assertThrows(IllegalArgumentException.class,
+                () -> graphTransferService.importGraph(json("{\"nodes\": [{\"id\": \"x\"}]}"), false));
+        assertThrows(IllegalArgumentException.class,
+                () -> graphTransferService.importGraph(json("[]"), false));
+        assertThrows(IllegalArgumentException.class,
+                () -> graphTransferService.importGraph(json("{\"nodes\": [{\"id\": 1, \"nodeType\": \"OTHER\"}]}"), false));
+        verifyNoInteractions(graphChanges);
+    }
+
+    /**
+     * Tests that the export groups the rows of each node into one object with its responses.
+     */
+    @Test
+    void testExportWritesNodesWithResponses() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(1L, 1L, 2L);
+        when(rs.getString(2)).thenReturn("Hi", "Hi", "Bye");
+        when(rs.getString(3)).thenReturn("Greeting", "Greeting", null);
+        when(rs.getBoolean(4)).thenReturn(false, false, true);
+        when(rs.getString(5)).thenReturn("FIRST_NODE", "FIRST_NODE", "END_NODE");
+        when(rs.getString(6)).thenReturn("yes", "no", null);
+        when(rs.getLong(7)).thenReturn(2L, 3L);
+        when(rs.getString(8)).thenReturn("A long greeting", null);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (int row = 0; row < 3; row++) {
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        graphTransferService.exportGraph(out);
+
+        JsonNode nodes = objectMapper.readTree(out.toByteArray()).get("nodes");
+        assertEquals(2, nodes.size());
+        assertEquals(1, nodes.get(0).get("id").asLong());
+        assertEquals("Greeting", nodes.get(0).get("messageName").asText());
+        assertEquals("A long greeting", nodes.get(0).get("body").asText());
+        assertFalse(nodes.get(1).has("body"));
+        assertFalse(nodes.get(0).get("deletable").asBoolean());
+        assertEquals(2, nodes.get(0).get("responses").get("yes").asLong());
+        assertEquals(3, nodes.get(0).get("responses").get("no").asLong());
+        assertEquals("END_NODE", nodes.get(1).get("nodeType").asText());
+        assertTrue(nodes.get(1).get("messageName").isNull());
+        assertEquals(0, nodes.get(1).get("responses").size());
+    }
+
+    /**
+     * Tests that an exported graph is imported back unchanged.
+     */
+    @Test
+    void testExportedGraphCanBeImported() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(1L, 2L);
+        when(rs.getString(5)).thenReturn("FIRST_NODE", "NORMAL_NODE");
+        when(rs.getString(6)).thenReturn("back", null);
+        when(rs.getLong(7)).thenReturn(2L);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, RowCallbackHandler.class).processRow(rs);
+            invocation.getArgument(1, RowCallbackHandler.class).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        graphTransferService.exportGraph(out);
+
+        GraphImportResult result = graphTransferService.importGraph(new ByteArrayInputStream(out.toByteArray()), true);
+
+        assertEquals(new GraphImportResult(2, 1), result);
+        assertArrayEquals(new Object[]{100L, "back", 101L}, insertedResponses.get(0));
+        verify(jdbcTemplate).batchUpdate(eq("INSERT INTO conversation_node_responses "
+                + "(conversation_node_id, response_key, next_node_id) VALUES (?, ?, ?)"), anyList());
+    }
+
+    /**
+     * Tests that a response without a next node survives an export and an import.
+     */
+    @Test
+    void testExportedResponseWithoutNextNodeCanBeImported() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(1L, 1L, 2L);
+        when(rs.getString(5)).thenReturn("FIRST_NODE", "FIRST_NODE", "NORMAL_NODE");
+        when(rs.getString(6)).thenReturn("back", "later", null);
+        when(rs.getLong(7)).thenReturn(2L, 0L);
+        when(rs.wasNull()).thenReturn(false, true);
+        doAnswer(invocation -> {
+            for (int row = 0; row < 3; row++) {
+                invocation.getArgument(1, RowCallbackHandler.class).processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        graphTransferService.exportGraph(out);
+        assertTrue(objectMapper.readTree(out.toByteArray()).get("nodes").get(0).get("responses").get("later").isNull());
+
+        GraphImportResult result = graphTransferService.importGraph(new ByteArrayInputStream(out.toByteArray()), true);
+
+        assertEquals(new GraphImportResult(2, 2), result);
+        assertTrue(insertedResponses.stream().anyMatch(row -> Arrays.asList(row).equals(List.of(100L, "back", 101L))));
+        assertTrue(insertedResponses.stream()
+                .anyMatch(row -> Arrays.asList(row).equals(Arrays.asList(100L, "later", null))));
+    }
+
+    private static InputStream json(String document) {
+        return new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8));
+    }
+}
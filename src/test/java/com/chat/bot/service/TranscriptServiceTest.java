@@ -0,0 +1,129 @@
+package com.chat.bot.service;
+
+import com.chat.bot.entity.ChatTransaction;
+import com.chat.bot.repository.ChatTransactionRepository;
+import com.chat.bot.transcript.TranscriptCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the TranscriptService class.
+ */
+class TranscriptServiceTest {
+
+    /**
+     * Start of the sample transcript.
+     */
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    /**
+     * Mocked repository for chat transactions.
+     */
+    @Mock
+    private ChatTransactionRepository repository;
+
+    /**
+     * Service instance, fetching two transactions per query.
+     */
+    private TranscriptService transcriptService;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        transcriptService = new TranscriptService(repository, 2);
+    }
+
+    /**
+     * Tests that a session transcript is paged through with keyset queries until a page comes back short.
+     */
+    @Test
+    void testReadSessionPagesUntilEnd() {
+        ChatTransaction first = transaction(1L, 0);
+        ChatTransaction second = transaction(2L, 1);
+        ChatTransaction third = transaction(3L, 1);
+        when(repository.findSessionPage(7L, 2)).thenReturn(List.of(first, second));
+        when(repository.findSessionPageAfter(7L, second.getTimestamp(), 2L, 2)).thenReturn(List.of(third));
+
+        List<ChatTransaction> read = new ArrayList<>();
+        TranscriptCursor next = transcriptService.readSession(7L, null, 10, read::add);
+
+        assertEquals(List.of(first, second, third), read);
+        assertNull(next);
+    }
+
+    /**
+     * Tests that reading stops at the limit and returns the position to resume from.
+     */
+    @Test
+    void testReadSessionStopsAtLimit() {
+        ChatTransaction first = transaction(1L, 0);
+        ChatTransaction second = transaction(2L, 1);
+        ChatTransaction third = transaction(3L, 2);
+        TranscriptCursor after = new TranscriptCursor(START.minusMinutes(1), 0L);
+        when(repository.findSessionPageAfter(7L, after.timestamp(), 0L, 2)).thenReturn(List.of(first, second));
+        when(repository.findSessionPageAfter(7L, second.getTimestamp(), 2L, 1)).thenReturn(List.of(third));
+
+        List<ChatTransaction> read = new ArrayList<>();
+        TranscriptCursor next = transcriptService.readSession(7L, after, 3, read::add);
+
+        assertEquals(3, read.size());
+        assertEquals(TranscriptCursor.of(third), next);
+        verify(repository, never()).findSessionPage(anyLong(), anyInt());
+    }
+
+    /**
+     * Tests reading a time window.
+     */
+    @Test
+    void testReadWindow() {
+        LocalDateTime to = START.plusHours(1);
+        ChatTransaction first = transaction(1L, 0);
+        when(repository.findWindowPage(START, to, 2)).thenReturn(List.of(first));
+
+        List<ChatTransaction> read = new ArrayList<>();
+        assertNull(transcriptService.readWindow(START, to, null, 5, read::add));
+        assertEquals(List.of(first), read);
+        verify(repository, never()).findWindowPageAfter(any(), anyLong(), any(), anyInt());
+    }
+
+    /**
+     * Tests that invalid arguments are rejected.
+     */
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> transcriptService.readSession(7L, null, 0, t -> { }));
+        assertThrows(IllegalArgumentException.class, () -> transcriptService.readWindow(START, START, null, 5, t -> { }));
+        assertThrows(IllegalArgumentException.class, () -> new TranscriptService(repository, 0));
+    }
+
+    /**
+     * Tests encoding and parsing cursors.
+     */
+    @Test
+    void testCursorRoundTrip() {
+        TranscriptCursor cursor = new TranscriptCursor(START.plusNanos(123_000_000), 42L);
+
+        assertEquals(cursor, TranscriptCursor.parse(cursor.encode()));
+        assertThrows(IllegalArgumentException.class, () -> TranscriptCursor.parse("42"));
+        assertThrows(IllegalArgumentException.class, () -> TranscriptCursor.parse("yesterday_42"));
+    }
+
+    private static ChatTransaction transaction(Long id, int minutes) {
+        return new ChatTransaction(id, 7L, "Message " + id, "User", START.plusMinutes(minutes));
+    }
+}
@@ -0,0 +1,79 @@
+package com.chat.bot.session;
+
+import com.chat.bot.session.ChatEntry.Sender;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ConversationHistory class.
+ */
+class ConversationHistoryTest {
+
+    /**
+     * Tests that entries are kept in order while the window is not full.
+     */
+    @Test
+    void testKeepsEntriesInOrder() {
+        ConversationHistory history = new ConversationHistory(4);
+
+        history.add(Sender.CHATBOT, "Welcome");
+        history.add(Sender.USER, "yes");
+
+        assertEquals(List.of(new ChatEntry(Sender.CHATBOT, "Welcome"), new ChatEntry(Sender.USER, "yes")),
+                history.entries());
+        assertEquals(2, history.position());
+        assertEquals(0, history.firstRetainedPosition());
+    }
+
+    /**
+     * Tests that the oldest entries are dropped once the window is full, while positions keep counting.
+     */
+    @Test
+    void testDropsOldestEntries() {
+        ConversationHistory history = new ConversationHistory(4);
+
+        for (int i = 0; i < 10; i++) {
+            history.add(Sender.USER, "m" + i);
+        }
+
+        assertEquals(4, history.size());
+        assertEquals(10, history.position());
+        assertEquals(6, history.firstRetainedPosition());
+        assertEquals(List.of("m6", "m7", "m8", "m9"), history.entries().stream().map(ChatEntry::message).toList());
+    }
+
+    /**
+     * Tests reading the entries added since a position, clamped to the retained window.
+     */
+    @Test
+    void testSince() {
+        ConversationHistory history = new ConversationHistory(4);
+        for (int i = 0; i < 6; i++) {
+            history.add(Sender.CHATBOT, "m" + i);
+        }
+
+        assertEquals(List.of("m4", "m5"), history.since(4).stream().map(ChatEntry::message).toList());
+        assertEquals(List.of("m2", "m3", "m4", "m5"), history.since(0).stream().map(ChatEntry::message).toList());
+        assertTrue(history.since(6).isEmpty());
+    }
+
+    /**
+     * Tests that user messages are rendered with their prefix and chatbot messages as they are.
+     */
+    @Test
+    void testRender() {
+        assertEquals("You: yes", new ChatEntry(Sender.USER, "yes").render());
+        assertEquals("Welcome", new ChatEntry(Sender.CHATBOT, "Welcome").render());
+    }
+
+    /**
+     * Tests that a window too small to hold one turn is rejected.
+     */
+    @Test
+    void testRejectsSmallCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new ConversationHistory(ConversationHistory.MIN_CAPACITY - 1));
+    }
+}
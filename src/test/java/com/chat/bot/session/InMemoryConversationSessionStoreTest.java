@@ -0,0 +1,117 @@
+package com.chat.bot.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the InMemoryConversationSessionStore class.
+ */
+class InMemoryConversationSessionStoreTest {
+
+    /**
+     * Tests that a saved session can be found by its token.
+     */
+    @Test
+    void testSaveAndFind() {
+        InMemoryConversationSessionStore store = new InMemoryConversationSessionStore(10, Duration.ofMinutes(5));
+        ConversationSession session = new ConversationSession("token", 1L);
+
+        store.save(session);
+
+        assertSame(session, store.find("token").orElseThrow());
+        assertTrue(store.find("other").isEmpty());
+        assertTrue(store.find(null).isEmpty());
+        assertEquals(1, store.size());
+    }
+
+    /**
+     * Tests that removed sessions are no longer found.
+     */
+    @Test
+    void testRemove() {
+        InMemoryConversationSessionStore store = new InMemoryConversationSessionStore(10, Duration.ofMinutes(5));
+        store.save(new ConversationSession("token", 1L));
+
+        store.remove("token");
+
+        assertTrue(store.find("token").isEmpty());
+        assertEquals(0, store.size());
+    }
+
+    /**
+     * Tests that idle sessions expire on lookup and on sweep.
+     */
+    @Test
+    void testIdleSessionsAreEvicted() {
+        InMemoryConversationSessionStore store = new InMemoryConversationSessionStore(10, Duration.ZERO);
+        store.save(new ConversationSession("first", 1L));
+        store.save(new ConversationSession("second", 2L));
+
+        assertTrue(store.find("first").isEmpty());
+        assertEquals(1, store.evictIdleSessions());
+        assertEquals(0, store.size());
+    }
+
+    /**
+     * Tests that the least recently accessed session is evicted when the store is full.
+     */
+    @Test
+    void testLeastRecentlyUsedSessionIsEvictedWhenFull() {
+        InMemoryConversationSessionStore store = new InMemoryConversationSessionStore(2, Duration.ofMinutes(5));
+        store.save(new ConversationSession("first", 1L));
+        store.save(new ConversationSession("second", 2L));
+        store.find("first");
+
+        store.save(new ConversationSession("third", 3L));
+
+        assertEquals(2, store.size());
+        assertTrue(store.find("first").isPresent());
+        assertTrue(store.find("second").isEmpty());
+        assertTrue(store.find("third").isPresent());
+    }
+
+    /**
+     * Tests that inserting into a full store evicts one session instead of sweeping the idle ones.
+     */
+    @Test
+    void testSaveDoesNotSweepIdleSessions() {
+        InMemoryConversationSessionStore store = new InMemoryConversationSessionStore(2, Duration.ZERO);
+        store.save(new ConversationSession("first", 1L));
+        store.save(new ConversationSession("second", 2L));
+
+        store.save(new ConversationSession("third", 3L));
+
+        assertEquals(2, store.size());
+    }
+
+    /**
+     * Tests that concurrent inserts never push a segmented store past its capacity.
+     */
+    @Test
+    void testConcurrentSavesStayWithinCapacity() throws InterruptedException {
+        InMemoryConversationSessionStore store = new InMemoryConversationSessionStore(1000, Duration.ofMinutes(5));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 20_000; i++) {
+            long id = i;
+            executor.execute(() -> store.save(new ConversationSession("token-" + id, id)));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(1000, store.size());
+    }
+
+    /**
+     * Tests that a non-positive capacity is rejected.
+     */
+    @Test
+    void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new InMemoryConversationSessionStore(0, Duration.ofMinutes(5)));
+    }
+}
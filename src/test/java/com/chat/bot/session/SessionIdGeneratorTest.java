@@ -0,0 +1,121 @@
+package com.chat.bot.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SessionIdGenerator class.
+ */
+class SessionIdGeneratorTest {
+
+    /**
+     * Fixed point in time used by the tests.
+     */
+    private static final long NOW = Instant.parse("2025-06-01T12:00:00Z").toEpochMilli();
+
+    /**
+     * Tests that IDs allocated in the same millisecond are distinct and increasing.
+     */
+    @Test
+    void testIdsWithinOneMillisecondAreIncreasing() {
+        SessionIdGenerator generator = new SessionIdGenerator(7, () -> NOW);
+
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        assertTrue(first > 0);
+        assertEquals(first + 1, second);
+        assertEquals(Instant.ofEpochMilli(NOW), SessionIdGenerator.timestampOf(first));
+    }
+
+    /**
+     * Tests that IDs from different nodes never collide and stay ordered by time.
+     */
+    @Test
+    void testNodesDoNotCollide() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SessionIdGenerator nodeA = new SessionIdGenerator(1, clock::get);
+        SessionIdGenerator nodeB = new SessionIdGenerator(2, clock::get);
+
+        long a1 = nodeA.nextId();
+        long b1 = nodeB.nextId();
+        clock.incrementAndGet();
+        long a2 = nodeA.nextId();
+
+        assertNotEquals(a1, b1);
+        assertTrue(a1 < b1);
+        assertTrue(b1 < a2);
+        assertTrue(SessionIdGenerator.lowestIdAt(Instant.ofEpochMilli(NOW + 1)) <= a2);
+        assertTrue(SessionIdGenerator.lowestIdAt(Instant.ofEpochMilli(NOW + 1)) > b1);
+    }
+
+    /**
+     * Tests that the generator keeps increasing when the counter overflows or the clock goes backwards.
+     */
+    @Test
+    void testCounterOverflowAndClockDrift() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SessionIdGenerator generator = new SessionIdGenerator(0, clock::get);
+
+        long previous = generator.nextId();
+        for (int i = 0; i < SessionIdGenerator.MAX_SEQUENCE + 10; i++) {
+            long next = generator.nextId();
+            assertTrue(next > previous);
+            previous = next;
+        }
+        assertEquals(Instant.ofEpochMilli(NOW + 1), SessionIdGenerator.timestampOf(previous));
+
+        clock.addAndGet(-1000);
+        assertTrue(generator.nextId() > previous);
+    }
+
+    /**
+     * Tests that concurrent callers never receive the same ID.
+     */
+    @Test
+    void testConcurrentIdsAreUnique() throws Exception {
+        SessionIdGenerator generator = new SessionIdGenerator(3);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                long[] ids = new long[20_000];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = generator.nextId();
+                }
+                return ids;
+            }));
+        }
+
+        Set<Long> ids = new HashSet<>();
+        for (Future<long[]> future : futures) {
+            for (long id : future.get(30, TimeUnit.SECONDS)) {
+                assertTrue(ids.add(id));
+            }
+        }
+        executor.shutdown();
+        assertEquals(160_000, ids.size());
+    }
+
+    /**
+     * Tests that an out-of-range or missing node ID is rejected.
+     */
+    @Test
+    void testInvalidNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new SessionIdGenerator(SessionIdGenerator.MAX_NODE_ID + 1));
+        assertThrows(IllegalArgumentException.class, () -> new SessionIdGenerator(-1));
+        assertDoesNotThrow(() -> new SessionIdGenerator(SessionIdGenerator.MAX_NODE_ID));
+    }
+}
@@ -0,0 +1,38 @@
+package com.chat.bot.support;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Properties booting the application against an in-memory H2 database in PostgreSQL mode, for benchmarks that
+ * need the full application without a PostgreSQL server. The schema and the seed graph come from data.sql.
+ */
+public final class H2TestProperties {
+
+    private H2TestProperties() {
+    }
+
+    /**
+     * Builds the properties for a named in-memory database.
+     *
+     * @param databaseName the name of the database; each name is a separate database.
+     * @return mutable properties, to which callers may add their own.
+     */
+    public static Map<String, Object> forDatabase(String databaseName) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url",
+                "jdbc:h2:mem:" + databaseName + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.jpa.database-platform", "org.hibernate.dialect.H2Dialect");
+        properties.put("spring.jpa.hibernate.ddl-auto", "none");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.sql.init.mode", "always");
+        properties.put("spring.sql.init.platform", "h2");
+        properties.put("chatbot.graph.change-channel", "local");
+        properties.put("chatbot.session.node-id", "0");
+        properties.put("logging.level.com.chat.bot", "WARN");
+        return properties;
+    }
+}
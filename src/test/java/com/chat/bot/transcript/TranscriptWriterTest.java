@@ -0,0 +1,294 @@
+package com.chat.bot.transcript;
+
+import com.chat.bot.entity.ChatTransaction;
+import com.chat.bot.repository.ChatTransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the TranscriptWriter class.
+ */
+class TranscriptWriterTest {
+
+    /**
+     * Mocked repository for chat transactions.
+     */
+    @Mock
+    private ChatTransactionRepository repository;
+
+    /**
+     * Writer under test.
+     */
+    private TranscriptWriter writer;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Stops the writer after each test.
+     */
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    /**
+     * Tests that queued transactions are written in batches no larger than the batch size.
+     */
+    @Test
+    void testWritesInBatches() {
+        writer = new TranscriptWriter(repository, 100, 10, Duration.ofMillis(200), Duration.ofMillis(50),
+                3, Duration.ofMillis(1), false);
+        writer.start();
+        for (int i = 0; i < 25; i++) {
+            writer.write(transaction(i));
+        }
+
+        writer.stop();
+
+        List<List<ChatTransaction>> batches = capturedBatches();
+        assertEquals(25, batches.stream().mapToInt(List::size).sum());
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 10));
+        assertEquals(25, writer.getWrittenCount());
+        assertEquals(0, writer.getQueueDepth());
+    }
+
+    /**
+     * Tests that a partial batch is flushed once the flush interval has passed.
+     */
+    @Test
+    void testFlushesPartialBatchAfterInterval() {
+        writer = new TranscriptWriter(repository, 100, 50, Duration.ofMillis(20), Duration.ofMillis(50),
+                3, Duration.ofMillis(1), false);
+        writer.start();
+
+        writer.write(transaction(1));
+
+        verify(repository, timeout(2000)).saveAll(anyList());
+        assertEquals(1, writer.getWrittenCount());
+        assertTrue(writer.getFlushCount() >= 1);
+        assertTrue(writer.getTotalFlushNanos() >= writer.getLastFlushNanos());
+    }
+
+    /**
+     * Tests that batches are written from a virtual thread in virtual-thread mode.
+     */
+    @Test
+    void testWritesOnVirtualThread() throws InterruptedException {
+        CountDownLatch written = new CountDownLatch(1);
+        List<Boolean> virtual = new ArrayList<>();
+        doAnswer(invocation -> {
+            virtual.add(Thread.currentThread().isVirtual());
+            written.countDown();
+            return invocation.getArgument(0);
+        }).when(repository).saveAll(anyList());
+        writer = new TranscriptWriter(repository, 100, 10, Duration.ofMillis(20), Duration.ofMillis(50),
+                3, Duration.ofMillis(1), true);
+        writer.start();
+
+        writer.write(transaction(1));
+
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(true), virtual);
+    }
+
+    /**
+     * Tests that producers write synchronously when the queue stays full.
+     */
+    @Test
+    void testBackpressureWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            if (Thread.currentThread().getName().equals("transcript-writer")) {
+                blocked.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return invocation.getArgument(0);
+        }).when(repository).saveAll(anyList());
+        writer = new TranscriptWriter(repository, 1, 1, Duration.ofMillis(1), Duration.ofMillis(1),
+                3, Duration.ofMillis(1), false);
+        writer.start();
+
+        writer.write(transaction(1));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        writer.write(transaction(2));
+        writer.write(transaction(3));
+        release.countDown();
+        writer.stop();
+
+        assertTrue(writer.getOverflowCount() >= 1);
+        assertEquals(3, writer.getWrittenCount());
+    }
+
+    /**
+     * Tests that a batch failing on every attempt is retried, then spilled and counted, without stopping the writer.
+     */
+    @Test
+    void testFailedBatchIsRetriedThenSpilled() {
+        when(repository.saveAll(anyList())).thenThrow(new IllegalStateException("database down"));
+        writer = new TranscriptWriter(repository, 100, 10, Duration.ofMillis(20), Duration.ofMillis(50),
+                3, Duration.ofMillis(1), false);
+
+        writer.write(transaction(1));
+
+        verify(repository, times(3)).saveAll(anyList());
+        assertEquals(1, writer.getFailedCount());
+        assertEquals(0, writer.getWrittenCount());
+    }
+
+    /**
+     * Tests that a batch failing once is written by the retry.
+     */
+    @Test
+    void testFailedBatchIsRetried() {
+        when(repository.saveAll(anyList()))
+                .thenThrow(new IllegalStateException("connection reset"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        writer = new TranscriptWriter(repository, 100, 10, Duration.ofMillis(20), Duration.ofMillis(50),
+                3, Duration.ofMillis(1), false);
+
+        writer.write(transaction(1));
+
+        verify(repository, times(2)).saveAll(anyList());
+        assertEquals(1, writer.getWrittenCount());
+        assertEquals(0, writer.getFailedCount());
+    }
+
+    /**
+     * Tests that a batch whose first attempt failed after a partial flush had given its entities IDs is retried as
+     * new copies of the same transactions, so the retry inserts them instead of merging rows that do not exist.
+     */
+    @Test
+    void testRetryInsertsFreshCopies() {
+        List<List<ChatTransaction>> attempts = new ArrayList<>();
+        List<Long> idsAttempted = new ArrayList<>();
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<ChatTransaction> batch = invocation.getArgument(0);
+            attempts.add(List.copyOf(batch));
+            batch.forEach(transaction -> idsAttempted.add(transaction.getId()));
+            if (attempts.size() == 1) {
+                batch.get(0).setId(1L);
+                throw new IllegalStateException("flush failed on the second row");
+            }
+            return batch;
+        });
+        writer = new TranscriptWriter(repository, 100, 10, Duration.ofSeconds(5), Duration.ofMillis(50),
+                3, Duration.ofMillis(1), false);
+        writer.start();
+        writer.write(transaction(1));
+        writer.write(transaction(2));
+
+        writer.flush();
+
+        assertTrue(attempts.size() >= 2);
+        assertTrue(idsAttempted.stream().allMatch(Objects::isNull), "attempted with IDs " + idsAttempted);
+        assertEquals(2, writer.getWrittenCount());
+        List<ChatTransaction> first = attempts.get(0);
+        List<ChatTransaction> retry = attempts.get(1);
+        for (int i = 0; i < first.size(); i++) {
+            assertNotSame(first.get(i), retry.get(i));
+            assertEquals(first.get(i).getSessionId(), retry.get(i).getSessionId());
+            assertEquals(first.get(i).getMessage(), retry.get(i).getMessage());
+            assertEquals(first.get(i).getTimestamp(), retry.get(i).getTimestamp());
+        }
+    }
+
+    /**
+     * Tests that flushing waits for the batch the background writer has in flight.
+     */
+    @Test
+    void testFlushWaitsForBatchInFlight() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            blocked.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        }).when(repository).saveAll(anyList());
+        writer = new TranscriptWriter(repository, 100, 10, Duration.ofMillis(20), Duration.ofMillis(50),
+                3, Duration.ofMillis(1), false);
+        writer.start();
+        writer.write(transaction(1));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        CountDownLatch flushed = new CountDownLatch(1);
+        Thread flusher = Thread.ofPlatform().start(() -> {
+            writer.flush();
+            flushed.countDown();
+        });
+
+        assertFalse(flushed.await(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(flushed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, writer.getWrittenCount());
+        flusher.join();
+    }
+
+    /**
+     * Tests that flushing writes the queued transactions without waiting for the batch to fill up.
+     */
+    @Test
+    void testFlushWritesQueuedTransactions() {
+        writer = new TranscriptWriter(repository, 100, 50, Duration.ofSeconds(5), Duration.ofMillis(50),
+                3, Duration.ofMillis(1), false);
+        writer.start();
+        for (int i = 0; i < 3; i++) {
+            writer.write(transaction(i));
+        }
+
+        writer.flush();
+
+        assertEquals(3, writer.getWrittenCount());
+        assertEquals(0, writer.getQueueDepth());
+    }
+
+    /**
+     * Tests that invalid sizes are rejected.
+     */
+    @Test
+    void testInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TranscriptWriter(repository, 0, 10, Duration.ofMillis(20), Duration.ofMillis(50),
+                        3, Duration.ofMillis(1), false));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TranscriptWriter(repository, 100, 10, Duration.ofMillis(20), Duration.ofMillis(50),
+                        0, Duration.ofMillis(1), false));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<ChatTransaction>> capturedBatches() {
+        ArgumentCaptor<List<ChatTransaction>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository, atLeastOnce()).saveAll(captor.capture());
+        List<List<ChatTransaction>> batches = new ArrayList<>();
+        batches.addAll(captor.getAllValues());
+        return batches;
+    }
+
+    private static ChatTransaction transaction(long sessionId) {
+        return new ChatTransaction(null, sessionId, "message", "User", LocalDateTime.now());
+    }
+}
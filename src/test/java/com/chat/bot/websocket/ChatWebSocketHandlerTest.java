@@ -0,0 +1,146 @@
+package com.chat.bot.websocket;
+
+import com.chat.bot.dto.ChatTurn;
+import com.chat.bot.service.ChatbotService;
+import com.chat.bot.session.ChatSessionNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the ChatWebSocketHandler class.
+ */
+class ChatWebSocketHandlerTest {
+
+    /**
+     * Mocked chatbot service.
+     */
+    @Mock
+    private ChatbotService chatbotService;
+
+    /**
+     * Mocked WebSocket connection.
+     */
+    @Mock
+    private WebSocketSession connection;
+
+    /**
+     * Attributes of the connection.
+     */
+    private Map<String, Object> attributes;
+
+    /**
+     * Handler under test.
+     */
+    private ChatWebSocketHandler handler;
+
+    /**
+     * Sets up the test environment before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        attributes = new HashMap<>();
+        when(connection.getAttributes()).thenReturn(attributes);
+        when(chatbotService.startChat()).thenReturn(new ChatTurn("token", List.of("Welcome"), List.of("yes"), false));
+        handler = new ChatWebSocketHandler(chatbotService, new ObjectMapper(), 4096, Duration.ofMinutes(30));
+    }
+
+    /**
+     * Tests that opening a connection starts a chat and pushes its first turn.
+     */
+    @Test
+    void testConnectStartsChat() throws Exception {
+        handler.afterConnectionEstablished(connection);
+
+        assertEquals("token", attributes.get(ChatWebSocketHandler.TOKEN_ATTRIBUTE));
+        assertEquals(1, handler.getConnectionCount());
+        verify(connection).setTextMessageSizeLimit(4096);
+        assertTrue(lastMessage().contains("\"Welcome\""));
+    }
+
+    /**
+     * Tests that a response is passed to the service and only its turn pushed.
+     */
+    @Test
+    void testMessagePushesTurn() throws Exception {
+        handler.afterConnectionEstablished(connection);
+        when(chatbotService.respond("token", "yes"))
+                .thenReturn(new ChatTurn("token", List.of("Menu"), List.of("back"), false));
+
+        handler.handleMessage(connection, new TextMessage("{\"response\":\"yes\"}"));
+
+        String turn = lastMessage();
+        assertTrue(turn.contains("\"Menu\""));
+        assertFalse(turn.contains("Welcome"));
+    }
+
+    /**
+     * Tests that malformed and empty messages get an error without reaching the service.
+     */
+    @Test
+    void testInvalidMessagesAreRejected() throws Exception {
+        handler.afterConnectionEstablished(connection);
+
+        handler.handleMessage(connection, new TextMessage("not json"));
+        assertTrue(lastMessage().contains("Malformed message."));
+        handler.handleMessage(connection, new TextMessage("{\"response\":\" \"}"));
+        assertTrue(lastMessage().contains("Response must not be empty."));
+
+        verify(chatbotService, never()).respond(any(), any());
+    }
+
+    /**
+     * Tests that a new chat is started when the session has expired, after telling the client its response was
+     * dropped.
+     */
+    @Test
+    void testExpiredSessionStartsNewChat() throws Exception {
+        handler.afterConnectionEstablished(connection);
+        when(chatbotService.respond("token", "yes")).thenThrow(new ChatSessionNotFoundException("token"));
+        when(chatbotService.startChat()).thenReturn(new ChatTurn("fresh", List.of("Welcome"), List.of("yes"), false));
+
+        handler.handleMessage(connection, new TextMessage("{\"response\":\"yes\"}"));
+
+        assertEquals("fresh", attributes.get(ChatWebSocketHandler.TOKEN_ATTRIBUTE));
+        ArgumentCaptor<TextMessage> captor = ArgumentCaptor.forClass(TextMessage.class);
+        verify(connection, times(3)).sendMessage(captor.capture());
+        Map<?, ?> restarted = new ObjectMapper().readValue(captor.getAllValues().get(1).getPayload(), Map.class);
+        assertEquals(Map.of("restarted", true, "dropped", "yes"), restarted);
+        assertTrue(captor.getAllValues().get(2).getPayload().contains("\"fresh\""));
+    }
+
+    /**
+     * Tests that closing the connection ends its chat.
+     */
+    @Test
+    void testCloseEndsChat() throws Exception {
+        handler.afterConnectionEstablished(connection);
+
+        handler.afterConnectionClosed(connection, CloseStatus.NORMAL);
+
+        verify(chatbotService).endChat("token");
+        assertEquals(0, handler.getConnectionCount());
+        assertFalse(attributes.containsKey(ChatWebSocketHandler.TOKEN_ATTRIBUTE));
+    }
+
+    private String lastMessage() throws Exception {
+        ArgumentCaptor<TextMessage> captor = ArgumentCaptor.forClass(TextMessage.class);
+        verify(connection, atLeastOnce()).sendMessage(captor.capture());
+        return captor.getValue().getPayload();
+    }
+}